@@ -39,6 +39,13 @@ public class RxCompositeDisposable {
         disposables.clear();
     }
 
+    /**
+     * @return число подписок в группе
+     */
+    public int size() {
+        return disposables.size();
+    }
+
     /**
      * Проверяет, отменены ли все подписки.
      *
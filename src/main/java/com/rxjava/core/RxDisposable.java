@@ -1,5 +1,7 @@
 package com.rxjava.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -7,12 +9,24 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class RxDisposable {
     private final AtomicBoolean disposed = new AtomicBoolean(false);
+    private List<Runnable> onDispose;
+    /** Запись {@link RxSubscriptionTracker}; null, пока трекер выключен. */
+    volatile Object tracking;
 
     /**
      * Отменяет подписку и прекращает доставку событий.
      */
     public void dispose() {
-        disposed.set(true);
+        if (disposed.compareAndSet(false, true)) {
+            List<Runnable> actions;
+            synchronized (this) {
+                actions = onDispose;
+                onDispose = null;
+            }
+            if (actions != null) {
+                actions.forEach(Runnable::run);
+            }
+        }
     }
 
     /**
@@ -23,5 +37,24 @@ public class RxDisposable {
     public boolean isDisposed() {
         return disposed.get();
     }
-}
 
+    /**
+     * Регистрирует действие, выполняемое один раз при отмене подписки,
+     * например освобождение ресурсов источника. Если подписка уже отменена,
+     * действие выполняется сразу.
+     *
+     * @param action действие при отмене
+     */
+    public void onDispose(Runnable action) {
+        synchronized (this) {
+            if (!disposed.get()) {
+                if (onDispose == null) {
+                    onDispose = new ArrayList<>(2);
+                }
+                onDispose.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+}
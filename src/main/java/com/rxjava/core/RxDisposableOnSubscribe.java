@@ -0,0 +1,18 @@
+package com.rxjava.core;
+
+/**
+ * Логика эмиссии, которой нужна отмена подписки: источник получает RxDisposable
+ * подписчика и может прекратить работу или освободить ресурсы при его отмене.
+ *
+ * @param <T> тип элементов
+ */
+@FunctionalInterface
+public interface RxDisposableOnSubscribe<T> {
+    /**
+     * Метод, вызывающий при подписке для передачи элементов наблюдателю.
+     *
+     * @param observer   целевой наблюдатель
+     * @param disposable отмена подписки, возвращённая подписчику
+     */
+    void subscribe(RxObserver<? super T> observer, RxDisposable disposable);
+}
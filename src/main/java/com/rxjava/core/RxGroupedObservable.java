@@ -0,0 +1,27 @@
+package com.rxjava.core;
+
+/**
+ * Observable одной группы, порождённой оператором groupBy.
+ *
+ * @param <K> тип ключа группы
+ * @param <T> тип элементов
+ */
+public class RxGroupedObservable<K, T> extends RxObservable<T> {
+    private final K key;
+
+    /**
+     * @param key    ключ группы
+     * @param source логика эмиссии элементов группы
+     */
+    public RxGroupedObservable(K key, RxOnSubscribe<T> source) {
+        super(source);
+        this.key = key;
+    }
+
+    /**
+     * @return ключ, по которому сгруппированы элементы
+     */
+    public K getKey() {
+        return key;
+    }
+}
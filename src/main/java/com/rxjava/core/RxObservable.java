@@ -15,9 +15,13 @@ import java.util.function.Consumer;
 public class RxObservable<T> {
     private static final Logger log = LoggerFactory.getLogger(RxObservable.class);
 
-    private final RxOnSubscribe<T> source;
+    private final RxDisposableOnSubscribe<T> source;
 
-    private RxObservable(RxOnSubscribe<T> source) {
+    protected RxObservable(RxOnSubscribe<T> source) {
+        this((observer, disposable) -> source.subscribe(observer));
+    }
+
+    protected RxObservable(RxDisposableOnSubscribe<T> source) {
         this.source = source;
     }
 
@@ -33,6 +37,18 @@ public class RxObservable<T> {
         return new RxObservable<>(source);
     }
 
+    /**
+     * Фабричный метод для холодного Observable, которому нужна отмена подписки.
+     *
+     * @param source логика эмиссии элементов, получающая RxDisposable подписчика
+     * @param <T>    тип элементов
+     * @return новый RxObservable
+     */
+    public static <T> RxObservable<T> create(RxDisposableOnSubscribe<T> source) {
+        log.debug("Создание RxObservable via create() с отменой подписки");
+        return new RxObservable<>(source);
+    }
+
     /**
      * Фабричный метод для единичного эмиттера.
      *
@@ -100,8 +116,23 @@ public class RxObservable<T> {
      * @return RxDisposable для отмены подписки
      */
     public RxDisposable subscribe(RxObserver<? super T> observer) {
+        return subscribe(observer, new RxDisposable());
+    }
+
+    /**
+     * Подписка с заранее созданным RxDisposable. Нужна, когда отменить подписку
+     * требуется до возврата из subscribe, например у синхронного источника,
+     * который эмитит элементы прямо в вызывающем потоке.
+     *
+     * @param observer   наблюдатель
+     * @param disposable RxDisposable этой подписки
+     * @return тот же disposable
+     */
+    public RxDisposable subscribe(RxObserver<? super T> observer, RxDisposable disposable) {
         log.debug("Новая подписка на RxObservable");
-        RxDisposable disposable = new RxDisposable();
+        if (RxSubscriptionTracker.enabled) {
+            RxSubscriptionTracker.track(disposable);
+        }
         try {
             source.subscribe(new RxObserver<T>() {
                 @Override
@@ -113,16 +144,23 @@ public class RxObservable<T> {
                 @Override
                 public void onError(Throwable t) {
                     if (!disposable.isDisposed()) {
+                        untrack();
                         observer.onError(t);
                     }
                 }
                 @Override
                 public void onComplete() {
                     if (!disposable.isDisposed()) {
+                        untrack();
                         observer.onComplete();
                     }
                 }
-            });
+                private void untrack() {
+                    if (disposable.tracking != null) {
+                        RxSubscriptionTracker.untrack(disposable);
+                    }
+                }
+            }, disposable);
         } catch (Throwable t) {
             observer.onError(t);
         }
@@ -136,8 +174,12 @@ public class RxObservable<T> {
      * @return новый Observable, подписка которого отложена на scheduler
      */
     public RxObservable<T> subscribeOn(RxScheduler scheduler) {
-        return RxObservable.create(observer ->
-                scheduler.schedule(() -> this.subscribe(observer))
+        return RxObservable.create((observer, disposable) ->
+                scheduler.schedule(() -> {
+                    if (!disposable.isDisposed()) {
+                        this.subscribe(observer, disposable);
+                    }
+                })
         );
     }
 
@@ -148,7 +190,7 @@ public class RxObservable<T> {
      * @return новый Observable, события которого переключаются на scheduler
      */
     public RxObservable<T> observeOn(RxScheduler scheduler) {
-        return RxObservable.create(observer ->
+        return RxObservable.create((observer, disposable) ->
                 this.subscribe(new RxObserver<T>() {
                     @Override
                     public void onNext(T item) {
@@ -162,7 +204,7 @@ public class RxObservable<T> {
                     public void onComplete() {
                         scheduler.schedule(observer::onComplete);
                     }
-                })
+                }, disposable)
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,342 @@
+package com.rxjava.core;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Необязательное отслеживание времени жизни подписок и поиск утечек.
+ * <p>
+ * После {@link #enable} каждая sampleRate-я подписка приложения запоминается с местом подписки
+ * (кадр стека, вызвавший subscribe) и временем. Подписки операторов на свои источники
+ * относятся к той же цепочке и отдельно не учитываются. Запись удаляется
+ * при dispose, onError или onComplete. Трекер не держит RxDisposable, а регистрирует его
+ * в {@link Cleaner}: если вся цепочка подписки собрана сборщиком мусора, запись тоже исчезает
+ * и утечкой не считается. Подписка, которая жива, не завершена и не отменена дольше порога,
+ * считается брошенной; {@link #topLeakSites} группирует такие подписки по месту подписки.
+ * Операторы с очередями сообщают их размер через {@link #retain}, он попадает в отчёт.
+ * <p>
+ * Кодом библиотеки считаются классы пакетов com.rxjava.core, operators, schedulers, io, journal,
+ * net, ring, interop и util, загруженные из того же места, что и сама библиотека. Поэтому
+ * приложение, собранное с библиотекой в один jar, отслеживается, если его классы лежат в других пакетах.
+ * <p>
+ * Выключенный трекер стоит одного чтения volatile-поля на подписку.
+ */
+public final class RxSubscriptionTracker {
+    static volatile boolean enabled;
+
+    private static final Object NOT_SAMPLED = new Object();
+    private static final Set<Tracked> active = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong subscriptions = new AtomicLong();
+    private static final AtomicLong collected = new AtomicLong();
+    private static final CodeSource LIBRARY = RxObservable.class.getProtectionDomain().getCodeSource();
+    private static final Set<String> LIBRARY_PACKAGES = Set.of(
+            "com.rxjava.core", "com.rxjava.operators", "com.rxjava.schedulers", "com.rxjava.io",
+            "com.rxjava.journal", "com.rxjava.net", "com.rxjava.ring", "com.rxjava.interop", "com.rxjava.util");
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static volatile long thresholdNanos;
+    private static volatile int sampleRate = 1;
+    private static Cleaner cleaner;
+
+    private RxSubscriptionTracker() {
+    }
+
+    /**
+     * Включает отслеживание.
+     *
+     * @param abandonThreshold через сколько незавершённая подписка считается брошенной
+     * @param unit             единица измерения порога
+     * @param sampleRate       отслеживать каждую sampleRate-ю подписку (1 — все)
+     */
+    public static synchronized void enable(long abandonThreshold, TimeUnit unit, int sampleRate) {
+        if (sampleRate <= 0 || abandonThreshold < 0) {
+            throw new IllegalArgumentException("sampleRate должен быть положительным, порог — неотрицательным: "
+                    + sampleRate + ", " + abandonThreshold);
+        }
+        if (cleaner == null) {
+            cleaner = Cleaner.create();
+        }
+        RxSubscriptionTracker.thresholdNanos = unit.toNanos(abandonThreshold);
+        RxSubscriptionTracker.sampleRate = sampleRate;
+        enabled = true;
+    }
+
+    /**
+     * Выключает отслеживание и забывает все записи.
+     */
+    public static synchronized void disable() {
+        enabled = false;
+        active.clear();
+        subscriptions.set(0);
+        collected.set(0);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Сообщает размер очереди или другого накопителя, удерживаемого подпиской.
+     * Накопитель хранится по слабой ссылке; size вызывается только при построении отчёта
+     * из чужого потока, поэтому значение приблизительное. Чтобы не выделять память,
+     * size должен быть ссылкой на метод без захвата, например {@code Collection::size}.
+     *
+     * @param owner  RxDisposable подписки
+     * @param holder очередь или другой накопитель
+     * @param size   его текущий размер
+     * @param <H>    тип накопителя
+     */
+    public static <H> void retain(RxDisposable owner, H holder, ToIntFunction<? super H> size) {
+        if (enabled && owner.tracking instanceof Tracked) {
+            ((Tracked) owner.tracking).retained.add(new Retained<>(holder, size));
+        }
+    }
+
+    /**
+     * @return отслеживаемые подписки, от самой старой
+     */
+    public static List<Subscription> activeSubscriptions() {
+        long now = System.nanoTime();
+        List<Subscription> result = new ArrayList<>();
+        for (Tracked tracked : active) {
+            result.add(new Subscription(tracked.site, now - tracked.subscribedAt, tracked.retainedSize()));
+        }
+        result.sort(Comparator.comparingLong(Subscription::getAgeNanos).reversed());
+        return result;
+    }
+
+    /**
+     * @param limit сколько мест вернуть
+     * @return места подписки брошенных подписок, по убыванию их числа
+     */
+    public static List<LeakSite> topLeakSites(int limit) {
+        long now = System.nanoTime();
+        Map<String, LeakSite> sites = new HashMap<>();
+        for (Tracked tracked : active) {
+            long age = now - tracked.subscribedAt;
+            if (age >= thresholdNanos) {
+                sites.computeIfAbsent(tracked.site, LeakSite::new).add(age, tracked.retainedSize());
+            }
+        }
+        List<LeakSite> result = new ArrayList<>(sites.values());
+        result.sort(Comparator.comparingLong(LeakSite::getCount).reversed()
+                .thenComparing(Comparator.comparingLong(LeakSite::getOldestAgeNanos).reversed()));
+        return result.subList(0, Math.min(limit, result.size()));
+    }
+
+    /**
+     * @return число подписок с момента включения, включая не попавшие в выборку
+     */
+    public static long getSubscriptionCount() {
+        return subscriptions.get();
+    }
+
+    /**
+     * @return число записей, убранных сборщиком мусора без dispose и завершения
+     */
+    public static long getCollectedCount() {
+        return collected.get();
+    }
+
+    static void track(RxDisposable disposable) {
+        if (disposable.tracking != null || disposable.isDisposed()) {
+            // вложенная подписка той же цепочки уже учтена
+            return;
+        }
+        String site = site();
+        if (site == null || subscriptions.incrementAndGet() % sampleRate != 0) {
+            disposable.tracking = NOT_SAMPLED;
+            return;
+        }
+        Tracked tracked = new Tracked(site);
+        tracked.cleanable = cleaner.register(disposable, new Cleanup(tracked));
+        disposable.tracking = tracked;
+        active.add(tracked);
+        disposable.onDispose(() -> untrack(disposable));
+    }
+
+    static void untrack(RxDisposable disposable) {
+        Object tracking = disposable.tracking;
+        if (tracking instanceof Tracked && active.remove(tracking)) {
+            ((Tracked) tracking).cleanable.clean();
+        }
+    }
+
+    /**
+     * @return место вызова subscribe или null, если subscribe вызвал код библиотеки
+     */
+    private static String site() {
+        return WALKER.walk(frames -> frames
+                .dropWhile(frame -> frame.getDeclaringClass() == RxSubscriptionTracker.class
+                        || frame.getDeclaringClass() == RxObservable.class)
+                .findFirst()
+                .filter(frame -> !isLibrary(frame.getDeclaringClass()))
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName()
+                        + "(" + frame.getFileName() + ":" + frame.getLineNumber() + ")")
+                .orElse(null));
+    }
+
+    /**
+     * Одного места загрузки мало: в fat jar оно общее у библиотеки и приложения.
+     * Одного пакета тоже: тесты библиотеки лежат в её пакетах, но загружаются из другого каталога.
+     */
+    static boolean isLibrary(Class<?> type) {
+        return LIBRARY_PACKAGES.contains(type.getPackageName())
+                && Objects.equals(type.getProtectionDomain().getCodeSource(), LIBRARY);
+    }
+
+    /**
+     * Действие Cleaner; не ссылается на RxDisposable, иначе тот не будет собран.
+     */
+    private static final class Cleanup implements Runnable {
+        private final Tracked tracked;
+
+        Cleanup(Tracked tracked) {
+            this.tracked = tracked;
+        }
+
+        @Override
+        public void run() {
+            if (active.remove(tracked)) {
+                collected.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class Tracked {
+        final String site;
+        final long subscribedAt = System.nanoTime();
+        final List<Retained<?>> retained = new CopyOnWriteArrayList<>();
+        Cleaner.Cleanable cleanable;
+
+        Tracked(String site) {
+            this.site = site;
+        }
+
+        long retainedSize() {
+            long size = 0;
+            for (Retained<?> holder : retained) {
+                size += holder.size();
+            }
+            return size;
+        }
+    }
+
+    private static final class Retained<H> extends WeakReference<H> {
+        private final ToIntFunction<? super H> size;
+
+        Retained(H holder, ToIntFunction<? super H> size) {
+            super(holder);
+            this.size = size;
+        }
+
+        int size() {
+            H holder = get();
+            return holder == null ? 0 : size.applyAsInt(holder);
+        }
+    }
+
+    /**
+     * Отслеживаемая подписка.
+     */
+    public static final class Subscription {
+        private final String site;
+        private final long ageNanos;
+        private final long retainedSize;
+
+        Subscription(String site, long ageNanos, long retainedSize) {
+            this.site = site;
+            this.ageNanos = ageNanos;
+            this.retainedSize = retainedSize;
+        }
+
+        /**
+         * @return место подписки: класс, метод, файл и строка
+         */
+        public String getSite() {
+            return site;
+        }
+
+        /**
+         * @return сколько подписка живёт, нс
+         */
+        public long getAgeNanos() {
+            return ageNanos;
+        }
+
+        /**
+         * @return суммарный размер очередей, о которых сообщили операторы подписки
+         */
+        public long getRetainedSize() {
+            return retainedSize;
+        }
+
+        @Override
+        public String toString() {
+            return site + " age=" + TimeUnit.NANOSECONDS.toMillis(ageNanos) + "ms retained=" + retainedSize;
+        }
+    }
+
+    /**
+     * Место подписки с брошенными подписками.
+     */
+    public static final class LeakSite {
+        private final String site;
+        private long count;
+        private long oldestAgeNanos;
+        private long retainedSize;
+
+        LeakSite(String site) {
+            this.site = site;
+        }
+
+        void add(long ageNanos, long retained) {
+            count++;
+            oldestAgeNanos = Math.max(oldestAgeNanos, ageNanos);
+            retainedSize += retained;
+        }
+
+        public String getSite() {
+            return site;
+        }
+
+        /**
+         * @return число брошенных подписок (в выборке)
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return возраст самой старой из них, нс
+         */
+        public long getOldestAgeNanos() {
+            return oldestAgeNanos;
+        }
+
+        /**
+         * @return суммарный размер удерживаемых ими очередей
+         */
+        public long getRetainedSize() {
+            return retainedSize;
+        }
+
+        @Override
+        public String toString() {
+            return site + " count=" + count + " oldest=" + TimeUnit.NANOSECONDS.toMillis(oldestAgeNanos)
+                    + "ms retained=" + retainedSize;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.rxjava.interop;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxScheduler;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Мосты от RxObservable к блокирующему коду.
+ * <p>
+ * Итератор подписывается на источник в отдельном потоке и получает элементы через
+ * ограниченную очередь на prefetch элементов: источник блокируется, пока очередь полна,
+ * а итератор забирает из неё всё накопленное одним drainTo, поэтому поток-потребитель
+ * засыпает и просыпается один раз на пакет, а не на каждый элемент.
+ * Ошибка источника пробрасывается из hasNext/next как RuntimeException.
+ * Подписку не дочитанного до конца итератора отменяет только close, поэтому для досрочного
+ * выхода нужны {@link #iterator} или {@link #toStream} в try-with-resources.
+ */
+public class RxBlocking {
+    static final int DEFAULT_PREFETCH = 128;
+    private static final Object COMPLETE = new Object();
+
+    /**
+     * Итератор этого Iterable нельзя закрыть, поэтому его нужно дочитать до конца:
+     * при досрочном выходе из for-each источник остаётся подписан и занимает поток,
+     * ожидая места в очереди. Для досрочного выхода есть {@link #iterator} и {@link #toStream}.
+     *
+     * @param source   исходный Observable
+     * @param prefetch размер очереди между источником и итератором
+     * @param <T>      тип элементов
+     * @return Iterable, каждый итератор которого заново подписывается на source
+     */
+    public static <T> Iterable<T> iterable(RxObservable<T> source, int prefetch) {
+        return iterable(source, prefetch, new RxIOScheduler());
+    }
+
+    /**
+     * Итератор нужно дочитать до конца, см. {@link #iterable(RxObservable, int)}.
+     *
+     * @param source    исходный Observable
+     * @param prefetch  размер очереди между источником и итератором
+     * @param scheduler планировщик, в котором подписывается source
+     * @param <T>       тип элементов
+     * @return Iterable, каждый итератор которого заново подписывается на source
+     */
+    public static <T> Iterable<T> iterable(RxObservable<T> source, int prefetch, RxScheduler scheduler) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch должен быть положительным: " + prefetch);
+        }
+        return () -> new BlockingIterator<>(source, prefetch, scheduler);
+    }
+
+    /**
+     * Закрываемый итератор для try-with-resources: close отменяет подписку на source,
+     * даже если элементы прочитаны не все.
+     *
+     * @param source   исходный Observable
+     * @param prefetch размер очереди между источником и итератором
+     * @param <T>      тип элементов
+     * @return итератор, подписывающийся на source при первом hasNext
+     */
+    public static <T> CloseableIterator<T> iterator(RxObservable<T> source, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch должен быть положительным: " + prefetch);
+        }
+        return new BlockingIterator<>(source, prefetch, new RxIOScheduler());
+    }
+
+    /**
+     * Последовательный Stream элементов. Закрытие Stream (или досрочный выход через
+     * findFirst, limit и т.п. с последующим close) отменяет подписку на source.
+     *
+     * @param source исходный Observable
+     * @param <T>    тип элементов
+     * @return Stream элементов source
+     */
+    public static <T> Stream<T> toStream(RxObservable<T> source) {
+        return toStream(source, DEFAULT_PREFETCH);
+    }
+
+    /**
+     * @param source   исходный Observable
+     * @param prefetch размер очереди между источником и Stream
+     * @param <T>      тип элементов
+     * @return Stream элементов source
+     */
+    public static <T> Stream<T> toStream(RxObservable<T> source, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch должен быть положительным: " + prefetch);
+        }
+        BlockingIterator<T> iterator = new BlockingIterator<>(source, prefetch, new RxIOScheduler());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Ждёт первый элемент и отменяет подписку.
+     *
+     * @param source исходный Observable
+     * @param <T>    тип элементов
+     * @return первый элемент
+     * @throws NoSuchElementException если source завершился без элементов
+     */
+    public static <T> T first(RxObservable<T> source) {
+        AtomicReference<T> value = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        RxDisposable disposable = new RxDisposable();
+        source.subscribe(new RxObserver<T>() {
+            @Override
+            public void onNext(T item) {
+                if (done.getCount() > 0) {
+                    value.set(item);
+                    done.countDown();
+                    disposable.dispose();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        }, disposable);
+        return await(done, value, error, disposable);
+    }
+
+    /**
+     * Ждёт завершения source и возвращает последний элемент.
+     *
+     * @param source исходный Observable
+     * @param <T>    тип элементов
+     * @return последний элемент
+     * @throws NoSuchElementException если source завершился без элементов
+     */
+    public static <T> T last(RxObservable<T> source) {
+        AtomicReference<T> value = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        RxDisposable disposable = new RxDisposable();
+        source.subscribe(new RxObserver<T>() {
+            @Override
+            public void onNext(T item) {
+                value.lazySet(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        }, disposable);
+        return await(done, value, error, disposable);
+    }
+
+    private static <T> T await(
+            CountDownLatch done,
+            AtomicReference<T> value,
+            AtomicReference<Throwable> error,
+            RxDisposable disposable
+    ) {
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            disposable.dispose();
+            throw new IllegalStateException("Ожидание элемента прервано", e);
+        }
+        if (error.get() != null) {
+            throw propagate(error.get());
+        }
+        T result = value.get();
+        if (result == null) {
+            throw new NoSuchElementException("Источник завершился без элементов");
+        }
+        return result;
+    }
+
+    static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new RuntimeException(t);
+    }
+
+    /**
+     * Итератор, который можно закрыть, не дочитав: close отменяет подписку на источник.
+     *
+     * @param <T> тип элементов
+     */
+    public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Итератор поверх ограниченной очереди. Подписка на источник откладывается
+     * до первого hasNext.
+     */
+    private static final class BlockingIterator<T> implements CloseableIterator<T>, RxObserver<T> {
+        private final RxObservable<T> source;
+        private final RxScheduler scheduler;
+        private final BlockingQueue<Object> queue;
+        private final ArrayDeque<Object> batch;
+        private final RxDisposable upstream = new RxDisposable();
+        private final int prefetch;
+        private boolean subscribed;
+        private Object next;
+        private boolean finished;
+
+        BlockingIterator(RxObservable<T> source, int prefetch, RxScheduler scheduler) {
+            this.source = source;
+            this.scheduler = scheduler;
+            this.prefetch = prefetch;
+            this.queue = new ArrayBlockingQueue<>(prefetch);
+            this.batch = new ArrayDeque<>(prefetch);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (finished) {
+                return false;
+            }
+            if (!subscribed) {
+                subscribed = true;
+                scheduler.schedule(() -> source.subscribe(this, upstream));
+            }
+            Object signal = batch.poll();
+            if (signal == null) {
+                try {
+                    signal = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new IllegalStateException("Ожидание элемента прервано", e);
+                }
+                queue.drainTo(batch, prefetch);
+            }
+            if (signal == COMPLETE) {
+                finished = true;
+                return false;
+            }
+            if (signal instanceof ErrorSignal) {
+                finished = true;
+                throw propagate(((ErrorSignal) signal).error);
+            }
+            next = signal;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T item = (T) next;
+            next = null;
+            return item;
+        }
+
+        @Override
+        public void close() {
+            finished = true;
+            upstream.dispose();
+            queue.clear();
+            batch.clear();
+        }
+
+        @Override
+        public void onNext(T item) {
+            offer(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            offer(new ErrorSignal(t));
+        }
+
+        @Override
+        public void onComplete() {
+            offer(COMPLETE);
+        }
+
+        private void offer(Object signal) {
+            try {
+                // источник блокируется, пока очередь полна, но не дольше отмены
+                while (!upstream.isDisposed()) {
+                    if (queue.offer(signal, 10, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class ErrorSignal {
+        final Throwable error;
+
+        ErrorSignal(Throwable error) {
+            this.error = error;
+        }
+    }
+}
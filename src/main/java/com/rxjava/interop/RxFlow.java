@@ -0,0 +1,225 @@
+package com.rxjava.interop;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxScheduler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Адаптеры между RxObservable и {@link java.util.concurrent.Flow}.
+ * <p>
+ * RxObservable не знает о запросах подписчика, поэтому Publisher ставит между ними
+ * ограниченную очередь: элементы передаются подписчику только в пределах запрошенного,
+ * а источник блокируется в onNext, пока очередь полна. Обратное направление запрашивает
+ * элементы у Publisher окнами по prefetch.
+ */
+public class RxFlow {
+    static final int DEFAULT_BUFFER = 128;
+    private static final Object COMPLETE = new Object();
+
+    /**
+     * @param source исходный Observable
+     * @param <T>    тип элементов
+     * @return Publisher, подписывающий source в RxIOScheduler
+     */
+    public static <T> Flow.Publisher<T> toPublisher(RxObservable<T> source) {
+        return toPublisher(source, DEFAULT_BUFFER, new RxIOScheduler());
+    }
+
+    /**
+     * Каждый Flow.Subscriber получает собственную подписку на source. Подписка выполняется
+     * в scheduler, чтобы синхронный источник, заблокированный полной очередью,
+     * не держал поток, из которого подписчик будет запрашивать элементы.
+     *
+     * @param source     исходный Observable
+     * @param bufferSize размер очереди между source и подписчиком
+     * @param scheduler  планировщик подписки на source
+     * @param <T>        тип элементов
+     * @return Publisher, соблюдающий запросы подписчика
+     */
+    public static <T> Flow.Publisher<T> toPublisher(RxObservable<T> source, int bufferSize, RxScheduler scheduler) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize должен быть положительным: " + bufferSize);
+        }
+        return subscriber -> {
+            DemandSubscription<T> subscription = new DemandSubscription<>(subscriber, bufferSize);
+            subscriber.onSubscribe(subscription);
+            scheduler.schedule(() -> source.subscribe(subscription, subscription.upstream));
+        };
+    }
+
+    /**
+     * @param publisher исходный Publisher
+     * @param prefetch  сколько элементов запрашивать вперёд
+     * @param <T>       тип элементов
+     * @return Observable, который при подписке подписывается на publisher
+     */
+    public static <T> RxObservable<T> fromPublisher(Flow.Publisher<? extends T> publisher, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch должен быть положительным: " + prefetch);
+        }
+        // запрашиваем следующую порцию, когда израсходовано три четверти окна
+        int limit = prefetch - (prefetch >> 2);
+        return RxObservable.create((observer, disposable) -> publisher.subscribe(new Flow.Subscriber<T>() {
+            private final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+            private int consumed;
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                if (!subscription.compareAndSet(null, s)) {
+                    s.cancel();
+                    return;
+                }
+                disposable.onDispose(s::cancel);
+                s.request(prefetch);
+            }
+
+            @Override
+            public void onNext(T item) {
+                observer.onNext(item);
+                if (++consumed == limit) {
+                    consumed = 0;
+                    subscription.get().request(limit);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                observer.onError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                observer.onComplete();
+            }
+        }));
+    }
+
+    /**
+     * Мост RxObserver → Flow.Subscriber: очередь между источником и подписчиком
+     * и цикл доставки, который выдаёт не больше запрошенного.
+     * Доставку выполняет тот поток, который первым увидел новый элемент или запрос.
+     */
+    private static final class DemandSubscription<T> implements Flow.Subscription, RxObserver<T> {
+        final RxDisposable upstream = new RxDisposable();
+        private final Flow.Subscriber<? super T> subscriber;
+        private final BlockingQueue<Object> queue;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private boolean done;
+
+        DemandSubscription(Flow.Subscriber<? super T> subscriber, int bufferSize) {
+            this.subscriber = subscriber;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        @Override
+        public void onNext(T item) {
+            offer(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            offer(new ErrorSignal(t));
+        }
+
+        @Override
+        public void onComplete() {
+            offer(COMPLETE);
+        }
+
+        private void offer(Object signal) {
+            try {
+                // источник блокируется, пока очередь полна, но не дольше отмены
+                while (!cancelled) {
+                    if (queue.offer(signal, 10, TimeUnit.MILLISECONDS)) {
+                        drain();
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Запрошено неположительное число элементов: " + n));
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.dispose();
+            queue.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                for (;;) {
+                    if (cancelled || done) {
+                        queue.clear();
+                        break;
+                    }
+                    Object signal = queue.peek();
+                    if (signal == null) {
+                        break;
+                    }
+                    if (signal == COMPLETE || signal instanceof ErrorSignal) {
+                        queue.poll();
+                        done = true;
+                        if (signal == COMPLETE) {
+                            subscriber.onComplete();
+                        } else {
+                            subscriber.onError(((ErrorSignal) signal).error);
+                        }
+                        continue;
+                    }
+                    if (requested.get() == 0) {
+                        break;
+                    }
+                    queue.poll();
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    subscriber.onNext((T) signal);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+
+    private static final class ErrorSignal {
+        final Throwable error;
+
+        ErrorSignal(Throwable error) {
+            this.error = error;
+        }
+    }
+}
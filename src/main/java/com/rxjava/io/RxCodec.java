@@ -0,0 +1,53 @@
+package com.rxjava.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Кодек элементов потока в байты и обратно.
+ * <p>
+ * Кодирование пишет прямо в переданный буфер, поэтому кодек обязан заранее
+ * сообщить точный размер представления элемента.
+ *
+ * @param <T> тип элементов
+ */
+public interface RxCodec<T> {
+    /**
+     * @param item элемент
+     * @return точный размер закодированного элемента в байтах
+     */
+    int encodedSize(T item);
+
+    /**
+     * Записывает элемент в буфер, начиная с его текущей позиции.
+     *
+     * @param item элемент
+     * @param out  буфер, в котором гарантированно есть encodedSize(item) байт
+     */
+    void encode(T item, ByteBuffer out);
+
+    /**
+     * Читает элемент из всех оставшихся байт буфера.
+     *
+     * @param in буфер с одним закодированным элементом
+     * @return декодированный элемент
+     */
+    T decode(ByteBuffer in);
+
+    /**
+     * @return кодек строк в UTF-8
+     */
+    static RxCodec<String> utf8() {
+        return Utf8Codec.INSTANCE;
+    }
+
+    /**
+     * @return кодек long в 8 байт big-endian
+     */
+    static RxCodec<Long> int64() {
+        return new RxCodec<Long>() {
+            @Override public int encodedSize(Long item)            { return Long.BYTES; }
+            @Override public void encode(Long item, ByteBuffer out) { out.putLong(item); }
+            @Override public Long decode(ByteBuffer in)            { return in.getLong(in.position()); }
+        };
+    }
+}
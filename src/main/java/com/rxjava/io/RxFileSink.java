@@ -0,0 +1,327 @@
+package com.rxjava.io;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Терминальный файловый приёмник: пишет элементы потока в файл пакетами.
+ * <p>
+ * Элементы кодируются в несколько прямых ByteBuffer; заполненные буферы
+ * записываются одним gathering-вызовом FileChannel.write. Сброс на диск
+ * (FileChannel.force) выполняется по {@link ForcePolicy}, а не на каждый элемент.
+ * При завершении источника оставшиеся данные всегда записываются и сбрасываются на диск.
+ * Результирующий Observable эмитит число записанных байт и завершается после
+ * успешного сброса, либо передаёт ошибку источника или ввода-вывода.
+ * Отмена подписки отменяет источник и закрывает файл; данные, ещё не записанные
+ * из буферов в канал, при этом теряются.
+ */
+public class RxFileSink {
+    private static final Logger log = LoggerFactory.getLogger(RxFileSink.class);
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final int BUFFERS = 4;
+
+    /**
+     * Перезаписывает файл элементами source.
+     *
+     * @param source исходный Observable
+     * @param path   путь к файлу
+     * @param codec  кодек элементов
+     * @param format формат записей в файле
+     * @param policy политика сброса на диск
+     * @param <T>    тип элементов
+     * @return Observable с числом записанных байт
+     */
+    public static <T> RxObservable<Long> write(
+            RxObservable<T> source,
+            Path path,
+            RxCodec<? super T> codec,
+            RxRecordFormat format,
+            ForcePolicy policy
+    ) {
+        return sink(source, path, codec, format, policy, false);
+    }
+
+    /**
+     * Дописывает элементы source в конец файла.
+     *
+     * @param source исходный Observable
+     * @param path   путь к файлу
+     * @param codec  кодек элементов
+     * @param format формат записей в файле
+     * @param policy политика сброса на диск
+     * @param <T>    тип элементов
+     * @return Observable с числом записанных байт
+     */
+    public static <T> RxObservable<Long> append(
+            RxObservable<T> source,
+            Path path,
+            RxCodec<? super T> codec,
+            RxRecordFormat format,
+            ForcePolicy policy
+    ) {
+        return sink(source, path, codec, format, policy, true);
+    }
+
+    private static <T> RxObservable<Long> sink(
+            RxObservable<T> source,
+            Path path,
+            RxCodec<? super T> codec,
+            RxRecordFormat format,
+            ForcePolicy policy,
+            boolean append
+    ) {
+        return RxObservable.create((observer, disposable) -> {
+            BatchWriter<T> writer;
+            try {
+                FileChannel channel = append
+                        ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                StandardOpenOption.APPEND)
+                        : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                StandardOpenOption.TRUNCATE_EXISTING);
+                writer = new BatchWriter<>(channel, codec, format, policy);
+            } catch (IOException e) {
+                observer.onError(e);
+                return;
+            }
+            disposable.onDispose(writer::closeQuietly);
+
+            source.subscribe(new RxObserver<T>() {
+                private boolean done;
+
+                @Override
+                public void onNext(T item) {
+                    if (done) {
+                        return;
+                    }
+                    try {
+                        writer.write(item);
+                    } catch (Throwable e) {
+                        // не только ввод-вывод: кодек, занизивший encodedSize, даёт BufferOverflowException
+                        done = true;
+                        writer.closeQuietly();
+                        observer.onError(e);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    if (done) {
+                        return;
+                    }
+                    done = true;
+                    // то, что успели получить до ошибки, всё равно сохраняем
+                    try {
+                        writer.finish();
+                    } catch (IOException e) {
+                        t.addSuppressed(e);
+                    }
+                    observer.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    if (done) {
+                        return;
+                    }
+                    done = true;
+                    try {
+                        writer.finish();
+                    } catch (IOException e) {
+                        observer.onError(e);
+                        return;
+                    }
+                    observer.onNext(writer.bytesWritten);
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    /**
+     * Политика группового сброса записанных данных на диск.
+     */
+    public static final class ForcePolicy {
+        final long everyItems;
+        final long intervalNanos;
+        final boolean everyBatch;
+
+        private ForcePolicy(long everyItems, long intervalNanos, boolean everyBatch) {
+            this.everyItems = everyItems;
+            this.intervalNanos = intervalNanos;
+            this.everyBatch = everyBatch;
+        }
+
+        /**
+         * @param items число элементов между сбросами
+         * @return сброс после каждых items элементов
+         */
+        public static ForcePolicy everyItems(long items) {
+            if (items <= 0) {
+                throw new IllegalArgumentException("items должен быть положительным: " + items);
+            }
+            return new ForcePolicy(items, 0, false);
+        }
+
+        /**
+         * Интервал проверяется при поступлении элементов: если поток простаивает,
+         * данные сбрасываются при следующем элементе или при завершении.
+         *
+         * @param interval минимальный интервал между сбросами
+         * @param unit     единица измерения интервала
+         * @return сброс не чаще одного раза за интервал
+         */
+        public static ForcePolicy interval(long interval, TimeUnit unit) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("interval должен быть положительным: " + interval);
+            }
+            return new ForcePolicy(0, unit.toNanos(interval), false);
+        }
+
+        /**
+         * @return сброс после каждой пакетной записи буферов в канал
+         */
+        public static ForcePolicy everyBatch() {
+            return new ForcePolicy(0, 0, true);
+        }
+
+        /**
+         * @return сброс только при завершении потока
+         */
+        public static ForcePolicy onComplete() {
+            return new ForcePolicy(0, 0, false);
+        }
+    }
+
+    /**
+     * Пакетный писатель: кодирует элементы в кольцо прямых буферов и пишет их
+     * gathering-вызовом, когда буферы заполнены или политика требует сброса.
+     */
+    static final class BatchWriter<T> {
+        private final FileChannel channel;
+        private final RxCodec<? super T> codec;
+        private final RxRecordFormat format;
+        private final ForcePolicy policy;
+        private final ByteBuffer[] buffers = new ByteBuffer[BUFFERS];
+        private int current;
+        private long itemsSinceForce;
+        private long lastForceNanos = System.nanoTime();
+        private boolean dirty;
+        long bytesWritten;
+        long forces;
+
+        BatchWriter(FileChannel channel, RxCodec<? super T> codec, RxRecordFormat format, ForcePolicy policy) {
+            this.channel = channel;
+            this.codec = codec;
+            this.format = format;
+            this.policy = policy;
+            for (int i = 0; i < BUFFERS; i++) {
+                buffers[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            }
+        }
+
+        void write(T item) throws IOException {
+            int payload = codec.encodedSize(item);
+            int framed = format.framedSize(payload);
+            if (framed > BUFFER_SIZE) {
+                writeLarge(item, payload, framed);
+            } else {
+                if (buffers[current].remaining() < framed) {
+                    if (current + 1 == BUFFERS) {
+                        flushBatch();
+                    } else {
+                        current++;
+                    }
+                }
+                encode(buffers[current], item, payload);
+            }
+            itemsSinceForce++;
+            if (policy.everyItems > 0 && itemsSinceForce >= policy.everyItems) {
+                flushBatch();
+                force();
+            } else if (policy.intervalNanos > 0 && System.nanoTime() - lastForceNanos >= policy.intervalNanos) {
+                flushBatch();
+                force();
+            }
+        }
+
+        void finish() throws IOException {
+            try {
+                flushBatch();
+                force();
+            } finally {
+                channel.close();
+            }
+            log.debug("Файл записан: {} байт, сбросов на диск: {}", bytesWritten, forces);
+        }
+
+        void closeQuietly() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Не удалось закрыть файл", e);
+            }
+        }
+
+        private void encode(ByteBuffer out, T item, int payload) {
+            format.writeHeader(out, payload);
+            codec.encode(item, out);
+            format.writeTrailer(out);
+        }
+
+        private void writeLarge(T item, int payload, int framed) throws IOException {
+            flushBatch();
+            ByteBuffer large = ByteBuffer.allocate(framed);
+            encode(large, item, payload);
+            large.flip();
+            while (large.hasRemaining()) {
+                bytesWritten += channel.write(large);
+            }
+            dirty = true;
+        }
+
+        private void flushBatch() throws IOException {
+            int used = buffers[current].position() > 0 ? current + 1 : current;
+            if (used == 0) {
+                return;
+            }
+            long pending = 0;
+            for (int i = 0; i < used; i++) {
+                buffers[i].flip();
+                pending += buffers[i].remaining();
+            }
+            while (pending > 0) {
+                long written = channel.write(buffers, 0, used);
+                pending -= written;
+                bytesWritten += written;
+            }
+            for (int i = 0; i < used; i++) {
+                buffers[i].clear();
+            }
+            current = 0;
+            dirty = true;
+            if (policy.everyBatch) {
+                force();
+            }
+        }
+
+        private void force() throws IOException {
+            itemsSinceForce = 0;
+            lastForceNanos = System.nanoTime();
+            if (!dirty) {
+                return;
+            }
+            channel.force(false);
+            forces++;
+            dirty = false;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.rxjava.io;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.operators.MapOperator;
+import com.rxjava.operators.MergeOperator;
+import com.rxjava.schedulers.RxScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Источники, читающие файлы через отображение в память (FileChannel.map).
+ * <p>
+ * Записи эмитятся как read-only срезы отображения, без копирования в кучу.
+ * Срез остаётся валидным, пока на него есть ссылка, но содержимое файла
+ * не должно меняться во время чтения. Файлы больше 2 ГБ читаются окнами;
+ * запись не может быть больше одного окна. После отмены подписки чтение
+ * останавливается на следующей записи.
+ */
+public class RxFileSource {
+    private static final Logger log = LoggerFactory.getLogger(RxFileSource.class);
+    static final long DEFAULT_WINDOW = 256L << 20;
+
+    /**
+     * @param path   путь к файлу
+     * @param format формат записей
+     * @return Observable записей всего файла
+     */
+    public static RxObservable<ByteBuffer> records(Path path, RxRecordFormat format) {
+        return RxObservable.create((observer, disposable) -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                read(channel, format, 0, channel.size(), DEFAULT_WINDOW, disposable::isDisposed, observer::onNext);
+            } catch (Throwable t) {
+                observer.onError(t);
+                return;
+            }
+            observer.onComplete();
+        });
+    }
+
+    /**
+     * @param path    путь к файлу
+     * @param format  формат записей
+     * @param decoder преобразование среза записи в объект
+     * @param <T>     тип объектов
+     * @return Observable декодированных записей всего файла
+     */
+    public static <T> RxObservable<T> records(Path path, RxRecordFormat format, Function<ByteBuffer, T> decoder) {
+        return MapOperator.apply(records(path, format), decoder);
+    }
+
+    /**
+     * Делит файл на части по границам записей. Каждую часть можно подписывать
+     * независимо, например в разных потоках RxComputationScheduler.
+     *
+     * @param path   путь к файлу
+     * @param format формат записей
+     * @param chunks желаемое число частей (для маленьких файлов частей может быть меньше)
+     * @return список Observable, по одному на часть, в порядке следования в файле
+     * @throws IOException если файл не удалось открыть или разметить
+     */
+    public static List<RxObservable<ByteBuffer>> split(Path path, RxRecordFormat format, int chunks)
+            throws IOException {
+        return split(path, format, chunks, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Параллельное чтение: части файла подписываются в scheduler, записи декодируются
+     * в рабочих потоках и сливаются в один поток без сохранения порядка.
+     * onNext может вызываться из нескольких потоков одновременно.
+     *
+     * @param path      путь к файлу
+     * @param format    формат записей
+     * @param decoder   преобразование среза записи в объект
+     * @param chunks    число частей
+     * @param scheduler планировщик рабочих потоков, например RxComputationScheduler
+     * @param <T>       тип объектов
+     * @return Observable декодированных записей всех частей
+     */
+    public static <T> RxObservable<T> parallel(
+            Path path,
+            RxRecordFormat format,
+            Function<ByteBuffer, T> decoder,
+            int chunks,
+            RxScheduler scheduler
+    ) {
+        return RxObservable.create((observer, disposable) -> {
+            List<RxObservable<ByteBuffer>> parts;
+            try {
+                parts = split(path, format, chunks);
+            } catch (Throwable t) {
+                observer.onError(t);
+                return;
+            }
+            // MergeOperator принимает массив; обобщённый массив создаётся только через сырой тип
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            RxObservable<T>[] decoded = new RxObservable[parts.size()];
+            for (int i = 0; i < decoded.length; i++) {
+                decoded[i] = MapOperator.apply(parts.get(i), decoder).subscribeOn(scheduler);
+            }
+            MergeOperator.apply(decoded).subscribe(observer, disposable);
+        });
+    }
+
+    static List<RxObservable<ByteBuffer>> split(Path path, RxRecordFormat format, int chunks, long window)
+            throws IOException {
+        if (chunks <= 0) {
+            throw new IllegalArgumentException("chunks должен быть положительным: " + chunks);
+        }
+        long[] bounds;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bounds = format.chunkBoundaries(channel, channel.size(), chunks);
+        }
+        log.debug("Файл {} разбит на {} частей", path, bounds.length - 1);
+        List<RxObservable<ByteBuffer>> parts = new ArrayList<>(bounds.length - 1);
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            long from = bounds[i];
+            long to = bounds[i + 1];
+            parts.add(RxObservable.create((observer, disposable) -> {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    read(channel, format, from, to, window, disposable::isDisposed, observer::onNext);
+                } catch (Throwable t) {
+                    observer.onError(t);
+                    return;
+                }
+                observer.onComplete();
+            }));
+        }
+        return parts;
+    }
+
+    /**
+     * Читает записи диапазона [from; to), отображая его окнами не больше window байт.
+     * Останавливается, как только cancelled вернёт true.
+     */
+    static void read(
+            FileChannel channel,
+            RxRecordFormat format,
+            long from,
+            long to,
+            long window,
+            BooleanSupplier cancelled,
+            Consumer<ByteBuffer> sink
+    ) throws IOException {
+        long windowStart = from;
+        while (windowStart < to) {
+            long windowSize = Math.min(window, to - windowStart);
+            boolean last = windowStart + windowSize == to;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+            ByteBuffer view = mapped.asReadOnlyBuffer();
+            int position = 0;
+            int limit = view.limit();
+            while (position < limit) {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                int end = format.recordEnd(view, position, last);
+                if (end < 0) {
+                    break;
+                }
+                sink.accept(format.payload(view, position, end));
+                position = end;
+            }
+            if (position == 0 && !last) {
+                throw new IOException("Запись в позиции " + windowStart + " больше окна отображения " + window);
+            }
+            windowStart += position;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.rxjava.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Формат разбиения файла на записи.
+ * <ul>
+ *     <li>{@link #fixed(int)} — записи фиксированного размера;</li>
+ *     <li>{@link #lines()} — строки, разделённые '\n' (завершающий '\r' отбрасывается;
+ *     при записи полезные данные не должны содержать '\n');</li>
+ *     <li>{@link #lengthPrefixed()} — записи с 4-байтовым префиксом длины (big-endian).</li>
+ * </ul>
+ */
+public abstract class RxRecordFormat {
+
+    private RxRecordFormat() {
+    }
+
+    /**
+     * @param recordSize размер записи в байтах
+     * @return формат записей фиксированного размера
+     */
+    public static RxRecordFormat fixed(int recordSize) {
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException("recordSize должен быть положительным: " + recordSize);
+        }
+        return new Fixed(recordSize);
+    }
+
+    /**
+     * @return формат строк, разделённых '\n'
+     */
+    public static RxRecordFormat lines() {
+        return Lines.INSTANCE;
+    }
+
+    /**
+     * @return формат записей с 4-байтовым префиксом длины
+     */
+    public static RxRecordFormat lengthPrefixed() {
+        return LengthPrefixed.INSTANCE;
+    }
+
+    /**
+     * Ищет конец записи, начинающейся в позиции start окна.
+     *
+     * @param window окно файла, limit — конец доступных байт
+     * @param start  начало записи
+     * @param last   true, если за limit данных диапазона больше нет
+     * @return позиция сразу за записью (включая разделители) или -1, если запись не уместилась в окно
+     * @throws IOException если данные не соответствуют формату
+     */
+    abstract int recordEnd(ByteBuffer window, int start, boolean last) throws IOException;
+
+    /**
+     * @return срез полезных данных записи [start; end) без заголовков и разделителей
+     */
+    abstract ByteBuffer payload(ByteBuffer window, int start, int end);
+
+    /**
+     * @param payloadSize размер полезных данных записи
+     * @return размер записи на диске вместе с заголовком и разделителем
+     * @throws IOException если запись такого размера нельзя представить в формате
+     */
+    abstract int framedSize(int payloadSize) throws IOException;
+
+    /**
+     * Пишет заголовок записи перед полезными данными.
+     */
+    void writeHeader(ByteBuffer out, int payloadSize) {
+    }
+
+    /**
+     * Пишет разделитель после полезных данных.
+     */
+    void writeTrailer(ByteBuffer out) {
+    }
+
+    /**
+     * Делит файл на примерно равные части, границы которых совпадают с границами записей.
+     *
+     * @return возрастающие смещения: 0, границы частей, size
+     */
+    abstract long[] chunkBoundaries(FileChannel channel, long size, int chunks) throws IOException;
+
+    /**
+     * Формат, в котором границу записи можно найти с произвольного смещения.
+     */
+    private abstract static class Aligned extends RxRecordFormat {
+
+        @Override
+        long[] chunkBoundaries(FileChannel channel, long size, int chunks) throws IOException {
+            long[] bounds = new long[chunks + 1];
+            int count = 1;
+            for (int i = 1; i < chunks; i++) {
+                long aligned = align(channel, size * i / chunks, size);
+                if (aligned > bounds[count - 1] && aligned < size) {
+                    bounds[count++] = aligned;
+                }
+            }
+            bounds[count++] = size;
+            return Arrays.copyOf(bounds, count);
+        }
+
+        /**
+         * @return ближайшая к position (не раньше неё) граница записи
+         */
+        abstract long align(FileChannel channel, long position, long size) throws IOException;
+    }
+
+    private static final class Fixed extends Aligned {
+        private final int recordSize;
+
+        Fixed(int recordSize) {
+            this.recordSize = recordSize;
+        }
+
+        @Override
+        int recordEnd(ByteBuffer window, int start, boolean last) throws IOException {
+            int remaining = window.limit() - start;
+            if (remaining >= recordSize) {
+                return start + recordSize;
+            }
+            if (last) {
+                throw new IOException("Усечённая запись: " + remaining + " из " + recordSize + " байт");
+            }
+            return -1;
+        }
+
+        @Override
+        ByteBuffer payload(ByteBuffer window, int start, int end) {
+            return window.slice(start, end - start);
+        }
+
+        @Override
+        long align(FileChannel channel, long position, long size) {
+            return (position + recordSize - 1) / recordSize * recordSize;
+        }
+
+        @Override
+        int framedSize(int payloadSize) throws IOException {
+            if (payloadSize != recordSize) {
+                throw new IOException("Размер записи " + payloadSize + " не равен фиксированному " + recordSize);
+            }
+            return recordSize;
+        }
+    }
+
+    private static final class Lines extends Aligned {
+        static final Lines INSTANCE = new Lines();
+        private static final int SCAN_BLOCK = 8192;
+
+        @Override
+        int recordEnd(ByteBuffer window, int start, boolean last) {
+            int limit = window.limit();
+            for (int i = start; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    return i + 1;
+                }
+            }
+            // последняя строка файла может не заканчиваться переводом строки
+            return last && limit > start ? limit : -1;
+        }
+
+        @Override
+        ByteBuffer payload(ByteBuffer window, int start, int end) {
+            int contentEnd = end;
+            if (contentEnd > start && window.get(contentEnd - 1) == '\n') {
+                contentEnd--;
+            }
+            if (contentEnd > start && window.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            return window.slice(start, contentEnd - start);
+        }
+
+        @Override
+        long align(FileChannel channel, long position, long size) throws IOException {
+            if (position == 0) {
+                return 0;
+            }
+            // граница строки — сразу за первым '\n', начиная с байта position - 1
+            ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK);
+            long offset = position - 1;
+            while (offset < size) {
+                block.clear();
+                int read = channel.read(block, offset);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (block.get(i) == '\n') {
+                        return offset + i + 1;
+                    }
+                }
+                offset += read;
+            }
+            return size;
+        }
+
+        @Override
+        int framedSize(int payloadSize) {
+            return payloadSize + 1;
+        }
+
+        @Override
+        void writeTrailer(ByteBuffer out) {
+            out.put((byte) '\n');
+        }
+    }
+
+    private static final class LengthPrefixed extends RxRecordFormat {
+        static final LengthPrefixed INSTANCE = new LengthPrefixed();
+        private static final int HEADER = Integer.BYTES;
+        private static final long WINDOW = 64L << 20;
+
+        @Override
+        int recordEnd(ByteBuffer window, int start, boolean last) throws IOException {
+            int remaining = window.limit() - start;
+            if (remaining >= HEADER) {
+                int length = window.getInt(start);
+                if (length < 0) {
+                    throw new IOException("Отрицательная длина записи " + length + " в позиции " + start);
+                }
+                if ((long) remaining - HEADER >= length) {
+                    return start + HEADER + length;
+                }
+            }
+            if (last) {
+                throw new IOException("Усечённая запись в конце файла: " + remaining + " байт");
+            }
+            return -1;
+        }
+
+        @Override
+        ByteBuffer payload(ByteBuffer window, int start, int end) {
+            return window.slice(start + HEADER, end - start - HEADER);
+        }
+
+        @Override
+        long[] chunkBoundaries(FileChannel channel, long size, int chunks) throws IOException {
+            // начало записи нельзя найти с произвольного смещения, поэтому один раз
+            // проходим по заголовкам, не читая тела записей
+            long[] bounds = new long[chunks + 1];
+            int count = 1;
+            long position = 0;
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            for (int i = 1; i < chunks; i++) {
+                long target = size * i / chunks;
+                while (position < target) {
+                    if (position + HEADER > size) {
+                        throw new IOException("Усечённый заголовок записи в позиции " + position);
+                    }
+                    if (window == null || position + HEADER > windowStart + window.limit()) {
+                        windowStart = position;
+                        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                                Math.min(WINDOW, size - windowStart));
+                    }
+                    int length = window.getInt((int) (position - windowStart));
+                    if (length < 0) {
+                        throw new IOException("Отрицательная длина записи " + length + " в позиции " + position);
+                    }
+                    position += HEADER + length;
+                }
+                if (position > bounds[count - 1] && position < size) {
+                    bounds[count++] = position;
+                }
+            }
+            bounds[count++] = size;
+            return Arrays.copyOf(bounds, count);
+        }
+
+        @Override
+        int framedSize(int payloadSize) throws IOException {
+            if (payloadSize > Integer.MAX_VALUE - HEADER) {
+                throw new IOException("Запись слишком велика: " + payloadSize + " байт");
+            }
+            return payloadSize + HEADER;
+        }
+
+        @Override
+        void writeHeader(ByteBuffer out, int payloadSize) {
+            out.putInt(payloadSize);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.rxjava.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Кодек UTF-8, который считает размер и кодирует без промежуточного byte[].
+ * Непарные суррогаты кодируются как '?', так же как в String.getBytes.
+ */
+final class Utf8Codec implements RxCodec<String> {
+    static final Utf8Codec INSTANCE = new Utf8Codec();
+
+    private Utf8Codec() {
+    }
+
+    @Override
+    public int encodedSize(String item) {
+        int size = 0;
+        int length = item.length();
+        for (int i = 0; i < length; i++) {
+            char c = item.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(item.charAt(i + 1))) {
+                    size += 4;
+                    i++;
+                } else {
+                    size += 1;
+                }
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void encode(String item, ByteBuffer out) {
+        int length = item.length();
+        for (int i = 0; i < length; i++) {
+            char c = item.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(item.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, item.charAt(++i));
+                    out.put((byte) (0xF0 | (cp >> 18)));
+                    out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (cp & 0x3F)));
+                } else {
+                    out.put((byte) '?');
+                }
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    @Override
+    public String decode(ByteBuffer in) {
+        return StandardCharsets.UTF_8.decode(in.duplicate()).toString();
+    }
+}
@@ -0,0 +1,255 @@
+package com.rxjava.journal;
+
+import com.rxjava.io.RxCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Сегмент журнала: файл записей .log и разреженный индекс .idx, оба отображены в память.
+ * <p>
+ * Запись в .log: [int размер полезных данных + 1][long метка времени][данные].
+ * Нулевой размер означает конец записанных данных — файл выделяется заранее и заполнен нулями.
+ * Размер пишется последним, поэтому частично записанная запись не видна ни читателям,
+ * ни восстановлению после перезапуска.
+ * <p>
+ * Запись в .idx — каждая {@link #INDEX_INTERVAL}-я запись сегмента:
+ * [int относительное смещение][int позиция в .log][long метка времени].
+ */
+final class JournalSegment {
+    static final int HEADER = Integer.BYTES + Long.BYTES;
+    static final int INDEX_INTERVAL = 64;
+    static final int INDEX_ENTRY = 16;
+    private static final String LOG_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    final long baseOffset;
+    final Path logPath;
+    final Path indexPath;
+    private final FileChannel logChannel;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer log;
+    private final MappedByteBuffer index;
+    private int indexEntries;
+    private volatile int writePosition;
+    private volatile long nextOffset;
+    private volatile long lastTimestamp;
+
+    private JournalSegment(Path dir, long baseOffset, int segmentBytes) throws IOException {
+        this.baseOffset = baseOffset;
+        this.logPath = dir.resolve(fileName(baseOffset, LOG_SUFFIX));
+        this.indexPath = dir.resolve(fileName(baseOffset, INDEX_SUFFIX));
+        this.logChannel = FileChannel.open(logPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.indexChannel = FileChannel.open(indexPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int logSize = (int) Math.max(logChannel.size(), segmentBytes);
+        this.log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, logSize);
+        this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexCapacity(logSize));
+        recover();
+    }
+
+    /**
+     * Открывает существующий сегмент или создаёт новый и восстанавливает позицию записи.
+     */
+    static JournalSegment open(Path dir, long baseOffset, int segmentBytes) throws IOException {
+        return new JournalSegment(dir, baseOffset, segmentBytes);
+    }
+
+    /**
+     * @return базовое смещение сегмента по имени файла .log или -1, если это не файл сегмента
+     */
+    static long parseBaseOffset(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(LOG_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - LOG_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Пытается дописать запись.
+     *
+     * @return false, если запись не помещается в сегмент
+     */
+    <T> boolean append(T item, int payloadSize, long timestamp, RxCodec<? super T> codec) {
+        int position = writePosition;
+        int size = HEADER + payloadSize;
+        if ((long) position + size > log.capacity()) {
+            return false;
+        }
+        ByteBuffer target = log.duplicate();
+        target.position(position + HEADER);
+        target.limit(position + size);
+        codec.encode(item, target);
+        log.putLong(position + Integer.BYTES, timestamp);
+        log.putInt(position, payloadSize + 1);
+        long relative = nextOffset - baseOffset;
+        if (relative % INDEX_INTERVAL == 0) {
+            writeIndexEntry((int) relative, position, timestamp);
+        }
+        lastTimestamp = timestamp;
+        writePosition = position + size;
+        nextOffset = nextOffset + 1;
+        return true;
+    }
+
+    /**
+     * @return позиция записи offset (offset должен быть в пределах сегмента)
+     */
+    int positionOf(long offset) {
+        int relative = (int) (offset - baseOffset);
+        int entry = Math.min(relative / INDEX_INTERVAL, indexEntries - 1);
+        if (entry < 0) {
+            return 0;
+        }
+        int position = index.getInt(entry * INDEX_ENTRY + Integer.BYTES);
+        for (int r = index.getInt(entry * INDEX_ENTRY); r < relative; r++) {
+            position = next(position);
+        }
+        return position;
+    }
+
+    /**
+     * @return смещение первой записи с меткой времени не меньше timestamp
+     * или nextOffset, если таких записей в сегменте нет
+     */
+    long offsetAtOrAfter(long timestamp) {
+        long end = nextOffset;
+        int lo = 0;
+        int hi = indexEntries - 1;
+        int start = 0;
+        // последний индексный блок, начинающийся строго раньше timestamp
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (index.getLong(mid * INDEX_ENTRY + 8) < timestamp) {
+                start = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (indexEntries == 0) {
+            return end;
+        }
+        long offset = baseOffset + index.getInt(start * INDEX_ENTRY);
+        int position = index.getInt(start * INDEX_ENTRY + Integer.BYTES);
+        while (offset < end && timestampAt(position) < timestamp) {
+            position = next(position);
+            offset++;
+        }
+        return offset;
+    }
+
+    int next(int position) {
+        return position + HEADER + log.getInt(position) - 1;
+    }
+
+    long timestampAt(int position) {
+        return log.getLong(position + Integer.BYTES);
+    }
+
+    /**
+     * @return read-only срез полезных данных записи в позиции position
+     */
+    ByteBuffer payloadAt(int position) {
+        return log.asReadOnlyBuffer().slice(position + HEADER, log.getInt(position) - 1);
+    }
+
+    long nextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * @return метка времени первой записи или Long.MAX_VALUE для пустого сегмента
+     */
+    long firstTimestamp() {
+        return indexEntries == 0 ? Long.MAX_VALUE : index.getLong(8);
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    boolean isEmpty() {
+        return nextOffset == baseOffset;
+    }
+
+    void flush() {
+        log.force();
+        index.force();
+    }
+
+    void close() throws IOException {
+        flush();
+        logChannel.close();
+        indexChannel.close();
+    }
+
+    void delete() throws IOException {
+        logChannel.close();
+        indexChannel.close();
+        Files.deleteIfExists(logPath);
+        Files.deleteIfExists(indexPath);
+    }
+
+    /**
+     * Находит конец записанных данных, начиная с последней записи индекса,
+     * и дописывает недостающие записи индекса.
+     */
+    private void recover() {
+        int entries = 0;
+        while ((entries + 1) * INDEX_ENTRY <= index.capacity() && index.getLong(entries * INDEX_ENTRY + 8) != 0) {
+            entries++;
+        }
+        int relative = 0;
+        int position = 0;
+        if (entries > 0) {
+            relative = index.getInt((entries - 1) * INDEX_ENTRY);
+            position = index.getInt((entries - 1) * INDEX_ENTRY + Integer.BYTES);
+            entries--;
+        }
+        indexEntries = entries;
+        long timestamp = 0;
+        while (position + HEADER <= log.capacity()) {
+            int size = log.getInt(position);
+            if (size <= 0 || (long) position + HEADER + size - 1 > log.capacity()) {
+                break;
+            }
+            timestamp = timestampAt(position);
+            if (relative % INDEX_INTERVAL == 0) {
+                writeIndexEntry(relative, position, timestamp);
+            }
+            position += HEADER + size - 1;
+            relative++;
+        }
+        lastTimestamp = timestamp;
+        writePosition = position;
+        nextOffset = baseOffset + relative;
+    }
+
+    private void writeIndexEntry(int relative, int position, long timestamp) {
+        int at = (relative / INDEX_INTERVAL) * INDEX_ENTRY;
+        index.putInt(at, relative);
+        index.putInt(at + Integer.BYTES, position);
+        index.putLong(at + 8, timestamp);
+        indexEntries = relative / INDEX_INTERVAL + 1;
+    }
+
+    private static int indexCapacity(int logSize) {
+        return (logSize / (HEADER * INDEX_INTERVAL) + 2) * INDEX_ENTRY;
+    }
+
+    private static String fileName(long baseOffset, String suffix) {
+        return String.format("%020d%s", baseOffset, suffix);
+    }
+}
@@ -0,0 +1,528 @@
+package com.rxjava.journal;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.io.RxCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Долговременный журнал событий только на добавление.
+ * <p>
+ * Элементы кодируются {@link RxCodec} и пишутся в отображённые в память сегменты
+ * с разреженными индексами по смещению и времени. Каждый элемент получает
+ * последовательное смещение (offset). После перезапуска журнал восстанавливает
+ * позицию записи, просматривая только хвост последнего сегмента.
+ * <p>
+ * {@link #record(RxObservable)} пропускает поток через журнал, а {@link #replay(long)}
+ * и {@link #replayFromTimestamp(long)} проигрывают сохранённые записи и затем
+ * переходят к «живому» хвосту: новые записи доставляются в потоке, который их добавил,
+ * но уже после снятия блокировки журнала. У каждого подписчика хвоста своя очередь:
+ * медленный подписчик не держит блокировку других писателей, а подписчик, бросивший
+ * исключение из onNext, получает onError и отключается, не мешая остальным.
+ *
+ * @param <T> тип элементов
+ */
+public class RxJournal<T> implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(RxJournal.class);
+    static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+    private final Path dir;
+    private final RxCodec<T> codec;
+    private final int segmentBytes;
+    private final Retention retention;
+    private final LongSupplier clock;
+    private final List<JournalSegment> segments = new CopyOnWriteArrayList<>();
+    private final List<Tail<T>> tails = new CopyOnWriteArrayList<>();
+    private volatile JournalSegment active;
+    private long lastTimestamp;
+    private boolean closed;
+
+    private RxJournal(Path dir, RxCodec<T> codec, int segmentBytes, Retention retention, LongSupplier clock)
+            throws IOException {
+        this.dir = dir;
+        this.codec = codec;
+        this.segmentBytes = segmentBytes;
+        this.retention = retention;
+        this.clock = clock;
+        Files.createDirectories(dir);
+        List<Long> bases = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.mapToLong(JournalSegment::parseBaseOffset).filter(b -> b >= 0).sorted().forEach(bases::add);
+        }
+        for (long base : bases) {
+            segments.add(JournalSegment.open(dir, base, segmentBytes));
+        }
+        if (segments.isEmpty()) {
+            segments.add(JournalSegment.open(dir, 0, segmentBytes));
+        }
+        active = segments.get(segments.size() - 1);
+        lastTimestamp = active.lastTimestamp();
+        log.debug("Журнал {} открыт: сегментов {}, следующее смещение {}", dir, segments.size(), active.nextOffset());
+    }
+
+    /**
+     * Открывает журнал с сегментами по 64 МБ без удаления старых данных.
+     *
+     * @param dir   каталог журнала
+     * @param codec кодек элементов
+     * @param <T>   тип элементов
+     * @return открытый журнал
+     * @throws IOException если каталог или сегменты не удалось открыть
+     */
+    public static <T> RxJournal<T> open(Path dir, RxCodec<T> codec) throws IOException {
+        return open(dir, codec, DEFAULT_SEGMENT_BYTES, Retention.keepAll());
+    }
+
+    /**
+     * @param dir          каталог журнала
+     * @param codec        кодек элементов
+     * @param segmentBytes размер файла сегмента; запись не может быть больше сегмента
+     * @param retention    политика удаления старых сегментов
+     * @param <T>          тип элементов
+     * @return открытый журнал
+     * @throws IOException если каталог или сегменты не удалось открыть
+     */
+    public static <T> RxJournal<T> open(Path dir, RxCodec<T> codec, int segmentBytes, Retention retention)
+            throws IOException {
+        return new RxJournal<>(dir, codec, segmentBytes, retention, System::currentTimeMillis);
+    }
+
+    static <T> RxJournal<T> open(Path dir, RxCodec<T> codec, int segmentBytes, Retention retention,
+                                 LongSupplier clock) throws IOException {
+        return new RxJournal<>(dir, codec, segmentBytes, retention, clock);
+    }
+
+    /**
+     * Дописывает элемент в журнал.
+     *
+     * @param item элемент
+     * @return смещение записанного элемента
+     * @throws IOException если не удалось создать новый сегмент
+     */
+    public long append(T item) throws IOException {
+        long offset = write(item);
+        if (!tails.isEmpty()) {
+            for (Tail<T> tail : tails) {
+                tail.drain();
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Записывает элемент и ставит его в очереди подписчиков хвоста, не доставляя.
+     */
+    private synchronized long write(T item) throws IOException {
+        if (closed) {
+            throw new IOException("Журнал закрыт: " + dir);
+        }
+        int payload = codec.encodedSize(item);
+        if ((long) payload + JournalSegment.HEADER > segmentBytes) {
+            throw new IOException("Запись " + payload + " байт не помещается в сегмент " + segmentBytes);
+        }
+        // метки времени не убывают, иначе поиск по времени в индексе был бы неверным
+        long timestamp = Math.max(clock.getAsLong(), lastTimestamp);
+        if (!active.append(item, payload, timestamp, codec)) {
+            roll();
+            active.append(item, payload, timestamp, codec);
+        }
+        lastTimestamp = timestamp;
+        long offset = active.nextOffset() - 1;
+        if (!tails.isEmpty()) {
+            Entry<T> entry = new Entry<>(offset, timestamp, item);
+            for (Tail<T> tail : tails) {
+                tail.queue.offer(entry);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Оператор журналирования: каждый элемент source сначала дописывается в журнал,
+     * затем передаётся дальше. Ошибка записи завершает поток этой ошибкой и отменяет источник.
+     *
+     * @param source исходный Observable
+     * @return Observable тех же элементов
+     */
+    public RxObservable<T> record(RxObservable<T> source) {
+        return RxObservable.create((observer, disposable) -> source.subscribe(new RxObserver<T>() {
+            private boolean done;
+
+            @Override
+            public void onNext(T item) {
+                if (done) {
+                    return;
+                }
+                try {
+                    append(item);
+                } catch (IOException e) {
+                    done = true;
+                    observer.onError(e);
+                    disposable.dispose();
+                    return;
+                }
+                observer.onNext(item);
+            }
+            @Override
+            public void onError(Throwable t) {
+                if (!done) {
+                    done = true;
+                    observer.onError(t);
+                }
+            }
+            @Override
+            public void onComplete() {
+                if (!done) {
+                    done = true;
+                    observer.onComplete();
+                }
+            }
+        }, disposable));
+    }
+
+    /**
+     * Проигрывает записи, начиная со смещения fromOffset, и переходит к «живому» хвосту.
+     * Если запрошенное смещение уже удалено политикой хранения, чтение начинается
+     * с самой старой доступной записи. Поток завершается при закрытии журнала.
+     *
+     * @param fromOffset смещение первой записи
+     * @return Observable записей журнала
+     */
+    public RxObservable<Entry<T>> replay(long fromOffset) {
+        return RxObservable.create((observer, disposable) -> {
+            Tail<T> tail = new Tail<>(observer, fromOffset, disposable, tails);
+            disposable.onDispose(() -> tails.remove(tail));
+            long offset = Math.max(fromOffset, firstOffset());
+            try {
+                offset = readUpTo(offset, Long.MAX_VALUE, observer, disposable);
+                long end;
+                synchronized (this) {
+                    // с этого момента append кладёт записи от end в очередь хвоста;
+                    // закрытие журнала тоже приходит через неё, после всех записей
+                    end = nextOffset();
+                    if (closed) {
+                        tail.done = true;
+                    } else if (!disposable.isDisposed()) {
+                        tails.add(tail);
+                    }
+                }
+                // дочитываем [offset, end) без блокировки; пока чтение идёт, хвост не доставляет
+                readUpTo(offset, end, observer, disposable);
+            } catch (RuntimeException e) {
+                tails.remove(tail);
+                observer.onError(e);
+                return;
+            }
+            tail.resume();
+        });
+    }
+
+    /**
+     * Проигрывает записи, начиная с первой, у которой метка времени не меньше timestamp,
+     * и переходит к «живому» хвосту.
+     *
+     * @param timestamp время в миллисекундах эпохи
+     * @return Observable записей журнала
+     */
+    public RxObservable<Entry<T>> replayFromTimestamp(long timestamp) {
+        return RxObservable.create((observer, disposable) -> {
+            RxDisposable replaying = replay(offsetForTimestamp(timestamp)).subscribe(observer);
+            disposable.onDispose(replaying::dispose);
+        });
+    }
+
+    /**
+     * @return смещение первой записи с меткой времени не меньше timestamp
+     */
+    public long offsetForTimestamp(long timestamp) {
+        List<JournalSegment> snapshot = List.copyOf(segments);
+        for (int i = 0; i < snapshot.size(); i++) {
+            JournalSegment segment = snapshot.get(i);
+            boolean lastSegment = i + 1 == snapshot.size();
+            // сегмент подходит, если следующий начинается не раньше timestamp
+            if (lastSegment || snapshot.get(i + 1).firstTimestamp() >= timestamp) {
+                long offset = segment.offsetAtOrAfter(timestamp);
+                if (offset < segment.nextOffset() || lastSegment) {
+                    return offset;
+                }
+            }
+        }
+        return nextOffset();
+    }
+
+    /**
+     * @return смещение, которое получит следующая запись
+     */
+    public long nextOffset() {
+        return active.nextOffset();
+    }
+
+    /**
+     * @return смещение самой старой доступной записи
+     */
+    public long firstOffset() {
+        return segments.get(0).baseOffset;
+    }
+
+    /**
+     * @return число файлов сегментов
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Сбрасывает отображённые сегменты на диск.
+     */
+    public synchronized void flush() {
+        active.flush();
+    }
+
+    /**
+     * Сбрасывает данные на диск, завершает подписчиков «живого» хвоста и закрывает файлы.
+     */
+    @Override
+    public void close() throws IOException {
+        List<Tail<T>> completed;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            completed = List.copyOf(tails);
+            for (Tail<T> tail : completed) {
+                tail.done = true;
+            }
+            tails.clear();
+            for (JournalSegment segment : segments) {
+                segment.close();
+            }
+        }
+        for (Tail<T> tail : completed) {
+            tail.drain();
+        }
+    }
+
+    /**
+     * Читает записи от offset до limit или до текущего конца журнала, если он раньше.
+     *
+     * @return смещение следующей непрочитанной записи
+     */
+    private long readUpTo(long offset, long limit, RxObserver<? super Entry<T>> observer,
+                          RxDisposable disposable) {
+        List<JournalSegment> snapshot = List.copyOf(segments);
+        int i = snapshot.size() - 1;
+        while (i > 0 && snapshot.get(i).baseOffset > offset) {
+            i--;
+        }
+        offset = Math.max(offset, snapshot.get(i).baseOffset);
+        for (; i < snapshot.size() && !disposable.isDisposed(); i++) {
+            JournalSegment segment = snapshot.get(i);
+            long end = Math.min(segment.nextOffset(), limit);
+            if (offset >= end) {
+                continue;
+            }
+            int position = segment.positionOf(offset);
+            while (offset < end && !disposable.isDisposed()) {
+                T item = codec.decode(segment.payloadAt(position));
+                observer.onNext(new Entry<>(offset, segment.timestampAt(position), item));
+                position = segment.next(position);
+                offset++;
+            }
+        }
+        return offset;
+    }
+
+    private void roll() throws IOException {
+        active.flush();
+        JournalSegment next = JournalSegment.open(dir, active.nextOffset(), segmentBytes);
+        segments.add(next);
+        active = next;
+        log.debug("Журнал {}: новый сегмент с базовым смещением {}", dir, next.baseOffset);
+        applyRetention();
+    }
+
+    private void applyRetention() throws IOException {
+        long now = clock.getAsLong();
+        while (segments.size() > 1) {
+            JournalSegment oldest = segments.get(0);
+            boolean tooMany = retention.maxSegments > 0 && segments.size() > retention.maxSegments;
+            boolean tooOld = retention.maxAgeMillis > 0 && now - oldest.lastTimestamp() > retention.maxAgeMillis;
+            if (!tooMany && !tooOld) {
+                return;
+            }
+            // читатели, уже отобразившие сегмент, дочитают его и после удаления файла
+            segments.remove(0);
+            oldest.delete();
+            log.debug("Журнал {}: удалён сегмент {}", dir, oldest.baseOffset);
+        }
+    }
+
+    /**
+     * Запись журнала: смещение, метка времени и декодированный элемент.
+     *
+     * @param <T> тип элемента
+     */
+    public static final class Entry<T> {
+        private final long offset;
+        private final long timestamp;
+        private final T value;
+
+        Entry(long offset, long timestamp, T value) {
+            this.offset = offset;
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{offset=" + offset + ", timestamp=" + timestamp + ", value=" + value + '}';
+        }
+    }
+
+    /**
+     * Политика хранения: сколько сегментов и какой давности держать на диске.
+     * Активный сегмент не удаляется никогда.
+     */
+    public static final class Retention {
+        final int maxSegments;
+        final long maxAgeMillis;
+
+        private Retention(int maxSegments, long maxAgeMillis) {
+            this.maxSegments = maxSegments;
+            this.maxAgeMillis = maxAgeMillis;
+        }
+
+        /**
+         * @return хранить все сегменты
+         */
+        public static Retention keepAll() {
+            return new Retention(0, 0);
+        }
+
+        /**
+         * @param maxSegments максимальное число сегментов на диске
+         * @return хранение по числу сегментов
+         */
+        public static Retention segments(int maxSegments) {
+            if (maxSegments <= 0) {
+                throw new IllegalArgumentException("maxSegments должен быть положительным: " + maxSegments);
+            }
+            return new Retention(maxSegments, 0);
+        }
+
+        /**
+         * @param maxAge максимальный возраст последней записи сегмента
+         * @param unit   единица измерения возраста
+         * @return хранение по возрасту
+         */
+        public static Retention age(long maxAge, TimeUnit unit) {
+            if (maxAge <= 0) {
+                throw new IllegalArgumentException("maxAge должен быть положительным: " + maxAge);
+            }
+            return new Retention(0, unit.toMillis(maxAge));
+        }
+    }
+
+    /**
+     * Подписчик «живого» хвоста: очередь записей, которую append пополняет под блокировкой журнала,
+     * а доставляет вне её тот поток, что первым взялся за очередь (счётчик wip).
+     * Пропускает записи до своего начального смещения.
+     */
+    private static final class Tail<T> {
+        final RxObserver<? super Entry<T>> observer;
+        final long fromOffset;
+        final RxDisposable disposable;
+        final List<Tail<T>> tails;
+        final Queue<Entry<T>> queue = new ConcurrentLinkedQueue<>();
+        /** 1 при создании: доставку держит replay, пока не дочитает записи до регистрации хвоста. */
+        final AtomicInteger wip = new AtomicInteger(1);
+        /** Журнал закрыт: после очереди подписчик получит onComplete. Пишется под блокировкой журнала. */
+        volatile boolean done;
+        private boolean terminated;
+
+        Tail(RxObserver<? super Entry<T>> observer, long fromOffset, RxDisposable disposable,
+             List<Tail<T>> tails) {
+            this.observer = observer;
+            this.fromOffset = fromOffset;
+            this.disposable = disposable;
+            this.tails = tails;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() == 0) {
+                deliver();
+            }
+        }
+
+        /**
+         * Снимает удержание replay и доставляет накопившееся.
+         */
+        void resume() {
+            deliver();
+        }
+
+        private void deliver() {
+            int missed = 1;
+            do {
+                while (!terminated) {
+                    if (disposable.isDisposed()) {
+                        terminated = true;
+                        break;
+                    }
+                    boolean completed = done;
+                    Entry<T> entry = queue.poll();
+                    if (entry == null) {
+                        if (completed) {
+                            terminated = true;
+                            observer.onComplete();
+                        }
+                        break;
+                    }
+                    if (entry.getOffset() < fromOffset) {
+                        continue;
+                    }
+                    try {
+                        observer.onNext(entry);
+                    } catch (Throwable t) {
+                        terminated = true;
+                        tails.remove(this);
+                        observer.onError(t);
+                    }
+                }
+                if (terminated) {
+                    queue.clear();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.rxjava.net;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Кадры протокола передачи потока между JVM.
+ * <p>
+ * Кадр: [int длина][byte тип][тело], длина считает тип и тело.
+ * <ul>
+ *     <li>DATA: [int число элементов], затем для каждого [int размер][данные кодека];</li>
+ *     <li>COMPLETE: пустое тело;</li>
+ *     <li>ERROR: описание ошибки в UTF-8;</li>
+ *     <li>CREDIT: [int n] — потребитель разрешает отправить ещё n элементов;</li>
+ *     <li>CANCEL: пустое тело — потребитель отменил подписку.</li>
+ * </ul>
+ * DATA, COMPLETE и ERROR идут от производителя, CREDIT и CANCEL — от потребителя.
+ */
+final class RxFrames {
+    static final byte DATA = 1;
+    static final byte COMPLETE = 2;
+    static final byte ERROR = 3;
+    static final byte CREDIT = 4;
+    static final byte CANCEL = 5;
+
+    /** Длина и тип кадра. */
+    static final int HEADER = Integer.BYTES + 1;
+    /** Заголовок кадра DATA вместе с числом элементов. */
+    static final int DATA_HEADER = HEADER + Integer.BYTES;
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAX_FRAME = 1 << 30;
+
+    private RxFrames() {
+    }
+
+    /**
+     * Отправляет кадр без тела или с одним int в теле (CREDIT).
+     */
+    static void writeControl(SocketChannel channel, byte type, int value) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER + Integer.BYTES);
+        if (type == CREDIT) {
+            frame.putInt(1 + Integer.BYTES).put(type).putInt(value);
+        } else {
+            frame.putInt(1).put(type);
+        }
+        writeFully(channel, frame.flip());
+    }
+
+    static void writeError(SocketChannel channel, Throwable error) throws IOException {
+        byte[] message = String.valueOf(error).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER + message.length);
+        frame.putInt(1 + message.length).put(ERROR).put(message);
+        writeFully(channel, frame.flip());
+    }
+
+    static void writeFully(SocketChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    /**
+     * Читает заголовок кадра в header и тело в body (при необходимости увеличивая его).
+     *
+     * @return буфер с телом кадра, готовый к чтению; тип кадра — header.get(Integer.BYTES)
+     * @throws EOFException если соединение закрыто до начала кадра или посередине
+     */
+    static ByteBuffer readFrame(SocketChannel channel, ByteBuffer header, ByteBuffer body) throws IOException {
+        header.clear();
+        readFully(channel, header);
+        int length = header.getInt(0);
+        if (length < 1 || length > MAX_FRAME) {
+            throw new IOException("Некорректная длина кадра: " + length);
+        }
+        int bodyLength = length - 1;
+        if (bodyLength > body.capacity()) {
+            body = ByteBuffer.allocate(bodyLength);
+        }
+        body.clear().limit(bodyLength);
+        readFully(channel, body);
+        return body.flip();
+    }
+
+    static String readMessage(ByteBuffer body) {
+        byte[] message = new byte[body.remaining()];
+        body.get(message);
+        return new String(message, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Открывает серверный канал нужного семейства: TCP для InetSocketAddress,
+     * Unix domain socket для UnixDomainSocketAddress.
+     */
+    static ServerSocketChannel openServer(SocketAddress address) throws IOException {
+        ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        return server.bind(address);
+    }
+
+    /**
+     * Кадры уже собраны в пакеты, поэтому алгоритм Нейгла только добавляет задержку.
+     */
+    static SocketChannel configure(SocketChannel channel) throws IOException {
+        if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        return channel;
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0) {
+                throw new EOFException("Соединение закрыто посреди потока");
+            }
+        }
+    }
+}
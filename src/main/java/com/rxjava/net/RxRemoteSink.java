@@ -0,0 +1,365 @@
+package com.rxjava.net;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.io.RxCodec;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Передающая сторона: отдаёт элементы Observable удалённому {@link RxRemoteSource}
+ * по TCP или Unix domain socket.
+ * <p>
+ * Приёмник ждёт одно входящее соединение, подписывается на source и пишет элементы
+ * пакетными кадрами DATA (см. {@link RxFrames}): всё, что накопилось в очереди,
+ * пока предыдущий кадр уходил в сокет, отправляется следующим кадром.
+ * Отправляется не больше элементов, чем разрешил потребитель кадрами CREDIT;
+ * когда кредит исчерпан, а очередь заполнена, источник блокируется в onNext.
+ * Кадр CANCEL или разрыв соединения отменяют подписку на source.
+ * <p>
+ * Результирующий Observable эмитит число отправленных элементов и завершается,
+ * когда поток передан или отменён потребителем, либо передаёт ошибку ввода-вывода.
+ */
+public class RxRemoteSink {
+    private static final Logger log = LoggerFactory.getLogger(RxRemoteSink.class);
+    static final int QUEUE_SIZE = 1024;
+    private static final Object COMPLETE = new Object();
+    /** Приём соединения, запись и чтение кредитов блокируют поток на всё время передачи. */
+    private static final RxScheduler IO = new RxIOScheduler();
+
+    /**
+     * Открывает серверный сокет на address и обслуживает одно соединение.
+     *
+     * @param source  исходный Observable
+     * @param codec   кодек элементов
+     * @param address InetSocketAddress или UnixDomainSocketAddress
+     * @param <T>     тип элементов
+     * @return Observable с числом отправленных элементов
+     */
+    public static <T> RxObservable<Long> serve(RxObservable<T> source, RxCodec<? super T> codec, SocketAddress address) {
+        return RxObservable.create((observer, disposable) -> {
+            ServerSocketChannel server;
+            try {
+                server = RxFrames.openServer(address);
+            } catch (IOException e) {
+                observer.onError(e);
+                return;
+            }
+            disposable.onDispose(() -> closeQuietly(server, address));
+            RxDisposable connection = serve(source, codec, server, IO).subscribe(new RxObserver<Long>() {
+                @Override
+                public void onNext(Long sent) {
+                    observer.onNext(sent);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    closeQuietly(server, address);
+                    observer.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    closeQuietly(server, address);
+                    observer.onComplete();
+                }
+            });
+            disposable.onDispose(connection::dispose);
+        });
+    }
+
+    /**
+     * Принимает одно соединение на уже открытом серверном сокете (на каждую подписку).
+     * Серверный сокет остаётся открытым и принадлежит вызывающему коду.
+     * Приём соединения, запись и чтение кредитов идут в собственных потоках {@link RxIOScheduler},
+     * поэтому scheduler может быть и однопоточным.
+     *
+     * @param source    исходный Observable
+     * @param codec     кодек элементов
+     * @param server    серверный сокет в блокирующем режиме
+     * @param scheduler планировщик подписки на source
+     * @param <T>       тип элементов
+     * @return Observable с числом отправленных элементов
+     */
+    public static <T> RxObservable<Long> serve(
+            RxObservable<T> source,
+            RxCodec<? super T> codec,
+            ServerSocketChannel server,
+            RxScheduler scheduler
+    ) {
+        return RxObservable.create((observer, disposable) -> IO.schedule(() -> {
+            SocketChannel channel;
+            try {
+                channel = RxFrames.configure(server.accept());
+            } catch (IOException e) {
+                observer.onError(e);
+                return;
+            }
+            log.debug("Подключился удалённый потребитель: {}", channel);
+            Connection<T> connection = new Connection<>(channel, codec);
+            disposable.onDispose(connection::cancel);
+            IO.schedule(connection::readControl);
+            scheduler.schedule(() -> source.subscribe(connection, connection.upstream));
+            try {
+                connection.writeLoop();
+            } catch (IOException e) {
+                if (!connection.cancelled.get()) {
+                    connection.cancel();
+                    observer.onError(e);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                connection.cancel();
+                observer.onError(e);
+                return;
+            }
+            connection.finish();
+            log.debug("Отправлено элементов: {}, кадров DATA: {}", connection.sent, connection.frames);
+            observer.onNext(connection.sent);
+            observer.onComplete();
+        }));
+    }
+
+    private static void closeQuietly(ServerSocketChannel server, SocketAddress address) {
+        try {
+            server.close();
+            if (address instanceof UnixDomainSocketAddress) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть серверный сокет", e);
+        }
+    }
+
+    /**
+     * Одно соединение: подписчик на source, пишущий поток и поток чтения кредитов.
+     */
+    private static final class Connection<T> implements RxObserver<T> {
+        private final SocketChannel channel;
+        private final RxCodec<? super T> codec;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private final RxDisposable upstream = new RxDisposable();
+        private long credits;
+        long sent;
+        long frames;
+
+        Connection(SocketChannel channel, RxCodec<? super T> codec) {
+            this.channel = channel;
+            this.codec = codec;
+        }
+
+        @Override
+        public void onNext(T item) {
+            offer(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            offer(new ErrorSignal(t));
+        }
+
+        @Override
+        public void onComplete() {
+            offer(COMPLETE);
+        }
+
+        private void offer(Object signal) {
+            try {
+                // источник блокируется, пока очередь полна, но не дольше отмены
+                while (!cancelled.get()) {
+                    if (queue.offer(signal, 10, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void cancel() {
+            synchronized (this) {
+                if (!cancelled.compareAndSet(false, true)) {
+                    return;
+                }
+                notifyAll();
+            }
+            upstream.dispose();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Не удалось закрыть соединение", e);
+            }
+            queue.clear();
+        }
+
+        /**
+         * Поток передан: закрываем только запись. Соединение закроется, когда потребитель
+         * прочитает COMPLETE и закроет свою сторону, — так непрочитанные кредиты
+         * не превратят закрытие в RST, теряющий хвост данных.
+         */
+        void finish() {
+            try {
+                channel.shutdownOutput();
+            } catch (IOException e) {
+                cancel();
+            }
+        }
+
+        /**
+         * Читает кадры потребителя до CANCEL или разрыва соединения.
+         */
+        void readControl() {
+            ByteBuffer header = ByteBuffer.allocate(RxFrames.HEADER);
+            ByteBuffer body = ByteBuffer.allocate(Integer.BYTES);
+            try {
+                while (!cancelled.get()) {
+                    ByteBuffer frame = RxFrames.readFrame(channel, header, body);
+                    byte type = header.get(Integer.BYTES);
+                    if (type == RxFrames.CREDIT) {
+                        grant(frame.getInt());
+                    } else if (type == RxFrames.CANCEL) {
+                        log.debug("Потребитель отменил подписку");
+                        break;
+                    } else {
+                        throw new IOException("Неожиданный кадр от потребителя: " + type);
+                    }
+                }
+            } catch (IOException e) {
+                if (!cancelled.get()) {
+                    log.debug("Соединение с потребителем потеряно", e);
+                }
+            }
+            cancel();
+        }
+
+        private synchronized void grant(int n) {
+            credits += n;
+            notifyAll();
+        }
+
+        /**
+         * Ждёт кредит потребителя.
+         *
+         * @return доступный кредит или 0, если соединение отменено
+         */
+        private synchronized long awaitCredit() throws InterruptedException {
+            while (credits == 0 && !cancelled.get()) {
+                wait();
+            }
+            return cancelled.get() ? 0 : credits;
+        }
+
+        private synchronized void consume(long n) {
+            credits -= n;
+        }
+
+        void writeLoop() throws IOException, InterruptedException {
+            ByteBuffer frame = ByteBuffer.allocateDirect(RxFrames.BUFFER_SIZE);
+            List<Object> batch = new ArrayList<>();
+            for (;;) {
+                Object first = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (cancelled.get()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                if (first != COMPLETE && !(first instanceof ErrorSignal)) {
+                    long credit = awaitCredit();
+                    if (credit == 0) {
+                        return;
+                    }
+                    queue.drainTo(batch, (int) Math.min(credit - 1, QUEUE_SIZE));
+                }
+                Object terminal = writeBatch(frame, batch);
+                batch.clear();
+                if (terminal == COMPLETE) {
+                    RxFrames.writeControl(channel, RxFrames.COMPLETE, 0);
+                    return;
+                }
+                if (terminal != null) {
+                    RxFrames.writeError(channel, ((ErrorSignal) terminal).error);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Пишет элементы пакета кадрами DATA.
+         *
+         * @return терминальный сигнал, если он встретился в пакете, иначе null
+         */
+        @SuppressWarnings("unchecked")
+        private Object writeBatch(ByteBuffer frame, List<Object> batch) throws IOException {
+            frame.clear().position(RxFrames.DATA_HEADER);
+            int count = 0;
+            for (Object signal : batch) {
+                if (signal == COMPLETE || signal instanceof ErrorSignal) {
+                    flushData(frame, count);
+                    return signal;
+                }
+                T item = (T) signal;
+                int size = codec.encodedSize(item);
+                int framed = Integer.BYTES + size;
+                if (framed > frame.remaining()) {
+                    flushData(frame, count);
+                    count = 0;
+                    frame.clear().position(RxFrames.DATA_HEADER);
+                    if (framed > frame.remaining()) {
+                        ByteBuffer large = ByteBuffer.allocate(RxFrames.DATA_HEADER + framed);
+                        large.position(RxFrames.DATA_HEADER);
+                        large.putInt(size);
+                        codec.encode(item, large);
+                        flushData(large, 1);
+                        continue;
+                    }
+                }
+                frame.putInt(size);
+                codec.encode(item, frame);
+                count++;
+            }
+            flushData(frame, count);
+            return null;
+        }
+
+        private void flushData(ByteBuffer frame, int count) throws IOException {
+            if (count == 0) {
+                return;
+            }
+            int length = frame.position() - Integer.BYTES;
+            frame.putInt(0, length).put(Integer.BYTES, RxFrames.DATA).putInt(RxFrames.HEADER, count);
+            RxFrames.writeFully(channel, frame.flip());
+            consume(count);
+            sent += count;
+            frames++;
+        }
+    }
+
+    private static final class ErrorSignal {
+        final Throwable error;
+
+        ErrorSignal(Throwable error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.rxjava.net;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.io.RxCodec;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Принимающая сторона: Observable элементов, которые отдаёт удалённый {@link RxRemoteSink}.
+ * <p>
+ * При подписке открывается соединение и сразу выдаётся кредит prefetch элементов.
+ * Кредит пополняется, когда подписчик обработал половину окна, поэтому в пути
+ * и в буферах сокета никогда не бывает больше prefetch элементов. Элементы
+ * декодируются прямо из буфера кадра и эмитятся в потоке scheduler.
+ * Отмена подписки отправляет производителю кадр CANCEL и закрывает соединение.
+ */
+public class RxRemoteSource {
+    private static final Logger log = LoggerFactory.getLogger(RxRemoteSource.class);
+    static final int DEFAULT_PREFETCH = 256;
+
+    /**
+     * @param address InetSocketAddress или UnixDomainSocketAddress приёмника
+     * @param codec   кодек элементов
+     * @param <T>     тип элементов
+     * @return Observable элементов удалённого потока
+     */
+    public static <T> RxObservable<T> connect(SocketAddress address, RxCodec<T> codec) {
+        return connect(address, codec, DEFAULT_PREFETCH, new RxIOScheduler());
+    }
+
+    /**
+     * @param address   InetSocketAddress или UnixDomainSocketAddress приёмника
+     * @param codec     кодек элементов
+     * @param prefetch  число элементов, которое производитель может отправить без подтверждения
+     * @param scheduler планировщик, в котором читается соединение и эмитятся элементы
+     * @param <T>       тип элементов
+     * @return Observable элементов удалённого потока
+     */
+    public static <T> RxObservable<T> connect(
+            SocketAddress address,
+            RxCodec<T> codec,
+            int prefetch,
+            RxScheduler scheduler
+    ) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch должен быть положительным: " + prefetch);
+        }
+        return RxObservable.create((observer, disposable) -> {
+            AtomicBoolean cancelled = new AtomicBoolean(false);
+            SocketChannel channel;
+            try {
+                channel = RxFrames.configure(SocketChannel.open(address));
+            } catch (IOException e) {
+                observer.onError(e);
+                return;
+            }
+            disposable.onDispose(() -> {
+                if (cancelled.compareAndSet(false, true)) {
+                    try {
+                        writeControl(channel, RxFrames.CANCEL, 0);
+                    } catch (IOException e) {
+                        log.debug("Не удалось отправить CANCEL", e);
+                    }
+                    close(channel);
+                }
+            });
+            scheduler.schedule(() -> {
+                try {
+                    receive(channel, codec, prefetch, observer, cancelled);
+                } catch (IOException e) {
+                    if (cancelled.compareAndSet(false, true)) {
+                        observer.onError(e);
+                    }
+                } finally {
+                    cancelled.set(true);
+                    close(channel);
+                }
+            });
+        });
+    }
+
+    private static <T> void receive(
+            SocketChannel channel,
+            RxCodec<T> codec,
+            int prefetch,
+            RxObserver<? super T> observer,
+            AtomicBoolean cancelled
+    ) throws IOException {
+        int replenish = Math.max(1, prefetch / 2);
+        int consumed = 0;
+        ByteBuffer header = ByteBuffer.allocateDirect(RxFrames.HEADER);
+        ByteBuffer body = ByteBuffer.allocateDirect(RxFrames.BUFFER_SIZE);
+        writeControl(channel, RxFrames.CREDIT, prefetch);
+        while (!cancelled.get()) {
+            ByteBuffer frame = RxFrames.readFrame(channel, header, body);
+            if (frame.capacity() > body.capacity()) {
+                body = frame;
+            }
+            byte type = header.get(Integer.BYTES);
+            if (type == RxFrames.DATA) {
+                int count = frame.getInt();
+                for (int i = 0; i < count && !cancelled.get(); i++) {
+                    int size = frame.getInt();
+                    int position = frame.position();
+                    observer.onNext(codec.decode(frame.slice(position, size)));
+                    frame.position(position + size);
+                    if (++consumed >= replenish) {
+                        writeControl(channel, RxFrames.CREDIT, consumed);
+                        consumed = 0;
+                    }
+                }
+            } else if (type == RxFrames.COMPLETE) {
+                if (cancelled.compareAndSet(false, true)) {
+                    observer.onComplete();
+                }
+                return;
+            } else if (type == RxFrames.ERROR) {
+                if (cancelled.compareAndSet(false, true)) {
+                    observer.onError(new IOException("Удалённый источник завершился ошибкой: "
+                            + RxFrames.readMessage(frame)));
+                }
+                return;
+            } else {
+                throw new IOException("Неожиданный кадр от производителя: " + type);
+            }
+        }
+    }
+
+    /**
+     * CREDIT пишет поток чтения, CANCEL — поток, отменяющий подписку, поэтому запись сериализуется.
+     */
+    private static void writeControl(SocketChannel channel, byte type, int value) throws IOException {
+        synchronized (channel) {
+            RxFrames.writeControl(channel, type, value);
+        }
+    }
+
+    private static void close(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть соединение", e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.rxjava.operators;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Адаптивный ограничитель параллелизма для операторов с веером вложенных подписок.
+ * <p>
+ * Оператор занимает слот перед каждой вложенной подпиской и возвращает его
+ * с измеренной задержкой (RTT) при её завершении. По этим замерам лимит
+ * пересчитывается на лету: он растёт, пока задержка держится, и падает,
+ * когда бэкенд начинает отвечать медленнее или с ошибками.
+ * <ul>
+ *     <li>{@link #aimd}: +1 при удачном замере на полностью занятом лимите,
+ *     умножение на backoff при превышении порога задержки или ошибке — не чаще раза на окно:
+ *     замеры запросов, начатых до прошлого снижения, его уже не повторяют;</li>
+ *     <li>{@link #gradient}: лимит масштабируется отношением минимального RTT к текущему
+ *     сглаженному RTT, плюс запас √limit на очередь; ошибка считается перегрузкой.</li>
+ * </ul>
+ * Один ограничитель можно разделять между несколькими операторами — тогда лимит общий.
+ */
+public abstract class AdaptiveLimiter {
+    private static final double RTT_SMOOTHING = 0.1;
+
+    final int minLimit;
+    final int maxLimit;
+    double limit;
+    private int inFlight;
+    private long lastRttNanos;
+    private long minRttNanos = Long.MAX_VALUE;
+    private double smoothedRttNanos;
+    private long samples;
+    private long drops;
+
+    AdaptiveLimiter(int initial, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || minLimit > initial || initial > maxLimit) {
+            throw new IllegalArgumentException("Нужно 0 < min <= initial <= max: "
+                    + minLimit + ", " + initial + ", " + maxLimit);
+        }
+        this.limit = initial;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @param initial          начальный лимит
+     * @param minLimit         нижняя граница лимита
+     * @param maxLimit         верхняя граница лимита
+     * @param latencyThreshold задержка, выше которой замер считается перегрузкой
+     * @param unit             единица измерения порога
+     * @return ограничитель с аддитивным ростом и мультипликативным снижением (backoff 0.9)
+     */
+    public static AdaptiveLimiter aimd(int initial, int minLimit, int maxLimit, long latencyThreshold, TimeUnit unit) {
+        return new Aimd(initial, minLimit, maxLimit, unit.toNanos(latencyThreshold), 0.9);
+    }
+
+    /**
+     * @param initial  начальный лимит
+     * @param minLimit нижняя граница лимита
+     * @param maxLimit верхняя граница лимита
+     * @return градиентный ограничитель
+     */
+    public static AdaptiveLimiter gradient(int initial, int minLimit, int maxLimit) {
+        return new Gradient(initial, minLimit, maxLimit);
+    }
+
+    /**
+     * Занимает слот, ожидая не дольше timeout.
+     *
+     * @return true, если слот получен
+     */
+    public synchronized boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (inFlight >= getLimit()) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Возвращает слот и учитывает замер.
+     *
+     * @param rttNanos время от подписки до завершения вложенного Observable
+     * @param dropped  true, если вложенный Observable завершился ошибкой
+     */
+    public synchronized void release(long rttNanos, boolean dropped) {
+        boolean saturated = inFlight >= getLimit();
+        inFlight--;
+        lastRttNanos = rttNanos;
+        samples++;
+        if (dropped) {
+            drops++;
+        } else {
+            minRttNanos = Math.min(minRttNanos, rttNanos);
+            smoothedRttNanos = smoothedRttNanos == 0
+                    ? rttNanos
+                    : smoothedRttNanos + RTT_SMOOTHING * (rttNanos - smoothedRttNanos);
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, update(rttNanos, dropped, saturated)));
+        notifyAll();
+    }
+
+    /**
+     * Возвращает слот без замера: вложенная подписка отменена до завершения,
+     * и её задержка ничего не говорит о бэкенде.
+     */
+    public synchronized void cancel() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * @return новый лимит (до ограничения границами)
+     */
+    abstract double update(long rttNanos, boolean dropped, boolean saturated);
+
+    /**
+     * @return текущий лимит одновременных вложенных подписок
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return число занятых слотов
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return последний замер задержки, нс
+     */
+    public synchronized long getLastRttNanos() {
+        return lastRttNanos;
+    }
+
+    /**
+     * @return минимальная задержка удачных замеров, нс (0, пока замеров нет)
+     */
+    public synchronized long getMinRttNanos() {
+        return minRttNanos == Long.MAX_VALUE ? 0 : minRttNanos;
+    }
+
+    /**
+     * @return экспоненциально сглаженная задержка удачных замеров, нс
+     */
+    public synchronized long getSmoothedRttNanos() {
+        return (long) smoothedRttNanos;
+    }
+
+    /**
+     * @return число замеров
+     */
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return число замеров, завершившихся ошибкой
+     */
+    public synchronized long getDrops() {
+        return drops;
+    }
+
+    long minRtt() {
+        return minRttNanos;
+    }
+
+    double smoothedRtt() {
+        return smoothedRttNanos;
+    }
+
+    private static final class Aimd extends AdaptiveLimiter {
+        private final long thresholdNanos;
+        private final double backoff;
+        private long lastBackoffNanos = Long.MIN_VALUE;
+
+        Aimd(int initial, int minLimit, int maxLimit, long thresholdNanos, double backoff) {
+            super(initial, minLimit, maxLimit);
+            this.thresholdNanos = thresholdNanos;
+            this.backoff = backoff;
+        }
+
+        @Override
+        double update(long rttNanos, boolean dropped, boolean saturated) {
+            if (dropped || rttNanos > thresholdNanos) {
+                // запрос начат до прошлого снижения: перегрузку, которую он видел, уже учли
+                long now = System.nanoTime();
+                if (lastBackoffNanos != Long.MIN_VALUE && now - rttNanos - lastBackoffNanos < 0) {
+                    return limit;
+                }
+                lastBackoffNanos = now;
+                return Math.floor(limit * backoff);
+            }
+            // растём, только если лимит действительно упирается в нагрузку
+            return saturated ? limit + 1 : limit;
+        }
+    }
+
+    private static final class Gradient extends AdaptiveLimiter {
+        private static final double TOLERANCE = 1.5;
+        private static final double SMOOTHING = 0.2;
+
+        Gradient(int initial, int minLimit, int maxLimit) {
+            super(initial, minLimit, maxLimit);
+        }
+
+        @Override
+        double update(long rttNanos, boolean dropped, boolean saturated) {
+            double gradient;
+            if (dropped) {
+                gradient = 0.5;
+            } else {
+                // задержка в пределах TOLERANCE × минимальной — очередей нет, лимит не трогаем
+                gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * minRtt() / smoothedRtt()));
+            }
+            if (!dropped && !saturated && gradient == 1.0) {
+                return limit;
+            }
+            double target = limit * gradient + Math.sqrt(limit);
+            return limit * (1 - SMOOTHING) + target * SMOOTHING;
+        }
+    }
+}
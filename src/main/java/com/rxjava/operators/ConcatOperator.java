@@ -12,14 +12,14 @@ public class ConcatOperator {
             RxObservable<? extends T> first,
             RxObservable<? extends T> second
     ) {
-        return RxObservable.create(observer -> {
+        return RxObservable.create((observer, disposable) -> {
             first.subscribe(new RxObserver<T>() {
                 @Override public void onNext(T item) { observer.onNext(item); }
                 @Override public void onError(Throwable t) { observer.onError(t); }
                 @Override public void onComplete() {
-                    second.subscribe(observer);
+                    second.subscribe(observer, disposable);
                 }
-            });
+            }, disposable);
         });
     }
 }
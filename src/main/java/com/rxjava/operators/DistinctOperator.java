@@ -0,0 +1,273 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.util.LongHashSet;
+import com.rxjava.util.OffHeapBloomFilter;
+import com.rxjava.util.OpenHashMap;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Семейство операторов distinct: пропускает только ранее не встречавшиеся элементы.
+ * <ul>
+ *     <li>{@link #apply(RxObservable)} — точный, по equals/hashCode элементов;</li>
+ *     <li>{@link #apply(RxObservable, ToLongFunction)} — точный, по long-ключу в примитивном множестве;</li>
+ *     <li>{@link #untilChanged(RxObservable)} — отбрасывает только подряд идущие повторы;</li>
+ *     <li>{@link #approximate(RxObservable, ToLongFunction, long, double)} — приближённый, на off-heap
+ *     фильтре Блума: память фиксирована, но с вероятностью ложного срабатывания
+ *     новый элемент может быть принят за повтор и отброшен.</li>
+ * </ul>
+ * Потребление памяти текущей подписки можно наблюдать через {@link Stats}.
+ */
+public class DistinctOperator {
+
+    /**
+     * @param source исходный Observable
+     * @param <T>    тип элементов
+     * @return Observable без повторяющихся элементов
+     */
+    public static <T> RxObservable<T> apply(RxObservable<T> source) {
+        return apply(source, new Stats());
+    }
+
+    /**
+     * @param source исходный Observable
+     * @param stats  счётчики, обновляемые по ходу подписки
+     * @param <T>    тип элементов
+     * @return Observable без повторяющихся элементов
+     */
+    public static <T> RxObservable<T> apply(RxObservable<T> source, Stats stats) {
+        return RxObservable.create((observer, disposable) -> {
+            OpenHashMap<T, Boolean> seen = new OpenHashMap<>();
+            stats.reset(seen.memoryFootprintBytes());
+            source.subscribe(new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    if (seen.put(item, Boolean.TRUE) == null) {
+                        stats.accepted(seen.memoryFootprintBytes());
+                        observer.onNext(item);
+                    } else {
+                        stats.dropped();
+                    }
+                }
+                @Override
+                public void onError(Throwable t) {
+                    observer.onError(t);
+                }
+                @Override
+                public void onComplete() {
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    /**
+     * @param source       исходный Observable
+     * @param keyExtractor функция, дающая уникальный long-идентификатор элемента
+     * @param <T>          тип элементов
+     * @return Observable без элементов с повторяющимся ключом
+     */
+    public static <T> RxObservable<T> apply(RxObservable<T> source, ToLongFunction<? super T> keyExtractor) {
+        return apply(source, keyExtractor, new Stats());
+    }
+
+    /**
+     * @param source       исходный Observable
+     * @param keyExtractor функция, дающая уникальный long-идентификатор элемента
+     * @param stats        счётчики, обновляемые по ходу подписки
+     * @param <T>          тип элементов
+     * @return Observable без элементов с повторяющимся ключом
+     */
+    public static <T> RxObservable<T> apply(
+            RxObservable<T> source,
+            ToLongFunction<? super T> keyExtractor,
+            Stats stats
+    ) {
+        return RxObservable.create((observer, disposable) -> {
+            LongHashSet seen = new LongHashSet();
+            stats.reset(seen.memoryFootprintBytes());
+            source.subscribe(new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    if (seen.add(keyExtractor.applyAsLong(item))) {
+                        stats.accepted(seen.memoryFootprintBytes());
+                        observer.onNext(item);
+                    } else {
+                        stats.dropped();
+                    }
+                }
+                @Override
+                public void onError(Throwable t) {
+                    observer.onError(t);
+                }
+                @Override
+                public void onComplete() {
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    /**
+     * @param source исходный Observable
+     * @param <T>    тип элементов
+     * @return Observable, в котором нет двух равных элементов подряд
+     */
+    public static <T> RxObservable<T> untilChanged(RxObservable<T> source) {
+        return untilChanged(source, Function.identity(), new Stats());
+    }
+
+    /**
+     * @param source      исходный Observable
+     * @param keySelector функция, по результату которой сравниваются соседние элементы
+     * @param stats       счётчики, обновляемые по ходу подписки
+     * @param <T>         тип элементов
+     * @param <K>         тип ключа
+     * @return Observable, в котором нет двух элементов с равным ключом подряд
+     */
+    public static <T, K> RxObservable<T> untilChanged(
+            RxObservable<T> source,
+            Function<? super T, K> keySelector,
+            Stats stats
+    ) {
+        return RxObservable.create((observer, disposable) -> {
+            // хранится только ссылка на последний ключ
+            stats.reset(8);
+            source.subscribe(new RxObserver<T>() {
+                private boolean hasLast;
+                private K last;
+
+                @Override
+                public void onNext(T item) {
+                    K key = keySelector.apply(item);
+                    if (hasLast && Objects.equals(last, key)) {
+                        stats.dropped();
+                        return;
+                    }
+                    hasLast = true;
+                    last = key;
+                    stats.accepted(8);
+                    observer.onNext(item);
+                }
+                @Override
+                public void onError(Throwable t) {
+                    observer.onError(t);
+                }
+                @Override
+                public void onComplete() {
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    /**
+     * @param source            исходный Observable
+     * @param keyExtractor      функция, дающая long-идентификатор элемента
+     * @param capacity          ожидаемое число различных ключей
+     * @param falsePositiveRate допустимая доля новых элементов, ошибочно отброшенных как повторы
+     * @param <T>               тип элементов
+     * @return Observable без повторов, с памятью, не зависящей от числа элементов
+     */
+    public static <T> RxObservable<T> approximate(
+            RxObservable<T> source,
+            ToLongFunction<? super T> keyExtractor,
+            long capacity,
+            double falsePositiveRate
+    ) {
+        return approximate(source, keyExtractor, capacity, falsePositiveRate, new Stats());
+    }
+
+    /**
+     * @param source            исходный Observable
+     * @param keyExtractor      функция, дающая long-идентификатор элемента
+     * @param capacity          ожидаемое число различных ключей
+     * @param falsePositiveRate допустимая доля новых элементов, ошибочно отброшенных как повторы
+     * @param stats             счётчики, обновляемые по ходу подписки
+     * @param <T>               тип элементов
+     * @return Observable без повторов, с памятью, не зависящей от числа элементов
+     */
+    public static <T> RxObservable<T> approximate(
+            RxObservable<T> source,
+            ToLongFunction<? super T> keyExtractor,
+            long capacity,
+            double falsePositiveRate,
+            Stats stats
+    ) {
+        return RxObservable.create((observer, disposable) -> {
+            OffHeapBloomFilter filter = new OffHeapBloomFilter(capacity, falsePositiveRate);
+            stats.reset(filter.memoryFootprintBytes());
+            source.subscribe(new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    if (filter.put(keyExtractor.applyAsLong(item))) {
+                        stats.accepted(filter.memoryFootprintBytes());
+                        observer.onNext(item);
+                    } else {
+                        stats.dropped();
+                    }
+                }
+                @Override
+                public void onError(Throwable t) {
+                    observer.onError(t);
+                }
+                @Override
+                public void onComplete() {
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    /**
+     * Счётчики оператора distinct: сколько элементов пропущено, сколько отброшено
+     * и сколько памяти занимает структура, хранящая увиденные ключи.
+     * Отражают последнюю подписку на Observable, которому переданы.
+     */
+    public static class Stats {
+        private volatile long memoryFootprintBytes;
+        private volatile long accepted;
+        private volatile long dropped;
+
+        void reset(long footprint) {
+            memoryFootprintBytes = footprint;
+            accepted = 0;
+            dropped = 0;
+        }
+
+        void accepted(long footprint) {
+            memoryFootprintBytes = footprint;
+            accepted++;
+        }
+
+        void dropped() {
+            dropped++;
+        }
+
+        /**
+         * @return приблизительный объём памяти структуры ключей в байтах (для точного режима
+         * по equals — без учёта самих элементов)
+         */
+        public long getMemoryFootprintBytes() {
+            return memoryFootprintBytes;
+        }
+
+        /**
+         * @return число пропущенных дальше элементов
+         */
+        public long getAccepted() {
+            return accepted;
+        }
+
+        /**
+         * @return число отброшенных как повторы элементов
+         */
+        public long getDropped() {
+            return dropped;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.rxjava.operators;
 
 import com.rxjava.core.RxObservable;
 import com.rxjava.core.RxObserver;
-import com.rxjava.core.RxDisposable;
 
 import java.util.function.Predicate;
 
@@ -14,8 +13,8 @@ public class FilterOperator {
             RxObservable<T> source,
             Predicate<? super T> predicate
     ) {
-        return RxObservable.create(observer -> {
-            RxDisposable disp = source.subscribe(new RxObserver<T>() {
+        return RxObservable.create((observer, disposable) -> {
+            source.subscribe(new RxObserver<T>() {
                 @Override
                 public void onNext(T item) {
                     if (predicate.test(item)) {
@@ -30,7 +29,7 @@ public class FilterOperator {
                 public void onComplete() {
                     observer.onComplete();
                 }
-            });
+            }, disposable);
         });
     }
 }
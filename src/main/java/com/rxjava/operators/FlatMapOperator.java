@@ -4,8 +4,11 @@ import com.rxjava.core.RxCompositeDisposable;
 import com.rxjava.core.RxDisposable;
 import com.rxjava.core.RxObservable;
 import com.rxjava.core.RxObserver;
+import com.rxjava.core.RxSubscriptionTracker;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
@@ -26,16 +29,23 @@ public class FlatMapOperator {
             RxObservable<T> source,
             Function<? super T, RxObservable<? extends R>> mapper
     ) {
-        return RxObservable.create(observer -> {
+        return RxObservable.create((observer, disposable) -> {
             RxCompositeDisposable composite = new RxCompositeDisposable();
+            RxSubscriptionTracker.retain(disposable, composite, RxCompositeDisposable::size);
             AtomicInteger activeCount = new AtomicInteger(1); // 1 — родительский поток
             ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            disposable.onDispose(composite::dispose);
+            RxDisposable parentDisp = new RxDisposable();
+            composite.add(parentDisp);
 
-            RxDisposable parentDisp = source.subscribe(new RxObserver<T>() {
+            source.subscribe(new RxObserver<T>() {
                 @Override
                 public void onNext(T item) {
                     activeCount.incrementAndGet();
-                    RxDisposable innerDisp = mapper.apply(item)
+                    // завершённые вложенные подписки убираются из группы, чтобы она не росла
+                    RxDisposable innerDisp = new RxDisposable();
+                    composite.add(innerDisp);
+                    mapper.apply(item)
                             .subscribe(new RxObserver<R>() {
                                 @Override
                                 public void onNext(R inner) {
@@ -43,15 +53,16 @@ public class FlatMapOperator {
                                 }
                                 @Override
                                 public void onError(Throwable t) {
+                                    composite.remove(innerDisp);
                                     errors.add(t);
                                     completeIfDone();
                                 }
                                 @Override
                                 public void onComplete() {
+                                    composite.remove(innerDisp);
                                     completeIfDone();
                                 }
-                            });
-                    composite.add(innerDisp);
+                            }, innerDisp);
                 }
 
                 @Override
@@ -77,9 +88,122 @@ public class FlatMapOperator {
                         composite.dispose();
                     }
                 }
-            });
+            }, parentDisp);
+        });
+    }
 
+    /**
+     * flatMap с адаптивным ограничением числа одновременных вложенных подписок.
+     * Перед подпиской на очередной вложенный Observable занимается слот limiter;
+     * если слотов нет, исходный поток блокируется в onNext. Слот возвращается
+     * при завершении вложенного Observable вместе с задержкой от подписки до завершения.
+     *
+     * @param source  исходный Observable
+     * @param mapper  функция, порождающая вложенный Observable для каждого элемента
+     * @param limiter адаптивный ограничитель параллелизма
+     * @param <T>     тип исходных элементов
+     * @param <R>     тип результирующих элементов
+     * @return новый RxObservable<R>
+     */
+    public static <T, R> RxObservable<R> apply(
+            RxObservable<T> source,
+            Function<? super T, RxObservable<? extends R>> mapper,
+            AdaptiveLimiter limiter
+    ) {
+        return RxObservable.create((observer, disposable) -> {
+            RxCompositeDisposable composite = new RxCompositeDisposable();
+            AtomicInteger activeCount = new AtomicInteger(1); // 1 — родительский поток
+            ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            disposable.onDispose(composite::dispose);
+            RxDisposable parentDisp = new RxDisposable();
             composite.add(parentDisp);
+
+            source.subscribe(new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    if (!acquire()) {
+                        return;
+                    }
+                    activeCount.incrementAndGet();
+                    long start = System.nanoTime();
+                    // слот возвращается ровно один раз: при завершении с замером или при отмене без него,
+                    // ведь после отмены терминальные сигналы вложенного Observable не доставляются
+                    AtomicBoolean released = new AtomicBoolean();
+                    RxDisposable innerDisp = new RxDisposable();
+                    innerDisp.onDispose(() -> {
+                        if (released.compareAndSet(false, true)) {
+                            limiter.cancel();
+                        }
+                    });
+                    composite.add(innerDisp);
+                    if (disposable.isDisposed()) {
+                        innerDisp.dispose();
+                        return;
+                    }
+                    mapper.apply(item).subscribe(new RxObserver<R>() {
+                        @Override
+                        public void onNext(R inner) {
+                            observer.onNext(inner);
+                        }
+                        @Override
+                        public void onError(Throwable t) {
+                            release(true);
+                            errors.add(t);
+                            completeIfDone();
+                        }
+                        @Override
+                        public void onComplete() {
+                            release(false);
+                            completeIfDone();
+                        }
+
+                        private void release(boolean dropped) {
+                            composite.remove(innerDisp);
+                            if (released.compareAndSet(false, true)) {
+                                limiter.release(System.nanoTime() - start, dropped);
+                            }
+                        }
+                    }, innerDisp);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    errors.add(t);
+                    completeIfDone();
+                }
+
+                @Override
+                public void onComplete() {
+                    completeIfDone();
+                }
+
+                /**
+                 * Ждёт слот ограничителя, но не дольше отмены подписки.
+                 */
+                private boolean acquire() {
+                    try {
+                        while (!disposable.isDisposed()) {
+                            if (limiter.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+                                return true;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return false;
+                }
+
+                private void completeIfDone() {
+                    if (activeCount.decrementAndGet() == 0) {
+                        Throwable err = errors.poll();
+                        if (err != null) {
+                            observer.onError(err);
+                        } else {
+                            observer.onComplete();
+                        }
+                    }
+                }
+            }, parentDisp);
         });
     }
 }
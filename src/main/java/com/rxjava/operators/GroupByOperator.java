@@ -0,0 +1,479 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxGroupedObservable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.schedulers.RxScheduler;
+import com.rxjava.schedulers.RxSerialScheduler;
+import com.rxjava.util.OpenHashMap;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Оператор groupBy: разбивает поток на группы по ключу.
+ * <p>
+ * Состояние групп хранится в хеш-таблице с открытой адресацией. Число живых групп
+ * ограничено maxGroups: при переполнении вытесняется дольше всех простаивающая группа.
+ * Группы, не получавшие элементов дольше ttl, завершаются; проверка простоя выполняется
+ * лениво, при поступлении очередного элемента. Если по ключу вытесненной группы придёт
+ * новый элемент, будет открыта новая группа с тем же ключом.
+ * <p>
+ * keySelector не должен возвращать null: такой элемент завершает поток и все открытые группы
+ * ошибкой NullPointerException, подписка на источник отменяется.
+ */
+public class GroupByOperator {
+
+    /**
+     * @param source      исходный Observable
+     * @param keySelector функция, вычисляющая ключ элемента
+     * @param <T>         тип элементов
+     * @param <K>         тип ключа
+     * @return поток групп без ограничения числа и времени жизни
+     */
+    public static <T, K> RxObservable<RxGroupedObservable<K, T>> apply(
+            RxObservable<T> source,
+            Function<? super T, ? extends K> keySelector
+    ) {
+        return apply(source, keySelector, Integer.MAX_VALUE, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param source      исходный Observable
+     * @param keySelector функция, вычисляющая ключ элемента
+     * @param maxGroups   максимальное число одновременно живых групп
+     * @param ttl         время простоя, после которого группа завершается (0 — без ограничения)
+     * @param unit        единица измерения ttl
+     * @param <T>         тип элементов
+     * @param <K>         тип ключа
+     * @return поток групп
+     */
+    public static <T, K> RxObservable<RxGroupedObservable<K, T>> apply(
+            RxObservable<T> source,
+            Function<? super T, ? extends K> keySelector,
+            int maxGroups,
+            long ttl,
+            TimeUnit unit
+    ) {
+        return apply(source, keySelector, maxGroups, ttl, unit, null, 0);
+    }
+
+    /**
+     * Вариант с доставкой элементов групп в разных исполнителях: группа закрепляется
+     * за одной из workers последовательных полос над scheduler по хешу ключа,
+     * поэтому порядок внутри группы сохраняется, а разные группы обрабатываются параллельно.
+     *
+     * @param source      исходный Observable
+     * @param keySelector функция, вычисляющая ключ элемента
+     * @param maxGroups   максимальное число одновременно живых групп
+     * @param ttl         время простоя, после которого группа завершается (0 — без ограничения)
+     * @param unit        единица измерения ttl
+     * @param scheduler   планировщик исполнителей, например RxComputationScheduler
+     * @param workers     число исполнителей, например RxComputationScheduler.parallelism()
+     * @param <T>         тип элементов
+     * @param <K>         тип ключа
+     * @return поток групп
+     */
+    public static <T, K> RxObservable<RxGroupedObservable<K, T>> apply(
+            RxObservable<T> source,
+            Function<? super T, ? extends K> keySelector,
+            int maxGroups,
+            long ttl,
+            TimeUnit unit,
+            RxScheduler scheduler,
+            int workers
+    ) {
+        return apply(source, keySelector, maxGroups, ttl, unit, scheduler, workers, System::nanoTime);
+    }
+
+    /**
+     * @param clock источник времени в наносекундах для проверки простоя
+     */
+    static <T, K> RxObservable<RxGroupedObservable<K, T>> apply(
+            RxObservable<T> source,
+            Function<? super T, ? extends K> keySelector,
+            int maxGroups,
+            long ttl,
+            TimeUnit unit,
+            RxScheduler scheduler,
+            int workers,
+            LongSupplier clock
+    ) {
+        checkLimits(maxGroups, ttl);
+        if (scheduler != null && workers <= 0) {
+            throw new IllegalArgumentException("workers должен быть положительным: " + workers);
+        }
+        long ttlNanos = unit.toNanos(ttl);
+        return RxObservable.create((observer, disposable) -> {
+            RxScheduler[] lanes = null;
+            if (scheduler != null) {
+                lanes = new RxScheduler[workers];
+                for (int i = 0; i < workers; i++) {
+                    lanes[i] = new RxSerialScheduler(scheduler);
+                }
+            }
+            RxScheduler[] workerLanes = lanes;
+            GroupIndex<K, GroupState<K, T>> index = new GroupIndex<>(
+                    maxGroups, ttlNanos, clock, GroupState::complete);
+
+            source.subscribe(new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    K key = keySelector.apply(item);
+                    if (key == null) {
+                        // ошибка уходит раньше отмены: после dispose обёртка подписки её бы отбросила
+                        onError(new NullPointerException("keySelector вернул null для элемента " + item));
+                        disposable.dispose();
+                        return;
+                    }
+                    GroupState<K, T> group = index.touch(key);
+                    if (group == null) {
+                        RxScheduler lane = workerLanes == null
+                                ? null
+                                : workerLanes[Math.floorMod(key.hashCode(), workerLanes.length)];
+                        group = new GroupState<>(key, lane);
+                        index.insert(key, group);
+                        observer.onNext(group.observable);
+                    }
+                    group.next(item);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    index.drain(g -> g.error(t));
+                    observer.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    index.drain(GroupState::complete);
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    /**
+     * Совмещённый groupBy + reduce: сворачивает элементы каждой группы, не порождая
+     * вложенных Observable. Итог группы эмитится при завершении потока, а также досрочно —
+     * когда группа вытесняется по лимиту maxGroups или по простою.
+     *
+     * @param source      исходный Observable
+     * @param keySelector функция, вычисляющая ключ элемента
+     * @param accumulator функция свёртки элементов одной группы
+     * @param <T>         тип элементов
+     * @param <K>         тип ключа
+     * @return поток пар ключ → свёрнутое значение
+     */
+    public static <T, K> RxObservable<Map.Entry<K, T>> reduce(
+            RxObservable<T> source,
+            Function<? super T, ? extends K> keySelector,
+            BiFunction<? super T, ? super T, ? extends T> accumulator
+    ) {
+        return reduce(source, keySelector, accumulator, Integer.MAX_VALUE, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param source      исходный Observable
+     * @param keySelector функция, вычисляющая ключ элемента
+     * @param accumulator функция свёртки элементов одной группы
+     * @param maxGroups   максимальное число одновременно хранимых аккумуляторов
+     * @param ttl         время простоя, после которого итог группы эмитится (0 — без ограничения)
+     * @param unit        единица измерения ttl
+     * @param <T>         тип элементов
+     * @param <K>         тип ключа
+     * @return поток пар ключ → свёрнутое значение
+     */
+    public static <T, K> RxObservable<Map.Entry<K, T>> reduce(
+            RxObservable<T> source,
+            Function<? super T, ? extends K> keySelector,
+            BiFunction<? super T, ? super T, ? extends T> accumulator,
+            int maxGroups,
+            long ttl,
+            TimeUnit unit
+    ) {
+        return reduce(source, keySelector, accumulator, maxGroups, ttl, unit, System::nanoTime);
+    }
+
+    /**
+     * @param clock источник времени в наносекундах для проверки простоя
+     */
+    static <T, K> RxObservable<Map.Entry<K, T>> reduce(
+            RxObservable<T> source,
+            Function<? super T, ? extends K> keySelector,
+            BiFunction<? super T, ? super T, ? extends T> accumulator,
+            int maxGroups,
+            long ttl,
+            TimeUnit unit,
+            LongSupplier clock
+    ) {
+        checkLimits(maxGroups, ttl);
+        long ttlNanos = unit.toNanos(ttl);
+        return RxObservable.create((observer, disposable) -> {
+            GroupIndex<K, Accumulator<K, T>> index = new GroupIndex<>(
+                    maxGroups, ttlNanos, clock,
+                    acc -> observer.onNext(Map.entry(acc.key, acc.value)));
+
+            source.subscribe(new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    K key = keySelector.apply(item);
+                    if (key == null) {
+                        onError(new NullPointerException("keySelector вернул null для элемента " + item));
+                        disposable.dispose();
+                        return;
+                    }
+                    Accumulator<K, T> acc = index.touch(key);
+                    if (acc == null) {
+                        index.insert(key, new Accumulator<>(key, item));
+                    } else {
+                        acc.value = accumulator.apply(acc.value, item);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    index.drain(acc -> { });
+                    observer.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    index.drain(acc -> observer.onNext(Map.entry(acc.key, acc.value)));
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    private static void checkLimits(int maxGroups, long ttl) {
+        if (maxGroups <= 0) {
+            throw new IllegalArgumentException("maxGroups должен быть положительным: " + maxGroups);
+        }
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl не может быть отрицательным: " + ttl);
+        }
+    }
+
+    /**
+     * Узел индекса групп: участвует в списке LRU, упорядоченном по последнему обращению.
+     */
+    private abstract static class Node<K, N extends Node<K, N>> {
+        final K key;
+        long lastAccess;
+        N prev;
+        N next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Таблица живых групп плюс интрузивный список LRU. Голова списка — группа,
+     * простаивающая дольше всех, поэтому вытеснение по простою и по лимиту — O(1).
+     */
+    private static final class GroupIndex<K, N extends Node<K, N>> {
+        private final OpenHashMap<K, N> table;
+        private final int maxGroups;
+        private final long ttlNanos;
+        private final LongSupplier clock;
+        private final Consumer<N> onEvict;
+        private N head;
+        private N tail;
+
+        GroupIndex(int maxGroups, long ttlNanos, LongSupplier clock, Consumer<N> onEvict) {
+            this.table = new OpenHashMap<>(Math.min(maxGroups, 1024));
+            this.maxGroups = maxGroups;
+            this.ttlNanos = ttlNanos;
+            this.clock = clock;
+            this.onEvict = onEvict;
+        }
+
+        /**
+         * Вытесняет простаивающие группы и возвращает группу ключа, отметив обращение.
+         *
+         * @return группа или null, если её нужно создать
+         */
+        N touch(K key) {
+            long now = clock.getAsLong();
+            if (ttlNanos > 0) {
+                while (head != null && now - head.lastAccess > ttlNanos) {
+                    evict(head);
+                }
+            }
+            N node = table.get(key);
+            if (node != null) {
+                node.lastAccess = now;
+                if (node != tail) {
+                    unlink(node);
+                    linkLast(node);
+                }
+            }
+            return node;
+        }
+
+        void insert(K key, N node) {
+            if (table.size() >= maxGroups) {
+                evict(head);
+            }
+            node.lastAccess = clock.getAsLong();
+            table.put(key, node);
+            linkLast(node);
+        }
+
+        void drain(Consumer<N> action) {
+            N node = head;
+            head = tail = null;
+            table.clear();
+            while (node != null) {
+                N next = node.next;
+                node.prev = node.next = null;
+                action.accept(node);
+                node = next;
+            }
+        }
+
+        private void evict(N node) {
+            table.remove(node.key);
+            unlink(node);
+            onEvict.accept(node);
+        }
+
+        private void linkLast(N node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        private void unlink(N node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = node.next = null;
+        }
+    }
+
+    private static final class Accumulator<K, T> extends Node<K, Accumulator<K, T>> {
+        T value;
+
+        Accumulator(K key, T value) {
+            super(key);
+            this.value = value;
+        }
+    }
+
+    /**
+     * Состояние одной группы. Элементы, пришедшие до подписки на группу,
+     * буферизуются; подписчик у группы может быть только один.
+     */
+    private static final class GroupState<K, T> extends Node<K, GroupState<K, T>> {
+        final RxGroupedObservable<K, T> observable;
+        private final RxScheduler lane;
+        private final ArrayDeque<T> pending = new ArrayDeque<>();
+        private RxObserver<? super T> subscriber;
+        private boolean done;
+        private Throwable error;
+
+        GroupState(K key, RxScheduler lane) {
+            super(key);
+            this.lane = lane;
+            this.observable = new RxGroupedObservable<K, T>(key, this::attach);
+        }
+
+        void next(T item) {
+            dispatch(() -> {
+                RxObserver<? super T> target;
+                synchronized (this) {
+                    if (subscriber == null) {
+                        pending.add(item);
+                        return;
+                    }
+                    target = subscriber;
+                }
+                target.onNext(item);
+            });
+        }
+
+        void complete() {
+            terminate(null);
+        }
+
+        void error(Throwable t) {
+            terminate(t);
+        }
+
+        private void terminate(Throwable t) {
+            dispatch(() -> {
+                RxObserver<? super T> target;
+                synchronized (this) {
+                    done = true;
+                    error = t;
+                    target = subscriber;
+                }
+                if (target != null) {
+                    if (t != null) {
+                        target.onError(t);
+                    } else {
+                        target.onComplete();
+                    }
+                }
+            });
+        }
+
+        private void attach(RxObserver<? super T> observer) {
+            dispatch(() -> {
+                boolean terminated;
+                Throwable failure;
+                ArrayDeque<T> buffered;
+                synchronized (this) {
+                    if (subscriber != null) {
+                        observer.onError(new IllegalStateException(
+                                "Группа " + key + " допускает только одного подписчика"));
+                        return;
+                    }
+                    subscriber = observer;
+                    buffered = new ArrayDeque<>(pending);
+                    pending.clear();
+                    terminated = done;
+                    failure = error;
+                }
+                for (T item : buffered) {
+                    observer.onNext(item);
+                }
+                if (terminated) {
+                    if (failure != null) {
+                        observer.onError(failure);
+                    } else {
+                        observer.onComplete();
+                    }
+                }
+            });
+        }
+
+        private void dispatch(Runnable action) {
+            if (lane == null) {
+                action.run();
+            } else {
+                lane.schedule(action);
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.util.IndexedTable;
+import com.rxjava.util.OpenHashMap;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Операторы соединения потоков.
+ * <p>
+ * Соединение потока с таблицей: changelog (пары ключ/значение, null-значение означает
+ * удаление) материализуется в {@link IndexedTable}, и каждое событие второго потока
+ * обогащается текущим значением своего ключа за один поиск в хеш-таблице — без
+ * внутренней подписки и обращения к внешнему хранилищу на каждое событие.
+ * <p>
+ * Оконное соединение двух потоков: элементы каждой стороны буферизуются по ключу,
+ * пока обе стороны не уйдут по времени события вперёд больше чем на окно.
+ * Буфер каждой стороны ограничен: при переполнении вытесняются самые старые элементы.
+ */
+public class JoinOperator {
+
+    /**
+     * Материализует changelog в таблицу.
+     *
+     * @param changelog поток изменений: ключ и новое значение или null для удаления
+     * @param table     таблица, которую нужно поддерживать
+     * @param <K>       тип ключа
+     * @param <V>       тип значения
+     * @return тот же changelog, применённый к table перед передачей дальше
+     */
+    public static <K, V> RxObservable<Map.Entry<K, V>> materialize(
+            RxObservable<Map.Entry<K, V>> changelog,
+            IndexedTable<K, V> table
+    ) {
+        return RxObservable.create((observer, disposable) ->
+                changelog.subscribe(new RxObserver<Map.Entry<K, V>>() {
+                    @Override
+                    public void onNext(Map.Entry<K, V> change) {
+                        apply(table, change);
+                        observer.onNext(change);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        observer.onError(t);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        observer.onComplete();
+                    }
+                }, disposable));
+    }
+
+    /**
+     * Внутреннее соединение потока с таблицей без ограничений размера.
+     *
+     * @param stream      поток событий
+     * @param keySelector ключ события
+     * @param changelog   поток изменений таблицы
+     * @param joiner      функция, соединяющая событие со значением
+     * @param <T>         тип событий
+     * @param <K>         тип ключа
+     * @param <V>         тип значений таблицы
+     * @param <R>         тип результата
+     * @return события, для ключа которых в таблице есть значение, соединённые с ним
+     */
+    public static <T, K, V, R> RxObservable<R> streamTable(
+            RxObservable<T> stream,
+            Function<? super T, ? extends K> keySelector,
+            RxObservable<Map.Entry<K, V>> changelog,
+            BiFunction<? super T, ? super V, ? extends R> joiner
+    ) {
+        return streamTable(stream, keySelector, changelog, new IndexedTable<>(), joiner, false);
+    }
+
+    /**
+     * Соединение потока с таблицей.
+     * <p>
+     * При подписке сначала подписывается changelog: синхронный changelog будет загружен
+     * в таблицу целиком до первого события. Асинхронный changelog продолжает обновлять
+     * таблицу параллельно с потоком событий. Результат завершается вместе с потоком событий,
+     * подписка на changelog при этом отменяется; ошибка любого из них передаётся дальше.
+     *
+     * @param stream      поток событий
+     * @param keySelector ключ события
+     * @param changelog   поток изменений таблицы
+     * @param table       таблица (с нужными ограничениями размера, ttl и хранением вне кучи)
+     * @param joiner      функция, соединяющая событие со значением
+     * @param left        true — левое соединение: события без значения передаются с null
+     * @param <T>         тип событий
+     * @param <K>         тип ключа
+     * @param <V>         тип значений таблицы
+     * @param <R>         тип результата
+     * @return соединённые события
+     */
+    public static <T, K, V, R> RxObservable<R> streamTable(
+            RxObservable<T> stream,
+            Function<? super T, ? extends K> keySelector,
+            RxObservable<Map.Entry<K, V>> changelog,
+            IndexedTable<K, V> table,
+            BiFunction<? super T, ? super V, ? extends R> joiner,
+            boolean left
+    ) {
+        return RxObservable.create((observer, disposable) -> {
+            Object lock = new Object();
+            boolean[] done = new boolean[1];
+            RxDisposable tableSubscription = new RxDisposable();
+            disposable.onDispose(tableSubscription::dispose);
+            changelog.subscribe(new RxObserver<Map.Entry<K, V>>() {
+                @Override
+                public void onNext(Map.Entry<K, V> change) {
+                    apply(table, change);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    synchronized (lock) {
+                        if (done[0]) {
+                            return;
+                        }
+                        done[0] = true;
+                    }
+                    observer.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    // таблица остаётся в последнем состоянии
+                }
+            }, tableSubscription);
+
+            stream.subscribe(new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    V value = table.get(keySelector.apply(item));
+                    if (value == null && !left) {
+                        return;
+                    }
+                    synchronized (lock) {
+                        if (!done[0]) {
+                            observer.onNext(joiner.apply(item, value));
+                        }
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    synchronized (lock) {
+                        if (done[0]) {
+                            return;
+                        }
+                        done[0] = true;
+                    }
+                    tableSubscription.dispose();
+                    observer.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    synchronized (lock) {
+                        if (done[0]) {
+                            return;
+                        }
+                        done[0] = true;
+                    }
+                    tableSubscription.dispose();
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    /**
+     * Оконное внутреннее соединение двух потоков по ключу и времени события.
+     * Пара (l, r) с равными ключами эмитится, если |время(l) − время(r)| ≤ window;
+     * каждая пара — один раз, в момент прихода второго из элементов.
+     * <p>
+     * Время события задаётся в миллисекундах. Элемент удаляется из буфера, когда
+     * максимальное увиденное время каждой из сторон уходит вперёд дальше чем на окно;
+     * элементы, опоздавшие больше чем на окно, не буферизуются. При переполнении
+     * буфера стороны (maxBuffered элементов) вытесняются самые ранние поступившие —
+     * их будущие пары будут потеряны.
+     * <p>
+     * Селекторы ключей не должны возвращать null: такой элемент завершает поток ошибкой
+     * NullPointerException, подписки на обе стороны отменяются.
+     *
+     * @param left        левый поток
+     * @param right       правый поток
+     * @param leftKey     ключ левого элемента
+     * @param rightKey    ключ правого элемента
+     * @param leftTime    время события левого элемента, мс
+     * @param rightTime   время события правого элемента, мс
+     * @param window      размер окна
+     * @param unit        единица измерения окна
+     * @param maxBuffered максимальное число буферизованных элементов каждой стороны
+     * @param joiner      функция, соединяющая пару
+     * @param <L>         тип левых элементов
+     * @param <R>         тип правых элементов
+     * @param <K>         тип ключа
+     * @param <O>         тип результата
+     * @return соединённые пары
+     */
+    public static <L, R, K, O> RxObservable<O> windowed(
+            RxObservable<L> left,
+            RxObservable<R> right,
+            Function<? super L, ? extends K> leftKey,
+            Function<? super R, ? extends K> rightKey,
+            ToLongFunction<? super L> leftTime,
+            ToLongFunction<? super R> rightTime,
+            long window,
+            TimeUnit unit,
+            int maxBuffered,
+            BiFunction<? super L, ? super R, ? extends O> joiner
+    ) {
+        if (maxBuffered <= 0) {
+            throw new IllegalArgumentException("maxBuffered должен быть положительным: " + maxBuffered);
+        }
+        long windowMillis = unit.toMillis(window);
+        return RxObservable.create((observer, disposable) -> {
+            WindowJoin<K, L, R, O> join = new WindowJoin<>(observer, disposable, windowMillis, maxBuffered, joiner);
+            left.subscribe(join.side(leftKey, leftTime, join.lefts, join.rights, true), disposable);
+            right.subscribe(join.side(rightKey, rightTime, join.rights, join.lefts, false), disposable);
+        });
+    }
+
+    private static <K, V> void apply(IndexedTable<K, V> table, Map.Entry<K, V> change) {
+        if (change.getValue() == null) {
+            table.remove(change.getKey());
+        } else {
+            table.put(change.getKey(), change.getValue());
+        }
+    }
+
+    /**
+     * Общее состояние оконного соединения; обе стороны обращаются к нему под монитором.
+     */
+    private static final class WindowJoin<K, L, R, O> {
+        final JoinBuffer<K> lefts;
+        final JoinBuffer<K> rights;
+        private final RxObserver<? super O> observer;
+        private final RxDisposable disposable;
+        private final long window;
+        private final BiFunction<? super L, ? super R, ? extends O> joiner;
+        private long leftWatermark = Long.MIN_VALUE;
+        private long rightWatermark = Long.MIN_VALUE;
+        private int completed;
+        private boolean done;
+
+        WindowJoin(RxObserver<? super O> observer, RxDisposable disposable, long window, int maxBuffered,
+                   BiFunction<? super L, ? super R, ? extends O> joiner) {
+            this.observer = observer;
+            this.disposable = disposable;
+            this.window = window;
+            this.joiner = joiner;
+            this.lefts = new JoinBuffer<>(maxBuffered);
+            this.rights = new JoinBuffer<>(maxBuffered);
+        }
+
+        <T> RxObserver<T> side(
+                Function<? super T, ? extends K> keySelector,
+                ToLongFunction<? super T> timeSelector,
+                JoinBuffer<K> own,
+                JoinBuffer<K> other,
+                boolean isLeft
+        ) {
+            return new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    K key = keySelector.apply(item);
+                    if (key == null) {
+                        // ошибка уходит раньше отмены: после dispose обёртка подписки её бы отбросила
+                        onError(new NullPointerException("keySelector вернул null для элемента " + item));
+                        disposable.dispose();
+                        return;
+                    }
+                    long time = timeSelector.applyAsLong(item);
+                    synchronized (WindowJoin.this) {
+                        if (done) {
+                            return;
+                        }
+                        if (isLeft) {
+                            leftWatermark = Math.max(leftWatermark, time);
+                        } else {
+                            rightWatermark = Math.max(rightWatermark, time);
+                        }
+                        // удаляем только то, что уже не может совпасть ни с одной стороной
+                        long watermark = Math.min(leftWatermark, rightWatermark);
+                        long horizon = watermark == Long.MIN_VALUE ? Long.MIN_VALUE : watermark - window;
+                        lefts.expire(horizon);
+                        rights.expire(horizon);
+                        ArrayDeque<Timed<K>> matches = other.byKey.get(key);
+                        if (matches != null) {
+                            for (Timed<K> match : matches) {
+                                // элементы старше horizon могли остаться за более свежими в очереди поступления
+                                if (match.time >= horizon && Math.abs(match.time - time) <= window) {
+                                    emit(isLeft ? item : match.item, isLeft ? match.item : item);
+                                }
+                            }
+                        }
+                        if (time >= horizon) {
+                            own.add(new Timed<>(key, item, time));
+                        }
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    synchronized (WindowJoin.this) {
+                        if (done) {
+                            return;
+                        }
+                        done = true;
+                        lefts.clear();
+                        rights.clear();
+                    }
+                    observer.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    synchronized (WindowJoin.this) {
+                        if (done || ++completed < 2) {
+                            return;
+                        }
+                        done = true;
+                        lefts.clear();
+                        rights.clear();
+                    }
+                    observer.onComplete();
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private void emit(Object l, Object r) {
+            observer.onNext(joiner.apply((L) l, (R) r));
+        }
+    }
+
+    /**
+     * Буфер одной стороны: элементы по ключу плюс общая очередь в порядке поступления.
+     * Из обеих структур элементы удаляются только с головы, поэтому голова общей
+     * очереди всегда совпадает с головой очереди своего ключа.
+     */
+    private static final class JoinBuffer<K> {
+        final OpenHashMap<K, ArrayDeque<Timed<K>>> byKey = new OpenHashMap<>();
+        private final ArrayDeque<Timed<K>> arrival = new ArrayDeque<>();
+        private final int capacity;
+
+        JoinBuffer(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void add(Timed<K> entry) {
+            if (arrival.size() >= capacity) {
+                removeHead();
+            }
+            arrival.addLast(entry);
+            ArrayDeque<Timed<K>> queue = byKey.get(entry.key);
+            if (queue == null) {
+                queue = new ArrayDeque<>(4);
+                byKey.put(entry.key, queue);
+            }
+            queue.addLast(entry);
+        }
+
+        /**
+         * Удаляет элементы из головы очереди поступления, пока они старше horizon.
+         * Поздние элементы за более свежими остаются в буфере до вытеснения; в пары
+         * их не пускает проверка horizon при поиске совпадений.
+         */
+        void expire(long horizon) {
+            while (!arrival.isEmpty() && arrival.peekFirst().time < horizon) {
+                removeHead();
+            }
+        }
+
+        void clear() {
+            arrival.clear();
+            byKey.clear();
+        }
+
+        private void removeHead() {
+            Timed<K> head = arrival.pollFirst();
+            ArrayDeque<Timed<K>> queue = byKey.get(head.key);
+            queue.pollFirst();
+            if (queue.isEmpty()) {
+                byKey.remove(head.key);
+            }
+        }
+    }
+
+    private static final class Timed<K> {
+        final K key;
+        final Object item;
+        final long time;
+
+        Timed(K key, Object item, long time) {
+            this.key = key;
+            this.item = item;
+            this.time = time;
+        }
+    }
+}
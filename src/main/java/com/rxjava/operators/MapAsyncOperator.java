@@ -0,0 +1,223 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.schedulers.RxScheduler;
+import com.rxjava.schedulers.RxVirtualThreadScheduler;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Оператор mapAsync: применяет функцию к элементам параллельно, не больше concurrency вызовов сразу.
+ * <p>
+ * Каждый вызов выполняется отдельной задачей в scheduler (по умолчанию на виртуальных потоках),
+ * поэтому функция может блокироваться. Когда concurrency вызовов уже выполняется или ждёт
+ * эмиссии, источник блокируется в onNext. При ordered результаты складываются в кольцевой
+ * буфер переупорядочивания на concurrency ячеек и эмитятся в порядке входа; без ordered —
+ * в порядке готовности. Ошибка функции или источника доставляется после уже готовых результатов.
+ */
+public class MapAsyncOperator {
+
+    /**
+     * @param source      исходный Observable
+     * @param mapper      функция преобразования, может блокироваться
+     * @param concurrency максимальное число одновременных вызовов
+     * @param ordered     сохранять ли порядок элементов
+     * @param <T>         тип исходных элементов
+     * @param <R>         тип результатов
+     * @return Observable результатов
+     */
+    public static <T, R> RxObservable<R> apply(
+            RxObservable<T> source,
+            Function<? super T, ? extends R> mapper,
+            int concurrency,
+            boolean ordered
+    ) {
+        return apply(source, mapper, concurrency, ordered, new RxVirtualThreadScheduler());
+    }
+
+    /**
+     * @param source      исходный Observable
+     * @param mapper      функция преобразования, может блокироваться
+     * @param concurrency максимальное число одновременных вызовов
+     * @param ordered     сохранять ли порядок элементов
+     * @param scheduler   планировщик, в котором выполняются вызовы mapper
+     * @param <T>         тип исходных элементов
+     * @param <R>         тип результатов
+     * @return Observable результатов
+     */
+    public static <T, R> RxObservable<R> apply(
+            RxObservable<T> source,
+            Function<? super T, ? extends R> mapper,
+            int concurrency,
+            boolean ordered,
+            RxScheduler scheduler
+    ) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency должен быть положительным: " + concurrency);
+        }
+        return RxObservable.create((observer, disposable) -> {
+            AsyncMapper<T, R> async = new AsyncMapper<>(observer, disposable, mapper, concurrency, ordered, scheduler);
+            disposable.onDispose(async::cancel);
+            source.subscribe(async, disposable);
+        });
+    }
+
+    private static final class AsyncMapper<T, R> implements RxObserver<T> {
+        private final RxObserver<? super R> downstream;
+        private final RxDisposable disposable;
+        private final Function<? super T, ? extends R> mapper;
+        private final int concurrency;
+        private final boolean ordered;
+        private final RxScheduler scheduler;
+        private final Semaphore permits;
+        private final AtomicReferenceArray<Object> reorder;
+        private final ConcurrentLinkedQueue<Object> ready;
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile long submitted;
+        private volatile boolean done;
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+        private long emitted;
+
+        AsyncMapper(RxObserver<? super R> downstream, RxDisposable disposable,
+                    Function<? super T, ? extends R> mapper, int concurrency, boolean ordered, RxScheduler scheduler) {
+            this.downstream = downstream;
+            this.disposable = disposable;
+            this.mapper = mapper;
+            this.concurrency = concurrency;
+            this.ordered = ordered;
+            this.scheduler = scheduler;
+            this.permits = new Semaphore(concurrency);
+            this.reorder = ordered ? new AtomicReferenceArray<>(concurrency) : null;
+            this.ready = ordered ? null : new ConcurrentLinkedQueue<>();
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done || cancelled || !acquire()) {
+                return;
+            }
+            long seq = submitted;
+            submitted = seq + 1;
+            scheduler.schedule(() -> {
+                Object result;
+                try {
+                    result = mapper.apply(item);
+                    if (result == null) {
+                        result = new ErrorSignal(new NullPointerException("mapper вернул null"));
+                    }
+                } catch (Throwable t) {
+                    result = new ErrorSignal(t);
+                }
+                if (ordered) {
+                    reorder.set((int) (seq % concurrency), result);
+                } else {
+                    ready.offer(result);
+                }
+                drain();
+            });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            error = t;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Ждёт свободную ячейку, но не дольше отмены.
+         */
+        private boolean acquire() {
+            try {
+                while (!cancelled) {
+                    if (permits.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                for (;;) {
+                    if (cancelled) {
+                        return;
+                    }
+                    // done читается раньше submitted: после done счётчик уже не растёт
+                    boolean terminated = done;
+                    Object result;
+                    if (ordered) {
+                        int slot = (int) (emitted % concurrency);
+                        result = reorder.get(slot);
+                        if (result != null) {
+                            reorder.set(slot, null);
+                        }
+                    } else {
+                        result = ready.poll();
+                    }
+                    if (result == null) {
+                        if (terminated && emitted == submitted) {
+                            cancelled = true;
+                            if (error != null) {
+                                downstream.onError(error);
+                            } else {
+                                downstream.onComplete();
+                            }
+                            return;
+                        }
+                        break;
+                    }
+                    if (result instanceof ErrorSignal) {
+                        cancelled = true;
+                        downstream.onError(((ErrorSignal) result).error);
+                        // источник ещё эмитит, а acquire уже отклоняет каждый элемент
+                        disposable.dispose();
+                        return;
+                    }
+                    emitted++;
+                    // ячейка освобождается до onNext, чтобы источник не ждал подписчика
+                    permits.release();
+                    downstream.onNext((R) result);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+
+    private static final class ErrorSignal {
+        final Throwable error;
+
+        ErrorSignal(Throwable error) {
+            this.error = error;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.rxjava.operators;
 
 import com.rxjava.core.RxObservable;
 import com.rxjava.core.RxObserver;
-import com.rxjava.core.RxDisposable;
 
 import java.util.function.Function;
 
@@ -14,8 +13,8 @@ public class MapOperator {
             RxObservable<T> source,
             Function<? super T, ? extends R> mapper
     ) {
-        return RxObservable.create(observer -> {
-            RxDisposable disp = source.subscribe(new RxObserver<T>() {
+        return RxObservable.create((observer, disposable) -> {
+            source.subscribe(new RxObserver<T>() {
                 @Override
                 public void onNext(T item) {
                     observer.onNext(mapper.apply(item));
@@ -28,7 +27,7 @@ public class MapOperator {
                 public void onComplete() {
                     observer.onComplete();
                 }
-            });
+            }, disposable);
         });
     }
 }
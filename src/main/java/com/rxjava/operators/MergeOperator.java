@@ -20,13 +20,16 @@ public class MergeOperator {
      */
     @SafeVarargs
     public static <T> RxObservable<T> apply(RxObservable<? extends T>... sources) {
-        return RxObservable.create(observer -> {
+        return RxObservable.create((observer, disposable) -> {
             RxCompositeDisposable composite = new RxCompositeDisposable();
             AtomicInteger remaining = new AtomicInteger(sources.length);
             ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            disposable.onDispose(composite::dispose);
 
             for (RxObservable<? extends T> src : sources) {
-                RxDisposable disp = src.subscribe(new RxObserver<T>() {
+                RxDisposable disp = new RxDisposable();
+                composite.add(disp);
+                src.subscribe(new RxObserver<T>() {
                     @Override
                     public void onNext(T item) {
                         observer.onNext(item);
@@ -54,9 +57,31 @@ public class MergeOperator {
                             composite.dispose();
                         }
                     }
-                });
-                composite.add(disp);
+                }, disp);
+            }
+        });
+    }
+
+    /**
+     * merge с адаптивным ограничением числа одновременно подписанных источников:
+     * следующий источник подписывается, когда limiter выдаёт слот.
+     *
+     * @param limiter адаптивный ограничитель параллелизма
+     * @param sources массив Observable-источников
+     * @param <T>     тип элементов
+     * @return новый RxObservable<T>, эмитирующий все элементы sources
+     */
+    @SafeVarargs
+    public static <T> RxObservable<T> apply(AdaptiveLimiter limiter, RxObservable<? extends T>... sources) {
+        RxObservable<RxObservable<? extends T>> all = RxObservable.create((observer, disposable) -> {
+            for (RxObservable<? extends T> src : sources) {
+                if (disposable.isDisposed()) {
+                    return;
+                }
+                observer.onNext(src);
             }
+            observer.onComplete();
         });
+        return FlatMapOperator.apply(all, src -> src, limiter);
     }
 }
@@ -0,0 +1,261 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxScheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Оператор mergeSorted: упорядоченное k-путевое слияние заранее отсортированных Observable.
+ * <p>
+ * Каждый источник подписывается в своём потоке планировщика и пишет элементы
+ * в собственный буфер предвыборки. Поток подписчика держит min-кучу
+ * из «голов» источников и эмитит наименьший элемент только тогда, когда каждый
+ * живой источник либо выставил элемент, либо завершился. Потребление памяти —
+ * O(k × prefetch) вместо O(общего числа элементов).
+ * <p>
+ * Источник ждёт места в полном буфере, только когда подписаны все источники. Пока какой-то
+ * из них ещё ждёт потока планировщика, блокировка могла бы навсегда занять единственный
+ * свободный поток, поэтому излишек копится сверх prefetch. На планировщике с числом потоков
+ * не меньше числа источников граница O(k × prefetch) соблюдается; на RxSingleScheduler или
+ * RxComputationScheduler с меньшим числом потоков слияние не зависает, но первые источники
+ * буферизуются целиком.
+ */
+public class MergeSortedOperator {
+    private static final int DEFAULT_PREFETCH = 16;
+    private static final Object COMPLETE = new Object();
+
+    /**
+     * @param comparator порядок, в котором отсортирован каждый источник
+     * @param sources    отсортированные Observable-источники
+     * @param <T>        тип элементов
+     * @return новый RxObservable<T>, эмитирующий элементы всех sources в глобальном порядке
+     */
+    @SafeVarargs
+    public static <T> RxObservable<T> apply(
+            Comparator<? super T> comparator,
+            RxObservable<? extends T>... sources
+    ) {
+        List<RxObservable<? extends T>> list = new ArrayList<>(sources.length);
+        for (RxObservable<? extends T> source : sources) {
+            list.add(source);
+        }
+        return merge(comparator, DEFAULT_PREFETCH, new RxIOScheduler(), list);
+    }
+
+    /**
+     * @param comparator порядок, в котором отсортирован каждый источник
+     * @param prefetch   размер буфера предвыборки на один источник
+     * @param scheduler  планировщик, в котором подписываются источники (по задаче на источник)
+     * @param sources    отсортированные Observable-источники
+     * @param <T>        тип элементов
+     * @return новый RxObservable<T>, эмитирующий элементы всех sources в глобальном порядке
+     */
+    @SafeVarargs
+    public static <T> RxObservable<T> apply(
+            Comparator<? super T> comparator,
+            int prefetch,
+            RxScheduler scheduler,
+            RxObservable<? extends T>... sources
+    ) {
+        List<RxObservable<? extends T>> list = new ArrayList<>(sources.length);
+        for (RxObservable<? extends T> source : sources) {
+            list.add(source);
+        }
+        return merge(comparator, prefetch, scheduler, list);
+    }
+
+    private static <T> RxObservable<T> merge(
+            Comparator<? super T> comparator,
+            int prefetch,
+            RxScheduler scheduler,
+            List<RxObservable<? extends T>> sources
+    ) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch должен быть положительным: " + prefetch);
+        }
+        return RxObservable.create((observer, disposable) -> {
+            AtomicBoolean cancelled = new AtomicBoolean(false);
+            AtomicInteger unstarted = new AtomicInteger(sources.size());
+            List<Buffer> buffers = new ArrayList<>(sources.size());
+            List<RxDisposable> disposables = new ArrayList<>(sources.size());
+            disposable.onDispose(() -> cancelled.set(true));
+
+            for (RxObservable<? extends T> src : sources) {
+                Buffer buffer = new Buffer(prefetch);
+                buffers.add(buffer);
+                RxDisposable disp = new RxDisposable();
+                disposables.add(disp);
+                disposable.onDispose(disp::dispose);
+                scheduler.schedule(() -> {
+                    unstarted.decrementAndGet();
+                    if (disp.isDisposed()) {
+                        return;
+                    }
+                    src.subscribe(new RxObserver<T>() {
+                        @Override
+                        public void onNext(T item) {
+                            buffer.offer(item, unstarted, cancelled);
+                        }
+                        @Override
+                        public void onError(Throwable t) {
+                            buffer.offer(new ErrorSignal(t), unstarted, cancelled);
+                        }
+                        @Override
+                        public void onComplete() {
+                            buffer.offer(COMPLETE, unstarted, cancelled);
+                        }
+                    }, disp);
+                });
+            }
+
+            try {
+                drain(observer, comparator, buffers, cancelled);
+            } finally {
+                cancelled.set(true);
+                for (int i = 0; i < buffers.size(); i++) {
+                    disposables.get(i).dispose();
+                    buffers.get(i).queue.clear();
+                }
+            }
+        });
+    }
+
+    private static <T> void drain(
+            RxObserver<? super T> observer,
+            Comparator<? super T> comparator,
+            List<Buffer> buffers,
+            AtomicBoolean cancelled
+    ) {
+        // при равенстве элементов сохраняем порядок источников — слияние стабильно
+        PriorityQueue<Head<T>> heap = new PriorityQueue<>(Math.max(1, buffers.size()),
+                (a, b) -> {
+                    int c = comparator.compare(a.item, b.item);
+                    return c != 0 ? c : Integer.compare(a.index, b.index);
+                });
+        try {
+            for (int i = 0; i < buffers.size(); i++) {
+                if (!pull(buffers.get(i), i, heap, observer, cancelled)) {
+                    return;
+                }
+            }
+            while (!heap.isEmpty()) {
+                Head<T> head = heap.poll();
+                observer.onNext(head.item);
+                if (!pull(buffers.get(head.index), head.index, heap, observer, cancelled)) {
+                    return;
+                }
+            }
+            observer.onComplete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            observer.onError(e);
+        }
+    }
+
+    /**
+     * Забирает следующий сигнал источника index.
+     *
+     * @return false, если источник завершился ошибкой и поток уже терминирован, или слияние отменено
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> boolean pull(
+            Buffer buffer,
+            int index,
+            PriorityQueue<Head<T>> heap,
+            RxObserver<? super T> observer,
+            AtomicBoolean cancelled
+    ) throws InterruptedException {
+        Object signal;
+        while ((signal = buffer.poll(10, TimeUnit.MILLISECONDS)) == null) {
+            if (cancelled.get()) {
+                return false;
+            }
+        }
+        if (signal == COMPLETE) {
+            return true;
+        }
+        if (signal instanceof ErrorSignal) {
+            observer.onError(((ErrorSignal) signal).error);
+            return false;
+        }
+        heap.add(new Head<>((T) signal, index));
+        return true;
+    }
+
+    /**
+     * Буфер предвыборки одного источника: очередь сигналов и prefetch разрешений на место в ней.
+     * Сигнал, положенный без разрешения, учитывается в overflow и при выборке разрешения не возвращает.
+     */
+    private static final class Buffer {
+        final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        final Semaphore space;
+        final AtomicInteger overflow = new AtomicInteger();
+
+        Buffer(int prefetch) {
+            this.space = new Semaphore(prefetch);
+        }
+
+        void offer(Object signal, AtomicInteger unstarted, AtomicBoolean cancelled) {
+            try {
+                // источник блокируется, пока его буфер полон, но не дольше отмены слияния
+                while (!cancelled.get()) {
+                    if (space.tryAcquire()) {
+                        queue.add(signal);
+                        return;
+                    }
+                    if (unstarted.get() > 0) {
+                        // кто-то из источников ещё ждёт потока планировщика — этот поток не занимаем
+                        overflow.incrementAndGet();
+                        queue.add(signal);
+                        return;
+                    }
+                    if (space.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+                        queue.add(signal);
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Object poll(long timeout, TimeUnit unit) throws InterruptedException {
+            Object signal = queue.poll(timeout, unit);
+            if (signal != null && overflow.getAndUpdate(n -> n > 0 ? n - 1 : 0) == 0) {
+                space.release();
+            }
+            return signal;
+        }
+    }
+
+    private static final class Head<T> {
+        final T item;
+        final int index;
+
+        Head(T item, int index) {
+            this.item = item;
+            this.index = index;
+        }
+    }
+
+    private static final class ErrorSignal {
+        final Throwable error;
+
+        ErrorSignal(Throwable error) {
+            this.error = error;
+        }
+    }
+}
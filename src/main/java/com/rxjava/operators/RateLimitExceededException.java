@@ -0,0 +1,29 @@
+package com.rxjava.operators;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Элемент отклонён ограничителем скорости: ожидание в очереди превысило бы бюджет задержки.
+ */
+public class RateLimitExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long expectedWaitNanos;
+
+    /**
+     * @param expectedWaitNanos ожидание, которое получил бы элемент, нс
+     * @param budgetNanos       допустимое ожидание, нс
+     */
+    public RateLimitExceededException(long expectedWaitNanos, long budgetNanos) {
+        super("Ожидание " + TimeUnit.NANOSECONDS.toMillis(expectedWaitNanos)
+                + " мс превышает бюджет " + TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " мс");
+        this.expectedWaitNanos = expectedWaitNanos;
+    }
+
+    /**
+     * @return ожидание, которое получил бы отклонённый элемент, нс
+     */
+    public long getExpectedWaitNanos() {
+        return expectedWaitNanos;
+    }
+}
@@ -0,0 +1,332 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.core.RxSubscriptionTracker;
+import com.rxjava.schedulers.RxScheduler;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Оператор rateLimit: сглаживает поток корзиной токенов.
+ * <p>
+ * Корзина вмещает burst токенов и пополняется со скоростью permitsPerSecond;
+ * каждый элемент расходует один токен. Пока токены есть, элементы проходят сразу,
+ * в потоке источника. Когда токенов нет, поведение задаёт {@link Mode}; отложенные
+ * элементы выпускает таймер scheduler в момент появления следующего токена.
+ * Время берётся из {@link RxScheduler#now}, поэтому оператор работает и в виртуальном времени.
+ * Завершение и ошибка источника доставляются после отложенных элементов.
+ */
+public class RateLimitOperator {
+
+    /**
+     * Что делать с элементом, для которого нет токена.
+     */
+    public enum Mode {
+        /** Поставить в очередь; когда очередь полна, источник блокируется в onNext. */
+        DELAY,
+        /** Отбросить элемент. */
+        DROP,
+        /** Поставить в очередь; когда очередь полна, отбросить самый старый элемент очереди. */
+        DROP_OLDEST
+    }
+
+    /**
+     * Режим DELAY с очередью без практического ограничения.
+     *
+     * @param source           исходный Observable
+     * @param permitsPerSecond средняя скорость, элементов в секунду
+     * @param burst            ёмкость корзины — сколько элементов может пройти подряд без задержки
+     * @param scheduler        планировщик таймера и отложенной доставки
+     * @param <T>              тип элементов
+     * @return Observable тех же элементов не быстрее permitsPerSecond
+     */
+    public static <T> RxObservable<T> apply(
+            RxObservable<T> source,
+            double permitsPerSecond,
+            int burst,
+            RxScheduler scheduler
+    ) {
+        return apply(source, permitsPerSecond, burst, Mode.DELAY, Integer.MAX_VALUE, scheduler);
+    }
+
+    /**
+     * @param source           исходный Observable
+     * @param permitsPerSecond средняя скорость, элементов в секунду
+     * @param burst            ёмкость корзины
+     * @param mode             поведение при отсутствии токена
+     * @param bufferSize       размер очереди для DELAY и DROP_OLDEST
+     * @param scheduler        планировщик таймера и отложенной доставки
+     * @param <T>              тип элементов
+     * @return Observable элементов не быстрее permitsPerSecond
+     */
+    public static <T> RxObservable<T> apply(
+            RxObservable<T> source,
+            double permitsPerSecond,
+            int burst,
+            Mode mode,
+            int bufferSize,
+            RxScheduler scheduler
+    ) {
+        return limit(source, permitsPerSecond, burst, mode, bufferSize, 0, null, scheduler);
+    }
+
+    /**
+     * Сброс нагрузки: элемент ставится в очередь, только если дождётся своего токена
+     * не дольше maxWait. Иначе поток завершается {@link RateLimitExceededException},
+     * а подписка на source отменяется.
+     *
+     * @param source           исходный Observable
+     * @param permitsPerSecond средняя скорость, элементов в секунду
+     * @param burst            ёмкость корзины
+     * @param maxWait          бюджет ожидания элемента в очереди
+     * @param unit             единица измерения maxWait
+     * @param scheduler        планировщик таймера и отложенной доставки
+     * @param <T>              тип элементов
+     * @return Observable элементов не быстрее permitsPerSecond
+     */
+    public static <T> RxObservable<T> shed(
+            RxObservable<T> source,
+            double permitsPerSecond,
+            int burst,
+            long maxWait,
+            TimeUnit unit,
+            RxScheduler scheduler
+    ) {
+        return shed(source, permitsPerSecond, burst, maxWait, unit, scheduler, null);
+    }
+
+    /**
+     * Сброс нагрузки с продолжением потока: элементы, не укладывающиеся в бюджет,
+     * передаются в onRejected вместе с {@link RateLimitExceededException}, остальные идут дальше.
+     *
+     * @param source           исходный Observable
+     * @param permitsPerSecond средняя скорость, элементов в секунду
+     * @param burst            ёмкость корзины
+     * @param maxWait          бюджет ожидания элемента в очереди
+     * @param unit             единица измерения maxWait
+     * @param scheduler        планировщик таймера и отложенной доставки
+     * @param onRejected       обработчик отклонённых элементов
+     * @param <T>              тип элементов
+     * @return Observable принятых элементов не быстрее permitsPerSecond
+     */
+    public static <T> RxObservable<T> shed(
+            RxObservable<T> source,
+            double permitsPerSecond,
+            int burst,
+            long maxWait,
+            TimeUnit unit,
+            RxScheduler scheduler,
+            BiConsumer<? super T, ? super RateLimitExceededException> onRejected
+    ) {
+        if (maxWait < 0) {
+            throw new IllegalArgumentException("maxWait не может быть отрицательным: " + maxWait);
+        }
+        return limit(source, permitsPerSecond, burst, Mode.DELAY, Integer.MAX_VALUE, unit.toNanos(maxWait),
+                onRejected == null ? RateLimitOperator::fail : onRejected, scheduler);
+    }
+
+    private static <T> RxObservable<T> limit(
+            RxObservable<T> source,
+            double permitsPerSecond,
+            int burst,
+            Mode mode,
+            int bufferSize,
+            long budgetNanos,
+            BiConsumer<? super T, ? super RateLimitExceededException> onRejected,
+            RxScheduler scheduler
+    ) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond должен быть положительным: " + permitsPerSecond);
+        }
+        if (burst <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("burst и bufferSize должны быть положительными: "
+                    + burst + ", " + bufferSize);
+        }
+        return RxObservable.create((observer, disposable) -> {
+            TokenBucket<T> bucket = new TokenBucket<>(observer, disposable, permitsPerSecond, burst, mode,
+                    bufferSize, budgetNanos, onRejected, scheduler);
+            disposable.onDispose(bucket::cancel);
+            RxSubscriptionTracker.retain(disposable, bucket.queue, ArrayDeque::size);
+            source.subscribe(bucket, disposable);
+        });
+    }
+
+    private static void fail(Object item, RateLimitExceededException e) {
+        throw e;
+    }
+
+    /**
+     * Корзина токенов и очередь отложенных элементов. Всё состояние и доставка
+     * элементов — под монитором корзины, поэтому onNext подписчика не вызывается конкурентно.
+     */
+    private static final class TokenBucket<T> implements RxObserver<T> {
+        private final RxObserver<? super T> downstream;
+        private final RxDisposable disposable;
+        private final double tokensPerNano;
+        private final int burst;
+        private final Mode mode;
+        private final int bufferSize;
+        private final long budgetNanos;
+        private final BiConsumer<? super T, ? super RateLimitExceededException> onRejected;
+        private final RxScheduler scheduler;
+        private final ArrayDeque<T> queue = new ArrayDeque<>();
+        private double tokens;
+        private long refilledAt;
+        private boolean timerScheduled;
+        private boolean done;
+        private Throwable error;
+        private boolean terminated;
+
+        TokenBucket(RxObserver<? super T> downstream, RxDisposable disposable, double permitsPerSecond,
+                    int burst, Mode mode, int bufferSize, long budgetNanos,
+                    BiConsumer<? super T, ? super RateLimitExceededException> onRejected, RxScheduler scheduler) {
+            this.downstream = downstream;
+            this.disposable = disposable;
+            this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.burst = burst;
+            this.mode = mode;
+            this.bufferSize = bufferSize;
+            this.budgetNanos = budgetNanos;
+            this.onRejected = onRejected;
+            this.scheduler = scheduler;
+            this.tokens = burst;
+            this.refilledAt = scheduler.now(TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void onNext(T item) {
+            if (done || terminated) {
+                return;
+            }
+            refill();
+            if (queue.isEmpty() && tokens >= 1) {
+                tokens--;
+                downstream.onNext(item);
+                return;
+            }
+            if (onRejected != null) {
+                // элемент встанет за queue.size() элементами и дождётся (queue.size() + 1)-го токена
+                long wait = (long) ((queue.size() + 1 - tokens) / tokensPerNano);
+                if (wait > budgetNanos) {
+                    try {
+                        onRejected.accept(item, new RateLimitExceededException(wait, budgetNanos));
+                    } catch (Throwable t) {
+                        terminate(t);
+                        // источник ещё эмитит: без отмены он работал бы вхолостую
+                        disposable.dispose();
+                    }
+                    return;
+                }
+            }
+            switch (mode) {
+                case DROP:
+                    return;
+                case DROP_OLDEST:
+                    if (queue.size() >= bufferSize) {
+                        queue.pollFirst();
+                    }
+                    break;
+                default:
+                    // источник ждёт, пока таймер не освободит место в очереди
+                    while (queue.size() >= bufferSize && !terminated) {
+                        try {
+                            wait(10);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    if (terminated) {
+                        return;
+                    }
+            }
+            queue.addLast(item);
+            scheduleTimer();
+        }
+
+        @Override
+        public synchronized void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            done = true;
+            error = t;
+            if (queue.isEmpty()) {
+                terminate(t);
+            }
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (queue.isEmpty()) {
+                terminate(null);
+            }
+        }
+
+        synchronized void cancel() {
+            terminated = true;
+            queue.clear();
+            notifyAll();
+        }
+
+        private void refill() {
+            long now = scheduler.now(TimeUnit.NANOSECONDS);
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+
+        private void scheduleTimer() {
+            if (timerScheduled || queue.isEmpty()) {
+                return;
+            }
+            timerScheduled = true;
+            long delay = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            scheduler.schedule(this::release, Math.max(0, delay), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Срабатывание таймера: выпускает элементы, на которые накопились токены.
+         */
+        private synchronized void release() {
+            timerScheduled = false;
+            if (terminated) {
+                return;
+            }
+            refill();
+            while (tokens >= 1 && !queue.isEmpty()) {
+                tokens--;
+                downstream.onNext(queue.pollFirst());
+            }
+            notifyAll();
+            if (queue.isEmpty()) {
+                if (done) {
+                    terminate(error);
+                }
+            } else {
+                scheduleTimer();
+            }
+        }
+
+        private void terminate(Throwable t) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            queue.clear();
+            notifyAll();
+            if (t != null) {
+                downstream.onError(t);
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+}
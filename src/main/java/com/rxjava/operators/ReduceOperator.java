@@ -3,7 +3,6 @@ package com.rxjava.operators;
 
 import com.rxjava.core.RxObservable;
 import com.rxjava.core.RxObserver;
-import com.rxjava.core.RxDisposable;
 
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
@@ -16,9 +15,9 @@ public class ReduceOperator {
             RxObservable<T> source,
             BiFunction<? super T, ? super T, ? extends T> accumulator
     ) {
-        return RxObservable.create(observer -> {
+        return RxObservable.create((observer, disposable) -> {
             AtomicReference<T> acc = new AtomicReference<>();
-            RxDisposable disp = source.subscribe(new RxObserver<T>() {
+            source.subscribe(new RxObserver<T>() {
                 @Override
                 public void onNext(T item) {
                     if (acc.get() == null) {
@@ -39,7 +38,7 @@ public class ReduceOperator {
                     }
                     observer.onComplete();
                 }
-            });
+            }, disposable);
         });
     }
 }
@@ -0,0 +1,447 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.core.RxSubscriptionTracker;
+import com.rxjava.io.RxCodec;
+import com.rxjava.schedulers.RxScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Буфер между быстрым источником и медленным потребителем, сбрасывающий излишек на диск.
+ * <p>
+ * Работает как observeOn: элементы доставляются в scheduler по одному, в исходном порядке.
+ * В памяти держится не больше memoryCapacity элементов; всё, что не помещается,
+ * кодируется {@link RxCodec} и последовательно дописывается во временные файлы.
+ * Когда очередь в памяти пустеет, она пополняется чтением с диска в порядке FIFO.
+ * Прочитанные файлы удаляются сразу, остальные — при завершении или отмене подписки.
+ * Ошибка и завершение источника доставляются после всех буферизованных элементов.
+ * Отмена подписки и ошибка диска отменяют и подписку на источник.
+ */
+public class SpillBufferOperator {
+    private static final Logger log = LoggerFactory.getLogger(SpillBufferOperator.class);
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final long SEGMENT_BYTES = 64L << 20;
+
+    /**
+     * @param source         исходный Observable
+     * @param codec          кодек для элементов, сбрасываемых на диск
+     * @param memoryCapacity максимальное число элементов в памяти
+     * @param scheduler      планировщик доставки элементов потребителю
+     * @param <T>            тип элементов
+     * @return Observable тех же элементов, доставляемых в scheduler
+     */
+    public static <T> RxObservable<T> apply(
+            RxObservable<T> source,
+            RxCodec<T> codec,
+            int memoryCapacity,
+            RxScheduler scheduler
+    ) {
+        return apply(source, codec, memoryCapacity, scheduler,
+                Paths.get(System.getProperty("java.io.tmpdir")), new Stats());
+    }
+
+    /**
+     * @param source         исходный Observable
+     * @param codec          кодек для элементов, сбрасываемых на диск
+     * @param memoryCapacity максимальное число элементов в памяти
+     * @param scheduler      планировщик доставки элементов потребителю
+     * @param spillDir       каталог временных файлов
+     * @param stats          метрики сброса на диск
+     * @param <T>            тип элементов
+     * @return Observable тех же элементов, доставляемых в scheduler
+     */
+    public static <T> RxObservable<T> apply(
+            RxObservable<T> source,
+            RxCodec<T> codec,
+            int memoryCapacity,
+            RxScheduler scheduler,
+            Path spillDir,
+            Stats stats
+    ) {
+        if (memoryCapacity <= 0) {
+            throw new IllegalArgumentException("memoryCapacity должен быть положительным: " + memoryCapacity);
+        }
+        return RxObservable.create((observer, disposable) -> {
+            SpillBuffer<T> buffer = new SpillBuffer<>(
+                    observer, disposable, codec, memoryCapacity, scheduler, spillDir, stats);
+            disposable.onDispose(buffer::cancel);
+            RxSubscriptionTracker.retain(disposable, buffer.memory, ArrayDeque::size);
+            source.subscribe(buffer, disposable);
+        });
+    }
+
+    /**
+     * Метрики буфера: сколько элементов и байт ушло на диск за всё время
+     * и сколько лежит там сейчас.
+     */
+    public static class Stats {
+        private volatile long spilledItems;
+        private volatile long spilledBytes;
+        private volatile long diskItems;
+        private volatile long diskBytes;
+
+        synchronized void spilled(long bytes) {
+            spilledItems++;
+            spilledBytes += bytes;
+            diskItems++;
+            diskBytes += bytes;
+        }
+
+        synchronized void restored(long bytes) {
+            diskItems--;
+            diskBytes -= bytes;
+        }
+
+        synchronized void discarded(long items, long bytes) {
+            diskItems -= items;
+            diskBytes -= bytes;
+        }
+
+        /**
+         * @return число элементов, записанных на диск за всё время
+         */
+        public long getSpilledItems() {
+            return spilledItems;
+        }
+
+        /**
+         * @return число байт, записанных на диск за всё время
+         */
+        public long getSpilledBytes() {
+            return spilledBytes;
+        }
+
+        /**
+         * @return число элементов, ожидающих на диске
+         */
+        public long getDiskItems() {
+            return diskItems;
+        }
+
+        /**
+         * @return объём данных, ожидающих на диске, в байтах
+         */
+        public long getDiskBytes() {
+            return diskBytes;
+        }
+    }
+
+    private static final class SpillBuffer<T> implements RxObserver<T> {
+        private final RxObserver<? super T> downstream;
+        private final RxDisposable disposable;
+        private final int memoryCapacity;
+        private final RxScheduler scheduler;
+        private final ArrayDeque<T> memory = new ArrayDeque<>();
+        private final SpillQueue<T> spill;
+        private final AtomicInteger wip = new AtomicInteger();
+        private boolean done;
+        private Throwable error;
+        private boolean cancelled;
+
+        SpillBuffer(RxObserver<? super T> downstream, RxDisposable disposable, RxCodec<T> codec,
+                    int memoryCapacity, RxScheduler scheduler, Path spillDir, Stats stats) {
+            this.downstream = downstream;
+            this.disposable = disposable;
+            this.memoryCapacity = memoryCapacity;
+            this.scheduler = scheduler;
+            this.spill = new SpillQueue<>(codec, spillDir, stats);
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (this) {
+                if (done || cancelled) {
+                    return;
+                }
+                // пока на диске есть элементы, новые идут за ними — иначе нарушится порядок
+                if (spill.isEmpty() && memory.size() < memoryCapacity) {
+                    memory.add(item);
+                } else {
+                    try {
+                        spill.add(item);
+                    } catch (IOException e) {
+                        done = true;
+                        error = e;
+                    }
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                error = t;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            schedule();
+        }
+
+        void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                memory.clear();
+                spill.close();
+            }
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                scheduler.schedule(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                for (;;) {
+                    T item;
+                    boolean terminated;
+                    Throwable failure;
+                    synchronized (this) {
+                        if (cancelled) {
+                            return;
+                        }
+                        item = memory.poll();
+                        if (item == null && !spill.isEmpty()) {
+                            try {
+                                spill.drainTo(memory, memoryCapacity);
+                            } catch (IOException e) {
+                                cancelled = true;
+                                spill.close();
+                                downstream.onError(e);
+                                disposable.dispose();
+                                return;
+                            }
+                            item = memory.poll();
+                        }
+                        terminated = item == null && done;
+                        failure = error;
+                        if (terminated) {
+                            cancelled = true;
+                            spill.close();
+                        }
+                    }
+                    if (item != null) {
+                        downstream.onNext(item);
+                    } else {
+                        if (terminated) {
+                            if (failure != null) {
+                                downstream.onError(failure);
+                                // ошибкой мог завершиться и сам буфер, а источник ещё эмитит
+                                disposable.dispose();
+                            } else {
+                                downstream.onComplete();
+                            }
+                        }
+                        break;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+
+    /**
+     * Очередь на диске: записи [int длина][данные] во временных файлах-сегментах.
+     * Запись и чтение идут последовательно, через прямые буферы.
+     * Не потокобезопасна — доступ сериализуется владельцем.
+     */
+    private static final class SpillQueue<T> {
+        private final RxCodec<T> codec;
+        private final Path dir;
+        private final Stats stats;
+        private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+        private ByteBuffer writeBuffer;
+        private ByteBuffer readBuffer;
+        private long size;
+        private long bytes;
+
+        SpillQueue(RxCodec<T> codec, Path dir, Stats stats) {
+            this.codec = codec;
+            this.dir = dir;
+            this.stats = stats;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(T item) throws IOException {
+            if (writeBuffer == null) {
+                writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).flip();
+            }
+            int payload = codec.encodedSize(item);
+            int framed = Integer.BYTES + payload;
+            Segment tail = segments.peekLast();
+            if (tail == null || tail.written + writeBuffer.position() >= SEGMENT_BYTES) {
+                flushWrites();
+                tail = new Segment(Files.createTempFile(dir, "rx-spill-", ".bin"));
+                segments.addLast(tail);
+                log.debug("Буфер сбрасывается на диск: {}", tail.path);
+            }
+            if (framed > writeBuffer.remaining()) {
+                flushWrites();
+            }
+            if (framed > writeBuffer.capacity()) {
+                ByteBuffer large = ByteBuffer.allocate(framed);
+                large.putInt(payload);
+                codec.encode(item, large);
+                large.flip();
+                tail.write(large);
+            } else {
+                writeBuffer.putInt(payload);
+                codec.encode(item, writeBuffer);
+            }
+            tail.items++;
+            size++;
+            bytes += framed;
+            stats.spilled(framed);
+        }
+
+        /**
+         * Переносит до max элементов с диска в target.
+         */
+        void drainTo(ArrayDeque<T> target, int max) throws IOException {
+            for (int i = 0; i < max && size > 0; i++) {
+                target.add(poll());
+            }
+        }
+
+        private T poll() throws IOException {
+            Segment head = segments.peekFirst();
+            if (head == segments.peekLast() && writeBuffer.position() > 0) {
+                flushWrites();
+            }
+            fill(head, Integer.BYTES);
+            int payload = readBuffer.getInt();
+            T item;
+            if (payload > readBuffer.capacity()) {
+                ByteBuffer large = ByteBuffer.allocate(payload);
+                large.put(readBuffer);
+                head.readFully(large);
+                large.flip();
+                item = codec.decode(large);
+            } else {
+                fill(head, payload);
+                ByteBuffer record = readBuffer.slice(readBuffer.position(), payload);
+                item = codec.decode(record);
+                readBuffer.position(readBuffer.position() + payload);
+            }
+            head.read++;
+            size--;
+            bytes -= Integer.BYTES + payload;
+            stats.restored(Integer.BYTES + payload);
+            if (head.read == head.items && (head != segments.peekLast() || writeBuffer.position() == 0)) {
+                segments.pollFirst();
+                head.delete();
+                readBuffer.clear().flip();
+            }
+            return item;
+        }
+
+        /**
+         * Гарантирует, что в буфере чтения есть хотя бы needed байт.
+         */
+        private void fill(Segment segment, int needed) throws IOException {
+            if (readBuffer.remaining() >= needed) {
+                return;
+            }
+            readBuffer.compact();
+            while (readBuffer.position() < needed) {
+                int n = segment.channel.read(readBuffer, segment.readPosition);
+                if (n <= 0) {
+                    throw new IOException("Неожиданный конец файла буфера " + segment.path);
+                }
+                segment.readPosition += n;
+            }
+            readBuffer.flip();
+        }
+
+        private void flushWrites() throws IOException {
+            Segment tail = segments.peekLast();
+            if (tail != null && writeBuffer.position() > 0) {
+                writeBuffer.flip();
+                tail.write(writeBuffer);
+                writeBuffer.clear();
+            }
+        }
+
+        void close() {
+            for (Segment segment : segments) {
+                segment.delete();
+            }
+            segments.clear();
+            stats.discarded(size, bytes);
+            size = 0;
+            bytes = 0;
+        }
+
+        private static final class Segment {
+            final Path path;
+            final FileChannel channel;
+            long written;
+            long readPosition;
+            long items;
+            long read;
+
+            Segment(Path path) throws IOException {
+                this.path = path;
+                this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+
+            void write(ByteBuffer data) throws IOException {
+                while (data.hasRemaining()) {
+                    written += channel.write(data, written);
+                }
+            }
+
+            void readFully(ByteBuffer target) throws IOException {
+                while (target.hasRemaining()) {
+                    int n = channel.read(target, readPosition);
+                    if (n <= 0) {
+                        throw new IOException("Неожиданный конец файла буфера " + path);
+                    }
+                    readPosition += n;
+                }
+            }
+
+            void delete() {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.warn("Не удалось удалить файл буфера {}", path, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.util.ResourcePool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Оператор using: ресурс на время подписки.
+ * <p>
+ * При подписке resourceSupplier получает ресурс, observableFactory строит по нему Observable,
+ * а disposer освобождает ресурс ровно один раз — при onComplete, onError или отмене подписки,
+ * смотря что произойдёт раньше. При завершении ресурс освобождается до того, как подписчик
+ * получит терминальный сигнал, поэтому следующая подписка из onComplete уже может его переиспользовать.
+ * Отмена доходит до ресурса через цепочку RxDisposable операторов над using.
+ */
+public class UsingOperator {
+    private static final Logger log = LoggerFactory.getLogger(UsingOperator.class);
+
+    /**
+     * @param resourceSupplier  получает ресурс при каждой подписке
+     * @param observableFactory строит Observable, работающий с ресурсом
+     * @param disposer          освобождает ресурс
+     * @param <T>               тип элементов
+     * @param <R>               тип ресурса
+     * @return Observable, владеющий ресурсом на время подписки
+     */
+    public static <T, R> RxObservable<T> apply(
+            Callable<? extends R> resourceSupplier,
+            Function<? super R, ? extends RxObservable<? extends T>> observableFactory,
+            Consumer<? super R> disposer
+    ) {
+        return RxObservable.create((observer, disposable) -> {
+            R resource;
+            try {
+                resource = resourceSupplier.call();
+            } catch (Throwable t) {
+                observer.onError(t);
+                return;
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    try {
+                        disposer.accept(resource);
+                    } catch (Throwable t) {
+                        log.warn("Ошибка при освобождении ресурса", t);
+                    }
+                }
+            };
+            disposable.onDispose(release);
+            if (disposable.isDisposed()) {
+                return;
+            }
+            RxObservable<? extends T> source;
+            try {
+                source = observableFactory.apply(resource);
+            } catch (Throwable t) {
+                release.run();
+                observer.onError(t);
+                return;
+            }
+            source.subscribe(new RxObserver<T>() {
+                @Override
+                public void onNext(T item) {
+                    observer.onNext(item);
+                }
+                @Override
+                public void onError(Throwable t) {
+                    release.run();
+                    observer.onError(t);
+                }
+                @Override
+                public void onComplete() {
+                    release.run();
+                    observer.onComplete();
+                }
+            }, disposable);
+        });
+    }
+
+    /**
+     * using с ресурсом из пула: при подписке ресурс арендуется, при завершении или отмене возвращается.
+     * Подписка ждёт свободный ресурс не дольше timeout, иначе поток завершается TimeoutException.
+     *
+     * @param pool              пул ресурсов
+     * @param timeout           сколько ждать свободный ресурс
+     * @param unit              единица измерения timeout
+     * @param observableFactory строит Observable, работающий с ресурсом
+     * @param <T>               тип элементов
+     * @param <R>               тип ресурса
+     * @return Observable, арендующий ресурс на время подписки
+     */
+    public static <T, R> RxObservable<T> apply(
+            ResourcePool<R> pool,
+            long timeout,
+            TimeUnit unit,
+            Function<? super R, ? extends RxObservable<? extends T>> observableFactory
+    ) {
+        return apply(() -> pool.acquire(timeout, unit),
+                lease -> observableFactory.apply(lease.get()),
+                ResourcePool.Lease::release);
+    }
+}
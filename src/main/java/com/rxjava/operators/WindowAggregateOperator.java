@@ -0,0 +1,637 @@
+package com.rxjava.operators;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.util.LongHistogram;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Скользящие и тумблинг-окна с инкрементальной агрегацией.
+ * <p>
+ * Время элемента задаёт timestamp (мс); окно длиной window сдвигается на slide
+ * (slide == window — тумблинг-окно, window должен делиться на slide).
+ * Элементы предагрегируются в панели длиной slide, окно — это последние window / slide панелей.
+ * Когда приходит элемент следующей панели, текущая панель закрывается и эмитится
+ * {@link Result} окна, заканчивающегося на её границе; по завершении источника
+ * эмитится окно с последней, неполной панелью. Стоимость сдвига не зависит от длины окна:
+ * <ul>
+ *     <li>{@link #sum} и счётчик — вычитание вытесняемой панели;</li>
+ *     <li>{@link #max}, {@link #min} и {@link #aggregate} — очередь на двух стеках,
+ *     O(1) амортизированно для любой ассоциативной функции;</li>
+ *     <li>{@link #percentile} — гистограмма окна, из которой вычитается гистограмма панели.</li>
+ * </ul>
+ * Состояние панелей числовых агрегатов хранится в примитивных массивах.
+ * Элемент с меткой раньше текущей панели учитывается в текущей панели.
+ * Если между элементами пропущено больше панелей, чем в окне, эмитятся
+ * window / slide окон, после чего окно перескакивает к новой панели.
+ */
+public class WindowAggregateOperator {
+    private static final int MAX_PANES = 1 << 20;
+
+    /**
+     * Значение окна.
+     *
+     * @param <V> тип агрегата
+     */
+    public static final class Result<V> {
+        private final long start;
+        private final long end;
+        private final long count;
+        private final V value;
+
+        Result(long start, long end, long count, V value) {
+            this.start = start;
+            this.end = end;
+            this.count = count;
+            this.value = value;
+        }
+
+        /**
+         * @return начало окна, мс (включительно)
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * @return конец окна, мс (не включительно)
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        /**
+         * @return число элементов в окне
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return агрегат окна; для пустого окна max, min и percentile — null
+         */
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ") count=" + count + " value=" + value;
+        }
+    }
+
+    /**
+     * @param source    исходный Observable
+     * @param value     числовое значение элемента
+     * @param timestamp время элемента
+     * @param window    длина окна
+     * @param slide     шаг окна
+     * @param unit      единица измерения window и slide
+     * @param <T>       тип элементов
+     * @return Observable сумм окон
+     */
+    public static <T> RxObservable<Result<Long>> sum(
+            RxObservable<T> source,
+            ToLongFunction<? super T> value,
+            ToLongFunction<? super T> timestamp,
+            long window,
+            long slide,
+            TimeUnit unit
+    ) {
+        return windows(source, timestamp, window, slide, unit, panes -> new SumState<>(panes, value));
+    }
+
+    /**
+     * @return Observable максимумов окон
+     * @see #sum
+     */
+    public static <T> RxObservable<Result<Long>> max(
+            RxObservable<T> source,
+            ToLongFunction<? super T> value,
+            ToLongFunction<? super T> timestamp,
+            long window,
+            long slide,
+            TimeUnit unit
+    ) {
+        return windows(source, timestamp, window, slide, unit,
+                panes -> new LongTwoStackState<>(panes, value, Math::max, Long.MIN_VALUE));
+    }
+
+    /**
+     * @return Observable минимумов окон
+     * @see #sum
+     */
+    public static <T> RxObservable<Result<Long>> min(
+            RxObservable<T> source,
+            ToLongFunction<? super T> value,
+            ToLongFunction<? super T> timestamp,
+            long window,
+            long slide,
+            TimeUnit unit
+    ) {
+        return windows(source, timestamp, window, slide, unit,
+                panes -> new LongTwoStackState<>(panes, value, Math::min, Long.MAX_VALUE));
+    }
+
+    /**
+     * @param source                исходный Observable
+     * @param value                 неотрицательное значение элемента
+     * @param timestamp             время элемента
+     * @param window                длина окна
+     * @param slide                 шаг окна
+     * @param unit                  единица измерения window и slide
+     * @param percentile            перцентиль от 0 до 100
+     * @param highestTrackableValue наибольшее различимое значение, см. {@link LongHistogram}
+     * @param <T>                   тип элементов
+     * @return Observable перцентилей окон с относительной погрешностью ~1,6%
+     */
+    public static <T> RxObservable<Result<Long>> percentile(
+            RxObservable<T> source,
+            ToLongFunction<? super T> value,
+            ToLongFunction<? super T> timestamp,
+            long window,
+            long slide,
+            TimeUnit unit,
+            double percentile,
+            long highestTrackableValue
+    ) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile должен быть от 0 до 100: " + percentile);
+        }
+        return windows(source, timestamp, window, slide, unit,
+                panes -> new HistogramState<>(panes, value, percentile, highestTrackableValue));
+    }
+
+    /**
+     * Произвольная ассоциативная агрегация на очереди из двух стеков.
+     *
+     * @param source      исходный Observable
+     * @param timestamp   время элемента
+     * @param window      длина окна
+     * @param slide       шаг окна
+     * @param unit        единица измерения window и slide
+     * @param identity    нейтральный элемент combiner, агрегат пустой панели
+     * @param accumulator добавление элемента к агрегату панели; возвращает новый агрегат, аргумент не изменяет
+     * @param combiner    ассоциативное объединение агрегатов; аргументы не изменяет
+     * @param <T>         тип элементов
+     * @param <A>         тип агрегата
+     * @return Observable агрегатов окон
+     */
+    public static <T, A> RxObservable<Result<A>> aggregate(
+            RxObservable<T> source,
+            ToLongFunction<? super T> timestamp,
+            long window,
+            long slide,
+            TimeUnit unit,
+            A identity,
+            BiFunction<A, ? super T, A> accumulator,
+            BinaryOperator<A> combiner
+    ) {
+        return windows(source, timestamp, window, slide, unit,
+                panes -> new TwoStackState<>(panes, identity, accumulator, combiner));
+    }
+
+    private static <T, V> RxObservable<Result<V>> windows(
+            RxObservable<T> source,
+            ToLongFunction<? super T> timestamp,
+            long window,
+            long slide,
+            TimeUnit unit,
+            StateFactory<T, V> factory
+    ) {
+        long windowMillis = unit.toMillis(window);
+        long slideMillis = unit.toMillis(slide);
+        if (slideMillis <= 0 || windowMillis < slideMillis || windowMillis % slideMillis != 0) {
+            throw new IllegalArgumentException("window должен быть кратен положительному slide: "
+                    + window + ", " + slide + " " + unit);
+        }
+        if (windowMillis / slideMillis > MAX_PANES) {
+            throw new IllegalArgumentException("Слишком много панелей в окне: " + windowMillis / slideMillis);
+        }
+        int panes = (int) (windowMillis / slideMillis);
+        return RxObservable.create((observer, disposable) ->
+                source.subscribe(new Windower<>(observer, timestamp, slideMillis, panes, factory.create(panes)),
+                        disposable));
+    }
+
+    private interface StateFactory<T, V> {
+        WindowState<T, V> create(int panes);
+    }
+
+    /**
+     * Делит время на панели и двигает окно.
+     */
+    private static final class Windower<T, V> implements RxObserver<T> {
+        private final RxObserver<? super Result<V>> downstream;
+        private final ToLongFunction<? super T> timestamp;
+        private final long paneMillis;
+        private final int panes;
+        private final WindowState<T, V> state;
+        private final long[] paneCounts;
+        private int head;
+        private long windowCount;
+        private long openCount;
+        private long currentPane;
+        private boolean started;
+        private boolean done;
+
+        Windower(RxObserver<? super Result<V>> downstream, ToLongFunction<? super T> timestamp,
+                 long paneMillis, int panes, WindowState<T, V> state) {
+            this.downstream = downstream;
+            this.timestamp = timestamp;
+            this.paneMillis = paneMillis;
+            this.panes = panes;
+            this.state = state;
+            this.paneCounts = new long[panes];
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            try {
+                long pane = Math.floorDiv(timestamp.applyAsLong(item), paneMillis);
+                if (!started) {
+                    started = true;
+                    currentPane = pane;
+                } else if (pane > currentPane) {
+                    advance(pane);
+                }
+                state.accumulate(item);
+                openCount++;
+            } catch (Throwable t) {
+                onError(t);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (started) {
+                closePane();
+            }
+            downstream.onComplete();
+        }
+
+        private void advance(long target) {
+            long steps = Math.min(target - currentPane, panes);
+            for (long i = 0; i < steps; i++) {
+                closePane();
+            }
+            if (currentPane < target) {
+                // разрыв длиннее окна: все панели окна пусты
+                state.reset();
+                Arrays.fill(paneCounts, 0);
+                windowCount = 0;
+                currentPane = target;
+            }
+        }
+
+        /**
+         * Закрывает текущую панель, вытесняя самую старую, и эмитит окно.
+         */
+        private void closePane() {
+            if (state.size() == panes) {
+                state.evict();
+                windowCount -= paneCounts[head];
+            }
+            state.push();
+            paneCounts[head] = openCount;
+            head = (head + 1) % panes;
+            windowCount += openCount;
+            openCount = 0;
+            long end = (currentPane + 1) * paneMillis;
+            currentPane++;
+            downstream.onNext(new Result<>(end - panes * paneMillis, end, windowCount,
+                    windowCount == 0 ? state.emptyValue() : state.value()));
+        }
+    }
+
+    /**
+     * Агрегат окна из закрытых панелей и одной открытой.
+     */
+    private interface WindowState<T, V> {
+        void accumulate(T item);
+
+        /** Закрывает открытую панель и добавляет её в окно. */
+        void push();
+
+        /** Убирает из окна самую старую панель. */
+        void evict();
+
+        /** @return число закрытых панелей в окне */
+        int size();
+
+        V value();
+
+        V emptyValue();
+
+        void reset();
+    }
+
+    /**
+     * Сумма с вычитанием вытесняемой панели.
+     */
+    private static final class SumState<T> implements WindowState<T, Long> {
+        private final ToLongFunction<? super T> value;
+        private final long[] paneSums;
+        private int head;
+        private int size;
+        private long open;
+        private long sum;
+
+        SumState(int panes, ToLongFunction<? super T> value) {
+            this.value = value;
+            this.paneSums = new long[panes];
+        }
+
+        @Override
+        public void accumulate(T item) {
+            open += value.applyAsLong(item);
+        }
+
+        @Override
+        public void push() {
+            paneSums[(head + size) % paneSums.length] = open;
+            size++;
+            sum += open;
+            open = 0;
+        }
+
+        @Override
+        public void evict() {
+            sum -= paneSums[head];
+            head = (head + 1) % paneSums.length;
+            size--;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Long value() {
+            return sum;
+        }
+
+        @Override
+        public Long emptyValue() {
+            return 0L;
+        }
+
+        @Override
+        public void reset() {
+            head = 0;
+            size = 0;
+            sum = 0;
+        }
+    }
+
+    /**
+     * Очередь на двух стеках для long. В задний стек панели добавляются с накопленным
+     * агрегатом; когда передний стек пуст, задний перекладывается в него с суффиксными
+     * агрегатами. Каждая панель перекладывается один раз, поэтому сдвиг — O(1) амортизированно.
+     */
+    private static final class LongTwoStackState<T> implements WindowState<T, Long> {
+        private final ToLongFunction<? super T> value;
+        private final LongBinaryOperator combiner;
+        private final long identity;
+        private final long[] back;
+        private final long[] front;
+        private int backSize;
+        private int frontSize;
+        private long backAggregate;
+        private long open;
+
+        LongTwoStackState(int panes, ToLongFunction<? super T> value, LongBinaryOperator combiner, long identity) {
+            this.value = value;
+            this.combiner = combiner;
+            this.identity = identity;
+            this.back = new long[panes];
+            this.front = new long[panes];
+            this.backAggregate = identity;
+            this.open = identity;
+        }
+
+        @Override
+        public void accumulate(T item) {
+            open = combiner.applyAsLong(open, value.applyAsLong(item));
+        }
+
+        @Override
+        public void push() {
+            back[backSize++] = open;
+            backAggregate = combiner.applyAsLong(backAggregate, open);
+            open = identity;
+        }
+
+        @Override
+        public void evict() {
+            if (frontSize == 0) {
+                // front[i] — агрегат панелей от i-й с конца переднего стека до самой новой из перенесённых
+                long aggregate = identity;
+                for (int i = backSize - 1; i >= 0; i--) {
+                    aggregate = combiner.applyAsLong(back[i], aggregate);
+                    front[frontSize++] = aggregate;
+                }
+                backSize = 0;
+                backAggregate = identity;
+            }
+            frontSize--;
+        }
+
+        @Override
+        public int size() {
+            return backSize + frontSize;
+        }
+
+        @Override
+        public Long value() {
+            long frontAggregate = frontSize == 0 ? identity : front[frontSize - 1];
+            return combiner.applyAsLong(frontAggregate, backAggregate);
+        }
+
+        @Override
+        public Long emptyValue() {
+            return null;
+        }
+
+        @Override
+        public void reset() {
+            backSize = 0;
+            frontSize = 0;
+            backAggregate = identity;
+        }
+    }
+
+    /**
+     * Очередь на двух стеках для произвольного ассоциативного агрегата.
+     */
+    private static final class TwoStackState<T, A> implements WindowState<T, A> {
+        private final A identity;
+        private final BiFunction<A, ? super T, A> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Object[] back;
+        private final Object[] front;
+        private int backSize;
+        private int frontSize;
+        private A backAggregate;
+        private A open;
+
+        TwoStackState(int panes, A identity, BiFunction<A, ? super T, A> accumulator, BinaryOperator<A> combiner) {
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.back = new Object[panes];
+            this.front = new Object[panes];
+            this.backAggregate = identity;
+            this.open = identity;
+        }
+
+        @Override
+        public void accumulate(T item) {
+            open = accumulator.apply(open, item);
+        }
+
+        @Override
+        public void push() {
+            back[backSize++] = open;
+            backAggregate = combiner.apply(backAggregate, open);
+            open = identity;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void evict() {
+            if (frontSize == 0) {
+                A aggregate = identity;
+                for (int i = backSize - 1; i >= 0; i--) {
+                    aggregate = combiner.apply((A) back[i], aggregate);
+                    back[i] = null;
+                    front[frontSize++] = aggregate;
+                }
+                backSize = 0;
+                backAggregate = identity;
+            }
+            front[--frontSize] = null;
+        }
+
+        @Override
+        public int size() {
+            return backSize + frontSize;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public A value() {
+            A frontAggregate = frontSize == 0 ? identity : (A) front[frontSize - 1];
+            return combiner.apply(frontAggregate, backAggregate);
+        }
+
+        @Override
+        public A emptyValue() {
+            return identity;
+        }
+
+        @Override
+        public void reset() {
+            Arrays.fill(back, 0, backSize, null);
+            Arrays.fill(front, 0, frontSize, null);
+            backSize = 0;
+            frontSize = 0;
+            backAggregate = identity;
+        }
+    }
+
+    /**
+     * Гистограмма окна с вычитанием гистограммы вытесняемой панели.
+     * Гистограммы панелей переиспользуются по кругу; ячеек на одну больше, чем панелей в окне,
+     * чтобы открытая панель не совпала с самой старой закрытой.
+     */
+    private static final class HistogramState<T> implements WindowState<T, Long> {
+        private final ToLongFunction<? super T> value;
+        private final double percentile;
+        private final LongHistogram[] paneHistograms;
+        private final LongHistogram window;
+        private int head;
+        private int size;
+        private LongHistogram open;
+
+        HistogramState(int panes, ToLongFunction<? super T> value, double percentile, long highestTrackableValue) {
+            this.value = value;
+            this.percentile = percentile;
+            this.paneHistograms = new LongHistogram[panes + 1];
+            for (int i = 0; i <= panes; i++) {
+                paneHistograms[i] = new LongHistogram(highestTrackableValue);
+            }
+            this.window = new LongHistogram(highestTrackableValue);
+            this.open = paneHistograms[0];
+        }
+
+        @Override
+        public void accumulate(T item) {
+            open.record(value.applyAsLong(item));
+        }
+
+        @Override
+        public void push() {
+            window.add(open);
+            size++;
+            open = paneHistograms[(head + size) % paneHistograms.length];
+            open.reset();
+        }
+
+        @Override
+        public void evict() {
+            window.subtract(paneHistograms[head]);
+            head = (head + 1) % paneHistograms.length;
+            size--;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Long value() {
+            return window.valueAtPercentile(percentile);
+        }
+
+        @Override
+        public Long emptyValue() {
+            return null;
+        }
+
+        @Override
+        public void reset() {
+            for (LongHistogram histogram : paneHistograms) {
+                histogram.reset();
+            }
+            window.reset();
+            head = 0;
+            size = 0;
+            open = paneHistograms[0];
+        }
+    }
+}
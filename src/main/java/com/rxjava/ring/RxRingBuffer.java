@@ -0,0 +1,252 @@
+package com.rxjava.ring;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxScheduler;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Источник на кольцевом буфере заранее созданных изменяемых событий.
+ * <p>
+ * Издатели (их может быть несколько) захватывают слот через {@link #next()}, заполняют
+ * событие {@link #get(long)} на месте и публикуют номер {@link #publish(long)}; удобнее —
+ * {@link #publishEvent(BiConsumer, Object)}. Каждый подписчик {@link #observe()} читает слоты
+ * по порядку в своей задаче планировщика и ждёт новых событий по {@link RxWaitStrategy}.
+ * Слот переиспользуется, когда его прошли все подписчики; если буфер полон, издатель ждёт
+ * самого медленного из них. В установившемся режиме ни публикация, ни доставка не выделяют память.
+ * <p>
+ * Событие действительно только внутри onNext: после возврата слот может быть перезаписан,
+ * поэтому подписчик копирует из него всё, что хочет сохранить.
+ * Подписчик получает события, захваченные после подписки.
+ *
+ * @param <E> тип события
+ */
+public class RxRingBuffer<E> {
+    private final Object[] entries;
+    private final int mask;
+    private final int indexShift;
+    private final RxWaitStrategy waitStrategy;
+    /** Наибольший захваченный номер. */
+    private final AtomicLong claimed = new AtomicLong(-1);
+    /** Номер круга, на котором опубликован слот; -1 — ещё ни разу. */
+    private final AtomicIntegerArray published;
+    /** Позиции подписчиков; массив заменяется целиком, чтобы издатель обходил его без выделения памяти. */
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0];
+    private volatile long gatingCache = -1;
+    private volatile long terminalSequence = Long.MAX_VALUE;
+    private volatile Throwable error;
+
+    /**
+     * @param factory      создаёт события при заполнении буфера
+     * @param size         число слотов, степень двойки
+     * @param waitStrategy стратегия ожидания подписчиков и издателей
+     */
+    public RxRingBuffer(Supplier<? extends E> factory, int size, RxWaitStrategy waitStrategy) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size должен быть степенью двойки: " + size);
+        }
+        this.entries = new Object[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = factory.get();
+        }
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.waitStrategy = waitStrategy;
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Захватывает следующий слот, ожидая, пока его не освободят все подписчики.
+     *
+     * @return номер слота
+     */
+    public long next() {
+        if (terminalSequence != Long.MAX_VALUE) {
+            throw new IllegalStateException("Буфер уже завершён");
+        }
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > gatingCache) {
+            int attempt = 0;
+            long minimum;
+            while (wrapPoint > (minimum = minimumGatingSequence(sequence - 1))) {
+                waitStrategy.idle(attempt++);
+            }
+            gatingCache = minimum;
+        }
+        return sequence;
+    }
+
+    /**
+     * @param sequence номер слота
+     * @return событие слота
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    /**
+     * Делает заполненный слот видимым подписчикам.
+     */
+    public void publish(long sequence) {
+        published.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+    }
+
+    /**
+     * Захватывает слот, заполняет событие translator и публикует его.
+     * Без захватывающей лямбды вызов не выделяет память.
+     *
+     * @param translator заполняет событие по аргументу
+     * @param argument   аргумент translator
+     * @param <A>        тип аргумента
+     */
+    public <A> void publishEvent(BiConsumer<? super E, ? super A> translator, A argument) {
+        long sequence = next();
+        try {
+            translator.accept(get(sequence), argument);
+        } finally {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Завершает поток после уже захваченных событий. Вызывается, когда издатели закончили публикацию.
+     */
+    public void complete() {
+        terminalSequence = claimed.get();
+    }
+
+    /**
+     * Завершает поток ошибкой после уже захваченных событий.
+     */
+    public void error(Throwable t) {
+        error = t;
+        terminalSequence = claimed.get();
+    }
+
+    /**
+     * @return число слотов
+     */
+    public int getBufferSize() {
+        return entries.length;
+    }
+
+    /**
+     * @return число слотов, которые можно захватить без ожидания
+     */
+    public long getRemainingCapacity() {
+        long current = claimed.get();
+        return entries.length - (current - minimumGatingSequence(current));
+    }
+
+    /**
+     * Подписчики читают буфер в задачах {@link RxIOScheduler}.
+     */
+    public RxObservable<E> observe() {
+        return observe(new RxIOScheduler());
+    }
+
+    /**
+     * @param scheduler планировщик, в задаче которого подписчик читает буфер;
+     *                  задача занимает поток до завершения или отмены
+     * @return Observable событий буфера
+     */
+    public RxObservable<E> observe(RxScheduler scheduler) {
+        return RxObservable.create((observer, disposable) -> {
+            // как в Disruptor: сначала регистрация, затем позиция по текущему курсору. Если прочитать
+            // курсор до регистрации, издатель мог успеть обновить gatingCache без нашей позиции
+            // и захватить слот, который подписчик ещё не прочитал. После регистрации любой
+            // gatingCache не больше курсора, прочитанного здесь, и чтение с него безопасно.
+            AtomicLong sequence = new AtomicLong(claimed.get());
+            addGatingSequence(sequence);
+            sequence.set(claimed.get());
+            disposable.onDispose(() -> removeGatingSequence(sequence));
+            scheduler.schedule(() -> {
+                try {
+                    consume(observer, sequence, disposable::isDisposed);
+                } catch (Throwable t) {
+                    observer.onError(t);
+                } finally {
+                    removeGatingSequence(sequence);
+                }
+            });
+        });
+    }
+
+    private void consume(RxObserver<? super E> observer, AtomicLong sequence, BooleanSupplier disposed) {
+        long next = sequence.get() + 1;
+        int attempt = 0;
+        while (!disposed.getAsBoolean()) {
+            // терминальный номер читается раньше публикаций: всё, что до него, уже будет видно
+            long terminal = terminalSequence;
+            long available = highestPublished(next, claimed.get());
+            if (available >= next) {
+                for (long s = next; s <= available; s++) {
+                    observer.onNext(get(s));
+                }
+                sequence.lazySet(available);
+                next = available + 1;
+                attempt = 0;
+            } else if (next > terminal) {
+                if (error != null) {
+                    observer.onError(error);
+                } else {
+                    observer.onComplete();
+                }
+                return;
+            } else {
+                waitStrategy.idle(attempt++);
+            }
+        }
+    }
+
+    /**
+     * @return наибольший номер из [low, high], до которого включительно все слоты опубликованы
+     */
+    private long highestPublished(long low, long high) {
+        for (long s = low; s <= high; s++) {
+            if (published.get((int) s & mask) != (int) (s >>> indexShift)) {
+                return s - 1;
+            }
+        }
+        return high;
+    }
+
+    private synchronized void addGatingSequence(AtomicLong sequence) {
+        AtomicLong[] updated = Arrays.copyOf(gatingSequences, gatingSequences.length + 1);
+        updated[updated.length - 1] = sequence;
+        gatingSequences = updated;
+    }
+
+    private synchronized void removeGatingSequence(AtomicLong sequence) {
+        AtomicLong[] current = gatingSequences;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == sequence) {
+                AtomicLong[] updated = new AtomicLong[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                gatingSequences = updated;
+                return;
+            }
+        }
+    }
+
+    private long minimumGatingSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (AtomicLong sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,49 @@
+package com.rxjava.ring;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Как ждать следующего события кольцевого буфера (и свободного слота — издателю).
+ * Стратегии различаются ценой задержки и загрузкой процессора.
+ */
+public enum RxWaitStrategy {
+    /** Активное ожидание: минимальная задержка, ядро занято полностью. */
+    BUSY_SPIN {
+        @Override
+        void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+    /** Короткое активное ожидание, затем Thread.yield. */
+    YIELD {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+    /** Активное ожидание, yield, затем парковка потока на PARK_NANOS: почти не грузит процессор в простое. */
+    PARK {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (attempt < SPIN_TRIES * 2) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    static final int SPIN_TRIES = 100;
+    static final long PARK_NANOS = 50_000;
+
+    /**
+     * @param attempt номер попытки подряд без результата, начиная с 0
+     */
+    abstract void idle(int attempt);
+}
@@ -14,5 +14,12 @@ public class RxComputationScheduler implements RxScheduler {
     public void schedule(Runnable task) {
         EXEC.submit(task);
     }
+
+    /**
+     * @return число потоков вычислительного пула
+     */
+    public static int parallelism() {
+        return N;
+    }
 }
 
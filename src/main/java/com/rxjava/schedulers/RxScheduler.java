@@ -1,5 +1,7 @@
 package com.rxjava.schedulers;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Интерфейс планировщика задач.
  */
@@ -10,5 +12,31 @@ public interface RxScheduler {
      * @param task Runnable-задание
      */
     void schedule(Runnable task);
-}
 
+    /**
+     * Запланировать выполнение задачи через delay. По умолчанию задержку отсчитывает
+     * общий поток-таймер, а сама задача передаётся в {@link #schedule(Runnable)}.
+     *
+     * @param task  Runnable-задание
+     * @param delay задержка
+     * @param unit  единица измерения задержки
+     */
+    default void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            schedule(task);
+        } else {
+            RxTimer.schedule(() -> schedule(task), delay, unit);
+        }
+    }
+
+    /**
+     * Текущее время планировщика. Операторы, которым нужны интервалы,
+     * берут время отсюда, а не из System.nanoTime.
+     *
+     * @param unit единица измерения
+     * @return монотонное время в unit
+     */
+    default long now(TimeUnit unit) {
+        return unit.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,49 @@
+package com.rxjava.schedulers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Последовательная «полоса» поверх другого планировщика.
+ * <p>
+ * Задачи выполняются строго по одной и в порядке постановки, но в потоках
+ * нижележащего планировщика. Несколько полос над одним RxComputationScheduler
+ * дают независимых исполнителей, между которыми можно распределять работу.
+ */
+public class RxSerialScheduler implements RxScheduler {
+    private final RxScheduler actual;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    /**
+     * @param actual планировщик, в потоках которого выполняются задачи полосы
+     */
+    public RxSerialScheduler(RxScheduler actual) {
+        this.actual = actual;
+    }
+
+    @Override
+    public void schedule(Runnable task) {
+        queue.offer(task);
+        if (wip.getAndIncrement() == 0) {
+            actual.schedule(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            for (int i = 0; i < missed; i++) {
+                Runnable task = queue.poll();
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    Thread currentThread = Thread.currentThread();
+                    currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, t);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.rxjava.schedulers;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планировщик виртуального времени для тестов.
+ * <p>
+ * Задачи не выполняются сами: {@link #schedule(Runnable)} и {@link #schedule(Runnable, long, TimeUnit)}
+ * только ставят их в очередь на момент виртуального времени. Время стоит, пока тест не сдвинет его
+ * через {@link #advanceTimeBy} или {@link #advanceTimeTo}; тогда в вызывающем потоке по порядку
+ * выполняются все задачи, срок которых наступил. {@link #triggerActions()} выполняет задачи,
+ * срок которых уже наступил, не сдвигая время. Задачи с одинаковым сроком выполняются в порядке
+ * постановки, поэтому один и тот же тест всегда видит один и тот же порядок событий,
+ * а операторы со временем проверяются за миллисекунды вместо реальных ожиданий.
+ * <p>
+ * Исключение из задачи пробрасывается вызывающему; оставшиеся задачи остаются в очереди.
+ */
+public class RxTestScheduler implements RxScheduler {
+    private final PriorityQueue<TimedTask> queue = new PriorityQueue<>();
+    private long nowNanos;
+    private long sequence;
+
+    @Override
+    public void schedule(Runnable task) {
+        schedule(task, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void schedule(Runnable task, long delay, TimeUnit unit) {
+        queue.add(new TimedTask(nowNanos + Math.max(0, unit.toNanos(delay)), sequence++, task));
+    }
+
+    @Override
+    public synchronized long now(TimeUnit unit) {
+        return unit.convert(nowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Сдвигает виртуальное время на delay, выполняя по пути все наступившие задачи.
+     * Задача видит в {@link #now} собственный срок, а не конечное время сдвига.
+     *
+     * @param delay на сколько сдвинуть время
+     * @param unit  единица измерения delay
+     */
+    public void advanceTimeBy(long delay, TimeUnit unit) {
+        long target;
+        synchronized (this) {
+            target = nowNanos + unit.toNanos(delay);
+        }
+        advanceTo(target);
+    }
+
+    /**
+     * Переводит виртуальное время в момент time, выполняя по пути все наступившие задачи.
+     * Время назад не идёт: момент в прошлом только выполняет наступившие задачи.
+     *
+     * @param time момент виртуального времени
+     * @param unit единица измерения time
+     */
+    public void advanceTimeTo(long time, TimeUnit unit) {
+        advanceTo(unit.toNanos(time));
+    }
+
+    /**
+     * Выполняет задачи, срок которых наступил, включая поставленные ими же на текущий момент.
+     */
+    public void triggerActions() {
+        long target;
+        synchronized (this) {
+            target = nowNanos;
+        }
+        advanceTo(target);
+    }
+
+    /**
+     * @return число задач в очереди
+     */
+    public synchronized int getQueuedTasks() {
+        return queue.size();
+    }
+
+    private void advanceTo(long target) {
+        for (;;) {
+            TimedTask task;
+            synchronized (this) {
+                TimedTask head = queue.peek();
+                if (head == null || head.time > target) {
+                    nowNanos = Math.max(nowNanos, target);
+                    return;
+                }
+                task = queue.poll();
+                nowNanos = Math.max(nowNanos, task.time);
+            }
+            task.task.run();
+        }
+    }
+
+    private static final class TimedTask implements Comparable<TimedTask> {
+        final long time;
+        final long sequence;
+        final Runnable task;
+
+        TimedTask(long time, long sequence, Runnable task) {
+            this.time = time;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(TimedTask other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rxjava.schedulers;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общий поток-таймер для отложенных задач планировщиков. Сам задачи не выполняет,
+ * только передаёт их в нужный планировщик по истечении задержки.
+ */
+final class RxTimer {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rx-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private RxTimer() {
+    }
+
+    static void schedule(Runnable task, long delay, TimeUnit unit) {
+        TIMER.schedule(task, delay, unit);
+    }
+}
@@ -0,0 +1,17 @@
+package com.rxjava.schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Планировщик на виртуальных потоках: отдельный виртуальный поток на каждую задачу.
+ * Подходит для блокирующих вызовов, число которых ограничивает сам оператор.
+ */
+public class RxVirtualThreadScheduler implements RxScheduler {
+    private static final ExecutorService EXEC = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Override
+    public void schedule(Runnable task) {
+        EXEC.submit(task);
+    }
+}
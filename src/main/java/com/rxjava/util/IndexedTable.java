@@ -0,0 +1,262 @@
+package com.rxjava.util;
+
+import com.rxjava.io.RxCodec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Индексированная таблица «ключ → последнее значение» для состояния join-операторов.
+ * <p>
+ * Индекс — {@link OpenHashMap}, поиск по ключу за O(1). Записи связаны в список
+ * в порядке последнего обновления: при превышении maxSize и по истечении ttl
+ * вытесняется запись, которая дольше всех не обновлялась. Проверка ttl ленивая —
+ * при каждом обращении к таблице, без фонового потока.
+ * <p>
+ * С кодеком значения хранятся вне кучи: кодируются в прямой буфер-арену, а в куче
+ * остаются только ключ и смещение. Место перезаписанных и удалённых значений
+ * освобождается уплотнением арены, когда в ней кончается место.
+ * Методы синхронизированы: таблицу обычно пополняет один поток, а читает другой.
+ *
+ * @param <K> тип ключей
+ * @param <V> тип значений
+ */
+public class IndexedTable<K, V> {
+    /** Заголовок, ключ, значение, смещение, длина, время записи и две ссылки списка. */
+    static final int NODE_BYTES = 48;
+    static final int INITIAL_ARENA = 64 * 1024;
+
+    private final OpenHashMap<K, Node<K, V>> index;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final RxCodec<V> codec;
+    private ByteBuffer arena;
+    private int arenaTop;
+    private long arenaGarbage;
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private long evictions;
+
+    /**
+     * Таблица без ограничений, значения в куче.
+     */
+    public IndexedTable() {
+        this(Integer.MAX_VALUE, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param maxSize максимальное число записей
+     * @param ttl     время жизни записи с момента последнего обновления (0 — без ограничения)
+     * @param unit    единица измерения ttl
+     */
+    public IndexedTable(int maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, unit.toNanos(ttl), System::nanoTime, null);
+    }
+
+    /**
+     * @param maxSize максимальное число записей
+     * @param ttl     время жизни записи с момента последнего обновления (0 — без ограничения)
+     * @param unit    единица измерения ttl
+     * @param codec   кодек, которым значения сохраняются вне кучи
+     */
+    public IndexedTable(int maxSize, long ttl, TimeUnit unit, RxCodec<V> codec) {
+        this(maxSize, unit.toNanos(ttl), System::nanoTime, codec);
+    }
+
+    IndexedTable(int maxSize, long ttlNanos, LongSupplier clock, RxCodec<V> codec) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize должен быть положительным: " + maxSize);
+        }
+        this.index = new OpenHashMap<>(Math.min(maxSize, 1024));
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.codec = codec;
+        if (codec != null) {
+            this.arena = ByteBuffer.allocateDirect(INITIAL_ARENA);
+        }
+    }
+
+    /**
+     * Вставляет или обновляет значение ключа.
+     *
+     * @param key   ключ
+     * @param value новое значение
+     */
+    public synchronized void put(K key, V value) {
+        long now = clock.getAsLong();
+        expire(now);
+        Node<K, V> node = index.get(key);
+        if (node == null) {
+            if (index.size() >= maxSize) {
+                evict(head);
+            }
+            node = new Node<>(key);
+            index.put(key, node);
+        } else {
+            unlink(node);
+        }
+        store(node, value);
+        node.writeTime = now;
+        linkLast(node);
+    }
+
+    /**
+     * @param key ключ
+     * @return true, если ключ был в таблице
+     */
+    public synchronized boolean remove(K key) {
+        expire(clock.getAsLong());
+        Node<K, V> node = index.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        arenaGarbage += node.length;
+        return true;
+    }
+
+    /**
+     * @param key ключ
+     * @return значение или null, если ключа нет или запись устарела
+     */
+    public synchronized V get(K key) {
+        expire(clock.getAsLong());
+        Node<K, V> node = index.get(key);
+        return node == null ? null : load(node);
+    }
+
+    /**
+     * @return число записей
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return число записей, вытесненных по размеру или ttl
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return приблизительный объём в куче: индекс и узлы записей (без ключей и значений в куче)
+     */
+    public synchronized long memoryFootprintBytes() {
+        return index.memoryFootprintBytes() + (long) index.size() * NODE_BYTES;
+    }
+
+    /**
+     * @return размер арены вне кучи в байтах (0 для таблицы без кодека)
+     */
+    public synchronized long offHeapBytes() {
+        return arena == null ? 0 : arena.capacity();
+    }
+
+    private void expire(long now) {
+        if (ttlNanos > 0) {
+            while (head != null && now - head.writeTime > ttlNanos) {
+                evict(head);
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        index.remove(node.key);
+        unlink(node);
+        arenaGarbage += node.length;
+        evictions++;
+    }
+
+    private void store(Node<K, V> node, V value) {
+        if (codec == null) {
+            node.value = value;
+            return;
+        }
+        int size = codec.encodedSize(value);
+        arenaGarbage += node.length;
+        node.length = 0;
+        if (arenaTop + size > arena.capacity()) {
+            compact(size);
+        }
+        ByteBuffer out = arena.duplicate();
+        out.position(arenaTop).limit(arenaTop + size);
+        codec.encode(value, out);
+        node.offset = arenaTop;
+        node.length = size;
+        arenaTop += size;
+    }
+
+    private V load(Node<K, V> node) {
+        if (codec == null) {
+            return node.value;
+        }
+        return codec.decode(arena.slice(node.offset, node.length));
+    }
+
+    /**
+     * Переписывает живые значения в начало новой арены, при необходимости увеличенной вдвое,
+     * чтобы после уплотнения оставалась хотя бы четверть свободного места.
+     */
+    private void compact(int needed) {
+        long live = arenaTop - arenaGarbage;
+        long capacity = arena.capacity();
+        while ((live + needed) * 4 > capacity * 3) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Арена таблицы переполнена: " + (live + needed) + " байт");
+        }
+        ByteBuffer next = ByteBuffer.allocateDirect((int) capacity);
+        for (Node<K, V> node = head; node != null; node = node.next) {
+            int offset = next.position();
+            next.put(arena.slice(node.offset, node.length));
+            node.offset = offset;
+        }
+        arena = next;
+        arenaTop = next.position();
+        arenaGarbage = 0;
+    }
+
+    private void linkLast(Node<K, V> node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = node.next = null;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        int offset;
+        int length;
+        long writeTime;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
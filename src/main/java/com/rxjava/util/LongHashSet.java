@@ -0,0 +1,110 @@
+package com.rxjava.util;
+
+/**
+ * Множество примитивных long с открытой адресацией (линейное пробирование).
+ * <p>
+ * В отличие от HashSet&lt;Long&gt; ключи не упаковываются в объекты: всё состояние —
+ * один массив long[], около 16 байт на ключ при коэффициенте заполнения 0.5.
+ * Значение 0 служит маркером пустого слота и хранится отдельным флагом.
+ * Не потокобезопасно.
+ */
+public class LongHashSet {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] slots;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize ожидаемое число ключей, под которое таблица выделяется сразу
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(OpenHashMap.capacityFor(expectedSize));
+    }
+
+    /**
+     * Добавляет ключ.
+     *
+     * @return true, если ключа ещё не было
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = slots[slot]) != 0) {
+            if (current == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = key;
+        if (++size >= resizeAt) {
+            rehash(slots.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        int slot = mix(key) & mask;
+        long current;
+        while ((current = slots[slot]) != 0) {
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return размер массива слотов в байтах
+     */
+    public long memoryFootprintBytes() {
+        return 8L * slots.length + MemoryEstimates.ARRAY_HEADER_BYTES;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = slots;
+        allocate(newCapacity);
+        for (long key : old) {
+            if (key != 0) {
+                int slot = mix(key) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,177 @@
+package com.rxjava.util;
+
+import java.util.Arrays;
+
+/**
+ * Гистограмма неотрицательных long с логарифмически-линейными корзинами.
+ * <p>
+ * Значения меньше 128 хранятся точно; для больших каждая степень двойки делится
+ * на 64 корзины, поэтому относительная погрешность перцентиля не превышает ~1,6%.
+ * Число корзин зависит только от highestTrackableValue, а не от числа записей,
+ * поэтому сложение и вычитание гистограмм стоят O(число корзин) — это позволяет
+ * держать гистограмму скользящего окна, вычитая из неё вытесняемые панели.
+ * Значения больше highestTrackableValue учитываются в верхней корзине.
+ * Не потокобезопасна.
+ */
+public class LongHistogram {
+    static final int PRECISION_BITS = 7;
+    static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+    static final int HALF = SUB_BUCKETS >> 1;
+
+    private final long highestTrackableValue;
+    private final long[] counts;
+    private long totalCount;
+
+    /**
+     * @param highestTrackableValue наибольшее значение, которое нужно различать
+     */
+    public LongHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < 1) {
+            throw new IllegalArgumentException("highestTrackableValue должен быть положительным: "
+                    + highestTrackableValue);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new long[bucketIndex(highestTrackableValue) + 1];
+    }
+
+    /**
+     * @param value неотрицательное значение
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * @param value неотрицательное значение
+     * @param count сколько раз его учесть
+     */
+    public void record(long value, long count) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Отрицательное значение: " + value);
+        }
+        counts[bucketIndex(Math.min(value, highestTrackableValue))] += count;
+        totalCount += count;
+    }
+
+    /**
+     * Прибавляет записи другой гистограммы с тем же highestTrackableValue.
+     */
+    public void add(LongHistogram other) {
+        checkCompatible(other);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    /**
+     * Вычитает записи другой гистограммы, ранее прибавленные к этой.
+     */
+    public void subtract(LongHistogram other) {
+        checkCompatible(other);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] -= other.counts[i];
+        }
+        totalCount -= other.totalCount;
+    }
+
+    public void reset() {
+        if (totalCount != 0) {
+            Arrays.fill(counts, 0);
+            totalCount = 0;
+        }
+    }
+
+    /**
+     * @return число записей
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @param percentile перцентиль от 0 до 100
+     * @return середина корзины, в которую попадает перцентиль, или 0 для пустой гистограммы
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double p = Math.max(0, Math.min(100, percentile));
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return midpoint(i);
+            }
+        }
+        return midpoint(counts.length - 1);
+    }
+
+    /**
+     * @return верхняя граница корзины наибольшего записанного значения
+     */
+    public long getMaxValue() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] != 0) {
+                return Math.min(highestTrackableValue, lowerBound(i) + bucketWidth(i) - 1);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return среднее по серединам корзин
+     */
+    public double getMean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                sum += (double) midpoint(i) * counts[i];
+            }
+        }
+        return sum / totalCount;
+    }
+
+    /**
+     * @return приблизительный размер массива корзин в байтах
+     */
+    public long memoryFootprintBytes() {
+        return (long) counts.length * Long.BYTES + MemoryEstimates.ARRAY_HEADER_BYTES;
+    }
+
+    private void checkCompatible(LongHistogram other) {
+        if (other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Гистограммы с разными диапазонами");
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - PRECISION_BITS;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) ((value >>> shift) - HALF);
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long mantissa = HALF + (index - SUB_BUCKETS) % HALF;
+        return mantissa << shift;
+    }
+
+    static long bucketWidth(int index) {
+        return index < SUB_BUCKETS ? 1 : 1L << ((index - SUB_BUCKETS) / HALF + 1);
+    }
+
+    private static long midpoint(int index) {
+        return lowerBound(index) + (bucketWidth(index) - 1) / 2;
+    }
+}
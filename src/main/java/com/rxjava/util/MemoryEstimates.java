@@ -0,0 +1,12 @@
+package com.rxjava.util;
+
+/**
+ * Грубые оценки размеров объектов в куче для отчётов о потреблении памяти.
+ */
+final class MemoryEstimates {
+    static final int REFERENCE_BYTES = 4;
+    static final int ARRAY_HEADER_BYTES = 16;
+
+    private MemoryEstimates() {
+    }
+}
@@ -0,0 +1,101 @@
+package com.rxjava.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Фильтр Блума над прямым (off-heap) ByteBuffer.
+ * <p>
+ * Битовый массив не занимает кучу и не сканируется сборщиком мусора. Размер
+ * и число хеш-функций вычисляются по ожидаемой ёмкости и допустимой доле ложных
+ * срабатываний. Позиции битов получаются двойным хешированием одного 64-битного хеша
+ * и отображаются на диапазон умножением вместо деления по модулю.
+ * Не потокобезопасен.
+ */
+public class OffHeapBloomFilter {
+    private final ByteBuffer bits;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    /**
+     * @param capacity          ожидаемое число различных ключей
+     * @param falsePositiveRate допустимая доля ложных срабатываний, (0; 1)
+     */
+    public OffHeapBloomFilter(long capacity, double falsePositiveRate) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity должен быть положительным: " + capacity);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate должен быть в (0; 1): " + falsePositiveRate);
+        }
+        long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long words = Math.max(1, (optimalBits + 63) / 64);
+        if (words * 8 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Фильтр не помещается в один буфер: " + words * 8 + " байт");
+        }
+        this.bitCount = words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        this.bits = ByteBuffer.allocateDirect((int) (words * 8));
+    }
+
+    /**
+     * Добавляет ключ.
+     *
+     * @return true, если ключ точно не встречался раньше (был выставлен хотя бы один новый бит)
+     */
+    public boolean put(long key) {
+        long hash = mix(key);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+        boolean changed = false;
+        for (int i = 1; i <= hashFunctions; i++) {
+            long combined = h1 + i * h2;
+            long bit = Math.unsignedMultiplyHigh(combined, bitCount);
+            int index = (int) (bit >>> 6) << 3;
+            long word = bits.getLong(index);
+            long mask = 1L << bit;
+            if ((word & mask) == 0) {
+                bits.putLong(index, word | mask);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return false, если ключ точно не добавлялся; true — если, возможно, добавлялся
+     */
+    public boolean mightContain(long key) {
+        long hash = mix(key);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 1; i <= hashFunctions; i++) {
+            long combined = h1 + i * h2;
+            long bit = Math.unsignedMultiplyHigh(combined, bitCount);
+            if ((bits.getLong((int) (bit >>> 6) << 3) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * @return размер off-heap буфера в байтах
+     */
+    public long memoryFootprintBytes() {
+        return bits.capacity();
+    }
+
+    /**
+     * Финализатор 64-битного хеша (splitmix64).
+     */
+    static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
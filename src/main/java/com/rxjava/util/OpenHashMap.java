@@ -0,0 +1,198 @@
+package com.rxjava.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Хеш-таблица с открытой адресацией (линейное пробирование) для состояния операторов.
+ * <p>
+ * Ключи и значения лежат в двух плоских массивах, без объекта-узла на каждую запись;
+ * удаление выполняется обратным сдвигом, поэтому «надгробий» не остаётся.
+ * Не потокобезопасна: операторы обращаются к ней из сериализованного onNext.
+ *
+ * @param <K> тип ключей (null не допускается)
+ * @param <V> тип значений
+ */
+public class OpenHashMap<K, V> {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private Object[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public OpenHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize ожидаемое число записей, под которое таблица выделяется сразу
+     */
+    public OpenHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param key ключ
+     * @return значение или null, если ключа нет
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Кладёт значение по ключу.
+     *
+     * @return предыдущее значение или null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        int slot = mix(key.hashCode()) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Удаляет запись по ключу.
+     *
+     * @return удалённое значение или null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V old = (V) values[slot];
+        size--;
+        // обратный сдвиг: подтягиваем записи цепочки пробирования на освободившееся место
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != null) {
+            int home = mix(keys[next].hashCode()) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = null;
+        values[gap] = null;
+        return old;
+    }
+
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Обходит все записи в порядке слотов.
+     *
+     * @param action действие над парой ключ/значение
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return число слотов таблицы
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return приблизительный размер массивов таблицы в байтах (без самих ключей и значений)
+     */
+    public long memoryFootprintBytes() {
+        return 2L * keys.length * MemoryEstimates.REFERENCE_BYTES + 2L * MemoryEstimates.ARRAY_HEADER_BYTES;
+    }
+
+    private int find(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int slot = mix(key.hashCode()) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object k = oldKeys[i];
+            if (k != null) {
+                int slot = mix(k.hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = k;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR) + 1;
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    /**
+     * Перемешивание хеша, чтобы плохие hashCode не собирались в длинные кластеры.
+     */
+    static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,361 @@
+package com.rxjava.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Ограниченный пул дорогих ресурсов: соединений, буферов и т. п.
+ * <p>
+ * {@link #acquire} выдаёт {@link Lease} на свободный ресурс; если свободных нет, а ресурсов
+ * меньше maxSize, создаёт новый, иначе ждёт возврата не дольше timeout. Свободные ресурсы
+ * выдаются в порядке LIFO — последним возвращённым, «тёплым», первым, — и перед выдачей
+ * проверяются validator; не прошедший проверку ресурс уничтожается. Ресурс, простаивающий
+ * дольше idleTimeout, уничтожается. Проверка простоя ленивая — при каждой выдаче и возврате
+ * и в {@link #evictIdle()}, без фонового потока. Создание и уничтожение выполняются вне монитора пула.
+ *
+ * @param <R> тип ресурса
+ */
+public class ResourcePool<R> implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ResourcePool.class);
+
+    private final Callable<? extends R> factory;
+    private final Consumer<? super R> destroyer;
+    private final Predicate<? super R> validator;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+    /** Свободные ресурсы: в голове — последний возвращённый. */
+    private final ArrayDeque<Idle<R>> idle = new ArrayDeque<>();
+    private int size;
+    private int leased;
+    private int waiting;
+    private long created;
+    private long destroyed;
+    private long evicted;
+    private boolean closed;
+
+    /**
+     * @param factory     создаёт ресурс
+     * @param destroyer   освобождает ресурс
+     * @param validator   проверяет свободный ресурс перед выдачей
+     * @param maxSize     максимальное число ресурсов, выданных и свободных
+     * @param idleTimeout сколько свободный ресурс может простаивать (0 — без ограничения)
+     * @param unit        единица измерения idleTimeout
+     */
+    public ResourcePool(
+            Callable<? extends R> factory,
+            Consumer<? super R> destroyer,
+            Predicate<? super R> validator,
+            int maxSize,
+            long idleTimeout,
+            TimeUnit unit
+    ) {
+        this(factory, destroyer, validator, maxSize, unit.toNanos(idleTimeout), System::nanoTime);
+    }
+
+    ResourcePool(
+            Callable<? extends R> factory,
+            Consumer<? super R> destroyer,
+            Predicate<? super R> validator,
+            int maxSize,
+            long idleTimeoutNanos,
+            LongSupplier clock
+    ) {
+        if (maxSize <= 0 || idleTimeoutNanos < 0) {
+            throw new IllegalArgumentException("maxSize должен быть положительным, idleTimeout — неотрицательным: "
+                    + maxSize + ", " + idleTimeoutNanos);
+        }
+        this.factory = factory;
+        this.destroyer = destroyer;
+        this.validator = validator;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Выдаёт ресурс, ожидая не дольше timeout.
+     *
+     * @return аренда ресурса; вернуть её нужно ровно один раз
+     * @throws TimeoutException     если за timeout ресурс не освободился
+     * @throws InterruptedException если ожидание прервано
+     * @throws Exception            если factory не смогла создать ресурс
+     */
+    public Lease<R> acquire(long timeout, TimeUnit unit) throws Exception {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<R> expired = new ArrayList<>();
+        try {
+            for (;;) {
+                Idle<R> candidate;
+                synchronized (this) {
+                    collectExpired(expired);
+                    for (;;) {
+                        if (closed) {
+                            throw new IllegalStateException("Пул закрыт");
+                        }
+                        candidate = idle.pollFirst();
+                        if (candidate != null || size < maxSize) {
+                            break;
+                        }
+                        long left = deadline - System.nanoTime();
+                        if (left <= 0) {
+                            throw new TimeoutException("Нет свободного ресурса за " + unit.toMillis(timeout)
+                                    + " мс, выдано " + leased + " из " + maxSize);
+                        }
+                        waiting++;
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(this, left);
+                        } finally {
+                            waiting--;
+                        }
+                    }
+                    if (candidate == null) {
+                        // место резервируется до создания, чтобы не превысить maxSize
+                        size++;
+                    }
+                    leased++;
+                }
+                if (candidate == null) {
+                    return new Lease<>(this, create());
+                }
+                if (valid(candidate.resource)) {
+                    return new Lease<>(this, candidate.resource);
+                }
+                synchronized (this) {
+                    leased--;
+                    size--;
+                    notifyAll();
+                }
+                destroy(candidate.resource);
+            }
+        } finally {
+            expired.forEach(this::destroy);
+        }
+    }
+
+    /**
+     * Уничтожает ресурсы, простаивающие дольше idleTimeout.
+     *
+     * @return число уничтоженных ресурсов
+     */
+    public int evictIdle() {
+        List<R> expired = new ArrayList<>();
+        synchronized (this) {
+            collectExpired(expired);
+        }
+        expired.forEach(this::destroy);
+        return expired.size();
+    }
+
+    /**
+     * Уничтожает свободные ресурсы; выданные уничтожаются при возврате.
+     */
+    @Override
+    public void close() {
+        List<R> resources = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            for (Idle<R> entry : idle) {
+                resources.add(entry.resource);
+            }
+            size -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        resources.forEach(this::destroy);
+    }
+
+    /**
+     * @return число ресурсов, выданных и свободных
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * @return число свободных ресурсов
+     */
+    public synchronized int getIdle() {
+        return idle.size();
+    }
+
+    /**
+     * @return число выданных ресурсов
+     */
+    public synchronized int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @return число потоков, ждущих ресурс
+     */
+    public synchronized int getWaiting() {
+        return waiting;
+    }
+
+    /**
+     * @return сколько ресурсов создано за всё время
+     */
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return сколько ресурсов уничтожено за всё время
+     */
+    public synchronized long getDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * @return сколько из них уничтожено по простою
+     */
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    private R create() throws Exception {
+        try {
+            R resource = factory.call();
+            synchronized (this) {
+                created++;
+            }
+            return resource;
+        } catch (Throwable t) {
+            synchronized (this) {
+                leased--;
+                size--;
+                notifyAll();
+            }
+            throw t;
+        }
+    }
+
+    private boolean valid(R resource) {
+        try {
+            return validator.test(resource);
+        } catch (Throwable t) {
+            log.warn("Проверка ресурса завершилась ошибкой", t);
+            return false;
+        }
+    }
+
+    private void destroy(R resource) {
+        try {
+            destroyer.accept(resource);
+        } catch (Throwable t) {
+            log.warn("Ошибка при уничтожении ресурса", t);
+        }
+        synchronized (this) {
+            destroyed++;
+        }
+    }
+
+    /**
+     * Вынимает просроченные свободные ресурсы; они в хвосте очереди, так как возвращены раньше всех.
+     */
+    private void collectExpired(List<R> expired) {
+        if (idleTimeoutNanos == 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        for (Iterator<Idle<R>> it = idle.descendingIterator(); it.hasNext(); ) {
+            Idle<R> entry = it.next();
+            if (now - entry.since < idleTimeoutNanos) {
+                break;
+            }
+            it.remove();
+            size--;
+            evicted++;
+            expired.add(entry.resource);
+        }
+    }
+
+    private void release(R resource, boolean broken) {
+        List<R> expired = new ArrayList<>();
+        boolean destroy;
+        synchronized (this) {
+            leased--;
+            destroy = broken || closed;
+            if (destroy) {
+                size--;
+            } else {
+                idle.addFirst(new Idle<>(resource, clock.getAsLong()));
+                collectExpired(expired);
+            }
+            notifyAll();
+        }
+        if (destroy) {
+            destroy(resource);
+        }
+        expired.forEach(this::destroy);
+    }
+
+    /**
+     * Аренда ресурса пула. Закрытие возвращает ресурс в пул.
+     *
+     * @param <R> тип ресурса
+     */
+    public static final class Lease<R> implements AutoCloseable {
+        private final ResourcePool<R> pool;
+        private final R resource;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        Lease(ResourcePool<R> pool, R resource) {
+            this.pool = pool;
+            this.resource = resource;
+        }
+
+        /**
+         * @return арендованный ресурс
+         */
+        public R get() {
+            return resource;
+        }
+
+        /**
+         * Возвращает ресурс в пул. Повторный вызов ничего не делает.
+         */
+        public void release() {
+            if (returned.compareAndSet(false, true)) {
+                pool.release(resource, false);
+            }
+        }
+
+        /**
+         * Уничтожает ресурс вместо возврата, например если соединение оборвалось.
+         */
+        public void invalidate() {
+            if (returned.compareAndSet(false, true)) {
+                pool.release(resource, true);
+            }
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+
+    private static final class Idle<R> {
+        final R resource;
+        final long since;
+
+        Idle(R resource, long since) {
+            this.resource = resource;
+            this.since = since;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.rxjava;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Общие ожидания для многопоточных тестов.
+ */
+public final class TestSupport {
+
+    private TestSupport() {
+    }
+
+    /**
+     * Ждёт защёлку без проверяемого исключения — для лямбд-подписчиков, которые
+     * держат поток эмиссии, пока тест их не отпустит.
+     */
+    public static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Опрашивает условие каждые 10 мс, пока оно не выполнится или не истечёт срок.
+     *
+     * @return true, если условие выполнилось до срока
+     */
+    public static boolean awaitCondition(BooleanSupplier condition, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
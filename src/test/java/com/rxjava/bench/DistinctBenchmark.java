@@ -0,0 +1,72 @@
+package com.rxjava.bench;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.operators.DistinctOperator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнение режимов DistinctOperator на большом числе ключей.
+ * <p>
+ * Запуск (по умолчанию 10 000 000 ключей, каждый третий элемент — повтор):
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass="com.rxjava.bench.DistinctBenchmark" -Dexec.args="10000000"
+ * </pre>
+ * Точный режим по equals хранит упакованные Long в куче, поэтому для него
+ * может понадобиться увеличить -Xmx.
+ */
+public class DistinctBenchmark {
+
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.printf("Ключей: %,d, элементов: %,d%n", keys, keys + keys / 2);
+
+        for (int round = 0; round < 2; round++) {
+            String prefix = round == 0 ? "[прогрев] " : "";
+            DistinctOperator.Stats boxed = new DistinctOperator.Stats();
+            run(prefix + "exact (equals)", DistinctOperator.apply(source(keys), boxed), boxed);
+
+            DistinctOperator.Stats primitive = new DistinctOperator.Stats();
+            run(prefix + "exact (long)", DistinctOperator.apply(source(keys), Long::longValue, primitive), primitive);
+
+            DistinctOperator.Stats bloom = new DistinctOperator.Stats();
+            run(prefix + "bloom 1%", DistinctOperator.approximate(source(keys), Long::longValue, keys, 0.01, bloom), bloom);
+
+            DistinctOperator.Stats bloomStrict = new DistinctOperator.Stats();
+            run(prefix + "bloom 0.1%", DistinctOperator.approximate(source(keys), Long::longValue, keys, 0.001, bloomStrict), bloomStrict);
+        }
+    }
+
+    /**
+     * Ключи 0..keys-1 в перемешанном порядке, после каждого второго — повтор предыдущего.
+     */
+    private static RxObservable<Long> source(int keys) {
+        return RxObservable.create(observer -> {
+            for (int i = 0; i < keys; i++) {
+                long key = (i * 0x9E3779B1L) & 0xFFFFFFFFL;
+                observer.onNext(key);
+                if ((i & 1) == 1) {
+                    observer.onNext(key);
+                }
+            }
+            observer.onComplete();
+        });
+    }
+
+    private static void run(String name, RxObservable<Long> pipeline, DistinctOperator.Stats stats) {
+        System.gc();
+        AtomicLong sink = new AtomicLong();
+        long start = System.nanoTime();
+        pipeline.subscribe(sink::addAndGet);
+        long elapsed = System.nanoTime() - start;
+        long total = stats.getAccepted() + stats.getDropped();
+        System.out.printf("%-22s %8.1f мс  %,12.0f эл/с  принято %,d  отброшено %,d  память %,d КБ%n",
+                name,
+                elapsed / 1e6,
+                total / (elapsed / 1e9),
+                stats.getAccepted(),
+                stats.getDropped(),
+                stats.getMemoryFootprintBytes() / 1024);
+    }
+}
@@ -0,0 +1,284 @@
+package com.rxjava.bench;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.operators.FlatMapOperator;
+import com.rxjava.operators.MapOperator;
+import com.rxjava.schedulers.RxComputationScheduler;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxScheduler;
+import com.rxjava.schedulers.RxSingleScheduler;
+import com.rxjava.schedulers.RxVirtualThreadScheduler;
+import com.rxjava.util.LongHistogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Нагрузочный стенд сквозной задержки конвейера
+ * subscribeOn → MapOperator → observeOn → FlatMapOperator при постоянной скорости запросов.
+ * <p>
+ * Генератор в отдельном потоке выпускает запросы по расписанию: i-й запрос должен начаться
+ * в момент start + i / rate. Каждый запрос — подписка на конвейер, а задержка считается от
+ * запланированного момента начала до onComplete, а не от фактической подписки. Поэтому, если
+ * генератор или конвейер отстаёт, ожидание в очереди попадает в гистограмму
+ * (поправка на coordinated omission). Запросы, не завершившиеся к концу ожидания дренажа,
+ * учитываются с задержкой до этого момента.
+ * <p>
+ * Для каждой конфигурации планировщиков скорость перебирается по возрастанию; колено насыщения —
+ * последняя скорость, на которой p99 укладывается в SLA, а пропускная способность — не ниже 95%
+ * заданной. Отчёты пишутся в target/load-reports/&lt;метка&gt;/&lt;конфигурация&gt;.csv; два каталога
+ * отчётов, например для двух коммитов, сравниваются режимом compare.
+ * <p>
+ * Запуск:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass="com.rxjava.bench.LatencyLoadHarness" \
+ *     -Dexec.args="$(git rev-parse --short HEAD) 5 1000,5000,10000,20000,50000,100000"
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass="com.rxjava.bench.LatencyLoadHarness" \
+ *     -Dexec.args="compare target/load-reports/abc123 target/load-reports/def456"
+ * </pre>
+ * Аргументы: метка отчёта, длительность прогона на одной скорости в секундах, скорости (запросов в секунду).
+ */
+public class LatencyLoadHarness {
+    /** Процессорная работа в MapOperator на запрос. */
+    private static final long MAP_WORK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    /** Процессорная работа во вложенном Observable flatMap на запрос. */
+    private static final long INNER_WORK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long SLA_MICROS = TimeUnit.MILLISECONDS.toMicros(10);
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("compare")) {
+            compare(Paths.get(args[1]), Paths.get(args[2]));
+            return;
+        }
+        String label = args.length > 0 ? args[0] : "local";
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        long[] rates = parseRates(args.length > 2 ? args[2] : "1000,2000,5000,10000,20000,50000,100000");
+        Path reports = Paths.get("target", "load-reports", label);
+        Files.createDirectories(reports);
+
+        Map<String, Supplier<RxScheduler>> configurations = new LinkedHashMap<>();
+        configurations.put("io", RxIOScheduler::new);
+        configurations.put("computation", RxComputationScheduler::new);
+        configurations.put("single", RxSingleScheduler::new);
+        configurations.put("virtual", RxVirtualThreadScheduler::new);
+
+        // прогрев JIT на средней скорости, без отчёта
+        run(configurations.get("computation").get(), rates[rates.length / 2], 1);
+
+        for (Map.Entry<String, Supplier<RxScheduler>> configuration : configurations.entrySet()) {
+            System.out.printf("%n%s%n%10s %12s %10s %10s %10s %10s %10s%n", configuration.getKey(),
+                    "запр/с", "выполнено/с", "p50 мкс", "p90 мкс", "p99 мкс", "p99.9 мкс", "max мкс");
+            List<Run> runs = new ArrayList<>();
+            for (long rate : rates) {
+                Run run = run(configuration.getValue().get(), rate, seconds);
+                runs.add(run);
+                System.out.printf("%10d %12.0f %10d %10d %10d %10d %10d%n", rate, run.achievedRate,
+                        run.percentile(50), run.percentile(90), run.percentile(99), run.percentile(99.9),
+                        run.histogram.getMaxValue());
+                if (run.achievedRate < run.rate / 2.0) {
+                    // дальше конвейер только глубже уходит в насыщение
+                    break;
+                }
+            }
+            long knee = knee(runs);
+            System.out.printf("колено насыщения: %s%n", knee > 0 ? knee + " запр/с" : "не достигнуто SLA");
+            write(reports.resolve(configuration.getKey() + ".csv"), label, runs, knee);
+        }
+        System.out.printf("%nОтчёты: %s%n", reports.toAbsolutePath());
+        System.exit(0);
+    }
+
+    /**
+     * Один прогон на постоянной скорости.
+     */
+    private static Run run(RxScheduler scheduler, long rate, int seconds) {
+        LongHistogram histogram = new LongHistogram(HIGHEST_MICROS);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong lastCompletion = new AtomicLong();
+        long total = rate * seconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        boolean[] finished = new boolean[(int) total];
+        System.gc();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+
+        Thread generator = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                long due = start + i * intervalNanos;
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    if (wait > 50_000) {
+                        LockSupport.parkNanos(wait - 50_000);
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                }
+                int request = i;
+                pipeline(request, scheduler).subscribe(x -> { }, Throwable::printStackTrace, () -> {
+                    long now = System.nanoTime();
+                    synchronized (histogram) {
+                        if (finished[request]) {
+                            // запрос уже учтён на отсечке дренажа, а отчёт может читать гистограмму
+                            return;
+                        }
+                        finished[request] = true;
+                        histogram.record(TimeUnit.NANOSECONDS.toMicros(now - due));
+                    }
+                    completed.incrementAndGet();
+                    lastCompletion.accumulateAndGet(now, Math::max);
+                });
+            }
+        }, "load-generator");
+        generator.start();
+        try {
+            generator.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (completed.get() < total && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        long cutoff = System.nanoTime();
+        synchronized (histogram) {
+            for (int i = 0; i < total; i++) {
+                if (!finished[i]) {
+                    finished[i] = true;
+                    histogram.record(TimeUnit.NANOSECONDS.toMicros(cutoff - (start + i * intervalNanos)));
+                }
+            }
+        }
+        long end = Math.max(start + total * intervalNanos, completed.get() == total ? lastCompletion.get() : cutoff);
+        long elapsed = end - start;
+        return new Run(rate, completed.get() * 1e9 / elapsed, histogram);
+    }
+
+    /**
+     * Конвейер одного запроса: работа в map, переход в observeOn, вложенный Observable в flatMap.
+     */
+    private static RxObservable<Long> pipeline(long request, RxScheduler scheduler) {
+        RxObservable<Long> mapped = MapOperator.apply(
+                RxObservable.just(request).subscribeOn(scheduler), x -> x + spin(MAP_WORK_NANOS));
+        return FlatMapOperator.apply(mapped.observeOn(scheduler),
+                x -> RxObservable.create(o -> {
+                    o.onNext(x + spin(INNER_WORK_NANOS));
+                    o.onComplete();
+                }));
+    }
+
+    private static long spin(long nanos) {
+        long start = System.nanoTime();
+        long iterations = 0;
+        while (System.nanoTime() - start < nanos) {
+            iterations++;
+        }
+        return iterations & 1;
+    }
+
+    private static long knee(List<Run> runs) {
+        long knee = 0;
+        for (Run run : runs) {
+            if (run.percentile(99) > SLA_MICROS || run.achievedRate < 0.95 * run.rate) {
+                break;
+            }
+            knee = run.rate;
+        }
+        return knee;
+    }
+
+    private static void write(Path file, String label, List<Run> runs, long knee) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.printf("# метка=%s колено=%d sla_мкс=%d%n", label, knee, SLA_MICROS);
+            out.println("rate,achieved,p50,p90,p99,p99.9,max");
+            for (Run run : runs) {
+                out.printf("%d,%.0f", run.rate, run.achievedRate);
+                for (double p : PERCENTILES) {
+                    out.printf(",%d", run.percentile(p));
+                }
+                out.printf(",%d%n", run.histogram.getMaxValue());
+            }
+        }
+    }
+
+    /**
+     * Печатает p99 двух каталогов отчётов бок о бок.
+     */
+    private static void compare(Path before, Path after) throws IOException {
+        try (var files = Files.list(before)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                Path other = after.resolve(file.getFileName());
+                if (!Files.exists(other)) {
+                    continue;
+                }
+                Map<String, String[]> old = rows(file);
+                Map<String, String[]> current = rows(other);
+                System.out.printf("%n%s%n%10s %12s %12s %8s%n", file.getFileName(),
+                        "запр/с", "p99 было", "p99 стало", "Δ%");
+                for (Map.Entry<String, String[]> row : old.entrySet()) {
+                    String[] now = current.get(row.getKey());
+                    if (now == null) {
+                        continue;
+                    }
+                    long was = Long.parseLong(row.getValue()[4]);
+                    long is = Long.parseLong(now[4]);
+                    System.out.printf("%10s %12d %12d %+8.1f%n", row.getKey(), was, is,
+                            was == 0 ? 0 : (is - was) * 100.0 / was);
+                }
+            }
+        }
+    }
+
+    private static Map<String, String[]> rows(Path file) throws IOException {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.startsWith("#") || line.startsWith("rate")) {
+                continue;
+            }
+            String[] columns = line.split(",");
+            rows.put(columns[0], columns);
+        }
+        return rows;
+    }
+
+    private static long[] parseRates(String rates) {
+        String[] parts = rates.split(",");
+        long[] result = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Long.parseLong(parts[i].trim());
+        }
+        return result;
+    }
+
+    private static final class Run {
+        final long rate;
+        final double achievedRate;
+        final LongHistogram histogram;
+
+        Run(long rate, double achievedRate, LongHistogram histogram) {
+            this.rate = rate;
+            this.achievedRate = achievedRate;
+            this.histogram = histogram;
+        }
+
+        long percentile(double p) {
+            return histogram.valueAtPercentile(p);
+        }
+    }
+}
@@ -4,7 +4,9 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -94,4 +96,107 @@ class RxObservableTest {
         assertNotNull(receivedError.get());
         assertEquals(testError, receivedError.get());
     }
+
+    @Test
+    void createWithDisposable_shouldRunDisposeActionsOnce() {
+        // Аранжировка
+        AtomicInteger released = new AtomicInteger();
+        AtomicReference<RxDisposable> seenBySource = new AtomicReference<>();
+
+        // Действие: источник регистрирует освобождение ресурса при отмене
+        RxDisposable disposable = RxObservable.<String>create((observer, d) -> {
+            seenBySource.set(d);
+            d.onDispose(released::incrementAndGet);
+            observer.onNext("A");
+        }).subscribe(item -> { });
+        disposable.dispose();
+        disposable.dispose();
+        disposable.onDispose(released::incrementAndGet);
+
+        // Проверка предаоложений: источник получил тот же disposable, действия выполнены ровно раз
+        assertSame(disposable, seenBySource.get());
+        assertTrue(disposable.isDisposed());
+        assertEquals(2, released.get());
+    }
+
+    @Test
+    void subscriptionTracker_shouldReportAbandonedSubscriptionsBySite() throws InterruptedException {
+        // Аранжировка: горячий источник держит подписчиков, как держал бы их долгоживущий сервис
+        List<RxObserver<? super Integer>> listeners = new ArrayList<>();
+        RxObservable<Integer> hot = RxObservable.create(observer -> { listeners.add(observer); });
+        RxObservable<Integer> flattened = com.rxjava.operators.FlatMapOperator.apply(hot,
+                i -> RxObservable.<Integer>create(o -> o.onNext(i)));
+        RxSubscriptionTracker.enable(50, TimeUnit.MILLISECONDS, 1);
+        try {
+            // Действие: 5 брошенных подписок, одна отменённая и одна завершённая
+            for (int i = 0; i < 5; i++) {
+                flattened.subscribe(item -> { });
+            }
+            flattened.subscribe(item -> { }).dispose();
+            RxObservable.just(1, 2).subscribe(item -> { });
+            for (RxObserver<? super Integer> listener : new ArrayList<>(listeners)) {
+                listener.onNext(1);
+                listener.onNext(2);
+            }
+            Thread.sleep(100);
+            List<RxSubscriptionTracker.LeakSite> sites = RxSubscriptionTracker.topLeakSites(10);
+
+            // Проверка предаоложений: брошенные подписки сгруппированы по строке subscribe,
+            // вместе с удерживаемыми композитами flatMap (подписка на источник и два незавершённых вложенных)
+            RxSubscriptionTracker.LeakSite site = sites.stream()
+                    .filter(s -> s.getSite().contains("subscriptionTracker_shouldReportAbandonedSubscriptionsBySite"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(5, site.getCount(), sites.toString());
+            assertTrue(site.getSite().contains("RxObservableTest.java"), site.getSite());
+            assertEquals(15, site.getRetainedSize());
+            assertTrue(site.getOldestAgeNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+            assertEquals(1, sites.stream().filter(s -> s.getSite().contains("RxObservableTest")).count());
+        } finally {
+            RxSubscriptionTracker.disable();
+        }
+    }
+
+    @Test
+    void subscriptionTracker_shouldSampleForgetCollectedAndStayOffWhenDisabled() throws InterruptedException {
+        // Аранжировка
+        List<RxObserver<? super Integer>> listeners = new ArrayList<>();
+        RxObservable<Integer> hot = RxObservable.create(observer -> { listeners.add(observer); });
+        RxSubscriptionTracker.enable(0, TimeUnit.MILLISECONDS, 2);
+        try {
+            // Действие: 10 подписок с выборкой 1 из 2 и одна подписка, которую никто не держит
+            for (int i = 0; i < 10; i++) {
+                hot.subscribe(item -> { });
+            }
+            long sampled = RxSubscriptionTracker.activeSubscriptions().stream()
+                    .filter(s -> s.getSite().contains("RxObservableTest")).count();
+            for (int i = 0; i < 2; i++) {
+                RxObservable.<Integer>create(observer -> { }).subscribe(item -> { });
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (RxSubscriptionTracker.getCollectedCount() == 0 && System.nanoTime() < deadline) {
+                System.gc();
+                Thread.sleep(10);
+            }
+
+            // Проверка предаоложений
+            assertEquals(5, sampled);
+            assertTrue(RxSubscriptionTracker.getCollectedCount() > 0, "Cleaner не убрал собранную подписку");
+        } finally {
+            RxSubscriptionTracker.disable();
+        }
+        hot.subscribe(item -> { });
+        assertTrue(RxSubscriptionTracker.activeSubscriptions().isEmpty());
+        assertEquals(0, RxSubscriptionTracker.getSubscriptionCount());
+    }
+
+    @Test
+    void subscriptionTracker_shouldTreatOnlyLibraryPackagesAsLibraryCode() {
+        // Действие и проверка: Main загружен из того же каталога, что и библиотека, как в fat jar,
+        // но лежит вне её пакетов; тесты лежат в пакетах библиотеки, но загружены из другого места
+        assertTrue(RxSubscriptionTracker.isLibrary(com.rxjava.operators.FlatMapOperator.class));
+        assertTrue(RxSubscriptionTracker.isLibrary(RxObservable.class));
+        assertFalse(RxSubscriptionTracker.isLibrary(com.rxjava.Main.class));
+        assertFalse(RxSubscriptionTracker.isLibrary(RxObservableTest.class));
+    }
 }
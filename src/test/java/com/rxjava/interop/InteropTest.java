@@ -0,0 +1,155 @@
+package com.rxjava.interop;
+
+import com.rxjava.core.RxObservable;
+import com.rxjava.schedulers.RxIOScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InteropTest {
+
+    private static RxObservable<Integer> range(int count, AtomicLong emitted) {
+        return RxObservable.create((o, d) -> {
+            for (int i = 0; i < count && !d.isDisposed(); i++) {
+                emitted.incrementAndGet();
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+    }
+
+    @Test
+    void toPublisher_shouldDeliverOnlyRequestedItems() throws InterruptedException {
+        // Подготовка: подписчик запрашивает 5 элементов из 1000
+        AtomicLong emitted = new AtomicLong();
+        List<Integer> received = new ArrayList<>();
+        AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        CountDownLatch five = new CountDownLatch(5);
+
+        // Действие
+        RxFlow.toPublisher(range(1000, emitted), 16, new RxIOScheduler()).subscribe(new Flow.Subscriber<>() {
+            @Override public void onSubscribe(Flow.Subscription s) { subscription.set(s); s.request(5); }
+            @Override public void onNext(Integer item)           { received.add(item); five.countDown(); }
+            @Override public void onError(Throwable t)           { fail(t); }
+            @Override public void onComplete()                   { fail("Поток не должен завершиться"); }
+        });
+        assertTrue(five.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // Проверка: ровно запрошенное, источник остановлен буфером; отмена отписывает источник
+        assertEquals(List.of(0, 1, 2, 3, 4), received);
+        assertTrue(emitted.get() <= 5 + 16 + 1, "Источник не остановлен: " + emitted.get());
+        subscription.get().cancel();
+        long stopped = emitted.get();
+        Thread.sleep(50);
+        assertEquals(stopped, emitted.get());
+    }
+
+    @Test
+    void fromPublisher_shouldBridgeSubmissionPublisherWithPrefetch() throws InterruptedException {
+        // Подготовка: JDK Publisher с маленьким буфером
+        List<Integer> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>(Runnable::run, 8)) {
+            RxFlow.fromPublisher(publisher, 4).subscribe(received::add, Throwable::printStackTrace, done::countDown);
+
+            // Действие: submit блокируется, если подписчик не запросил элементы
+            for (int i = 0; i < 1000; i++) {
+                publisher.submit(i);
+            }
+        }
+
+        // Проверка
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1000, received.size());
+        assertEquals(999, received.get(999));
+    }
+
+    @Test
+    void blockingIterable_shouldPullAllItemsInOrder() {
+        // Подготовка
+        AtomicLong emitted = new AtomicLong();
+        List<Integer> received = new ArrayList<>();
+
+        // Действие
+        for (Integer item : RxBlocking.iterable(range(10_000, emitted), 64)) {
+            received.add(item);
+        }
+
+        // Проверка
+        assertEquals(10_000, received.size());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    void blockingIterator_shouldCancelSourceOnEarlyClose() throws InterruptedException {
+        // Подготовка: бесконечный источник, сообщающий о своей остановке
+        CountDownLatch sourceStopped = new CountDownLatch(1);
+        RxObservable<Integer> endless = RxObservable.create((o, d) -> {
+            for (int i = 0; !d.isDisposed(); i++) {
+                o.onNext(i);
+            }
+            sourceStopped.countDown();
+        });
+        List<Integer> received = new ArrayList<>();
+
+        // Действие: выходим из цикла после трёх элементов
+        try (RxBlocking.CloseableIterator<Integer> iterator = RxBlocking.iterator(endless, 16)) {
+            while (iterator.hasNext() && received.size() < 3) {
+                received.add(iterator.next());
+            }
+        }
+
+        // Проверка: close отменил подписку, источник освободил поток
+        assertEquals(List.of(0, 1, 2), received);
+        assertTrue(sourceStopped.await(5, TimeUnit.SECONDS), "Источник продолжает эмитить после закрытия");
+    }
+
+    @Test
+    void toStream_shouldCancelSourceOnClose() throws InterruptedException {
+        // Подготовка: практически бесконечный источник
+        AtomicLong emitted = new AtomicLong();
+        List<Integer> firstTen;
+
+        // Действие: берём 10 элементов и закрываем Stream
+        try (Stream<Integer> stream = RxBlocking.toStream(range(Integer.MAX_VALUE, emitted), 32)) {
+            firstTen = stream.limit(10).collect(Collectors.toList());
+        }
+        Thread.sleep(50);
+        long stopped = emitted.get();
+        Thread.sleep(50);
+
+        // Проверка
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), firstTen);
+        assertEquals(stopped, emitted.get(), "Источник продолжает эмитить после закрытия");
+    }
+
+    @Test
+    void blockingFirstAndLast_shouldReturnEdgesOrFail() {
+        // Подготовка
+        RxObservable<String> letters = RxObservable.just("a", "b", "c");
+        RxObservable<String> empty = RxObservable.create(o -> o.onComplete());
+        RxObservable<String> failing = RxObservable.create(o -> o.onError(new IllegalStateException("сбой")));
+
+        // Действие и проверка
+        assertEquals("a", RxBlocking.first(letters));
+        assertEquals("c", RxBlocking.last(letters.subscribeOn(new RxIOScheduler())));
+        assertThrows(NoSuchElementException.class, () -> RxBlocking.first(empty));
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> RxBlocking.last(failing));
+        assertEquals("сбой", error.getMessage());
+    }
+}
@@ -0,0 +1,278 @@
+package com.rxjava.io;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.schedulers.RxComputationScheduler;
+import com.rxjava.schedulers.RxIOScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.rxjava.TestSupport.awaitCondition;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileIoTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fileSource_shouldEmitLinesAsReadOnlySlices() throws IOException {
+        // Подготовка: файл со строками, включая CRLF и строку без перевода в конце
+        Path file = dir.resolve("log.txt");
+        Files.writeString(file, "первая\nвторая\r\n\nпоследняя");
+        List<String> lines = new ArrayList<>();
+        List<Boolean> readOnly = new ArrayList<>();
+
+        // Действие
+        RxFileSource.records(file, RxRecordFormat.lines())
+                .subscribe(buf -> {
+                    readOnly.add(buf.isReadOnly());
+                    lines.add(StandardCharsets.UTF_8.decode(buf).toString());
+                });
+
+        // Проверка
+        assertEquals(List.of("первая", "вторая", "", "последняя"), lines);
+        assertFalse(readOnly.contains(false), "Срезы должны быть только для чтения");
+    }
+
+    @Test
+    void fileSource_shouldRemapWindowsForRecordsCrossingBoundary() throws IOException {
+        // Подготовка: записи с префиксом длины, окно меньше суммы записей
+        Path file = dir.resolve("records.bin");
+        ByteBuffer content = ByteBuffer.allocate(1024);
+        for (int i = 0; i < 20; i++) {
+            byte[] payload = ("record-" + i).getBytes(StandardCharsets.UTF_8);
+            content.putInt(payload.length).put(payload);
+        }
+        Files.write(file, Arrays.copyOf(content.array(), content.position()));
+        List<String> records = new ArrayList<>();
+
+        // Действие: читаем окнами по 32 байта
+        for (RxObservable<ByteBuffer> part : RxFileSource.split(file, RxRecordFormat.lengthPrefixed(), 1, 32)) {
+            part.subscribe(buf -> records.add(StandardCharsets.UTF_8.decode(buf).toString()));
+        }
+
+        // Проверка
+        assertEquals(20, records.size());
+        assertEquals("record-0", records.get(0));
+        assertEquals("record-19", records.get(19));
+    }
+
+    @Test
+    void fileSource_shouldStopReadingWhenCancelled() throws IOException {
+        // Подготовка: 1000 строк, окно меньше файла; отмена после третьей записи
+        Path file = dir.resolve("long.txt");
+        Files.writeString(file, "line\n".repeat(1000));
+        AtomicLong read = new AtomicLong();
+
+        // Действие
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RxFileSource.read(channel, RxRecordFormat.lines(), 0, channel.size(), 64,
+                    () -> read.get() >= 3, buf -> read.incrementAndGet());
+        }
+
+        // Проверка: остаток файла, в том числе следующие окна, не читается
+        assertEquals(3, read.get());
+    }
+
+    @Test
+    void fileSource_shouldSplitLengthPrefixedFileOnRecordBoundaries() throws IOException {
+        // Подготовка: 500 записей с префиксом длины разного размера
+        Path file = dir.resolve("prefixed.bin");
+        ByteBuffer content = ByteBuffer.allocate(64 * 1024);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String record = "record-" + i + "-" + "x".repeat(i % 37);
+            expected.add(record);
+            byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+            content.putInt(payload.length).put(payload);
+        }
+        Files.write(file, Arrays.copyOf(content.array(), content.position()));
+        List<Integer> partSizes = new ArrayList<>();
+        List<String> records = new ArrayList<>();
+
+        // Действие: 4 части, читаем по очереди
+        for (RxObservable<ByteBuffer> part : RxFileSource.split(file, RxRecordFormat.lengthPrefixed(), 4)) {
+            int before = records.size();
+            part.subscribe(buf -> records.add(StandardCharsets.UTF_8.decode(buf).toString()));
+            partSizes.add(records.size() - before);
+        }
+
+        // Проверка: частей несколько, ни одна не пуста, записи не разрезаны и не повторяются
+        assertEquals(4, partSizes.size());
+        assertFalse(partSizes.contains(0), "Пустая часть: " + partSizes);
+        assertEquals(expected, records);
+    }
+
+    @Test
+    void fileSource_shouldReportTruncatedFixedRecord() throws IOException {
+        // Подготовка: 10 байт при размере записи 4
+        Path file = dir.resolve("fixed.bin");
+        Files.write(file, new byte[10]);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        List<ByteBuffer> records = new ArrayList<>();
+
+        // Действие
+        RxFileSource.records(file, RxRecordFormat.fixed(4)).subscribe(records::add, error::set, () -> { });
+
+        // Проверка: две полные записи и ошибка об усечённой третьей
+        assertEquals(2, records.size());
+        assertInstanceOf(IOException.class, error.get());
+    }
+
+    @Test
+    void fileSource_shouldSplitIntoChunksForParallelWorkers() throws Exception {
+        // Подготовка: 10 000 строк с номерами
+        Path file = dir.resolve("numbers.txt");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            sb.append(i).append('\n');
+        }
+        Files.writeString(file, sb.toString());
+        List<Integer> numbers = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+
+        // Действие: 4 части, декодирование в вычислительном планировщике
+        RxFileSource.parallel(file, RxRecordFormat.lines(),
+                        buf -> Integer.parseInt(StandardCharsets.US_ASCII.decode(buf).toString()),
+                        4, new RxComputationScheduler())
+                .subscribe(numbers::add, Throwable::printStackTrace, done::countDown);
+
+        // Проверка: все строки прочитаны ровно один раз
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Таймаут параллельного чтения");
+        assertEquals(10_000, numbers.size());
+        assertEquals(10_000, numbers.stream().distinct().count());
+    }
+
+    @Test
+    void fileSink_shouldWriteLinesReadableBySource() throws IOException {
+        // Подготовка
+        Path file = dir.resolve("out.txt");
+        AtomicLong written = new AtomicLong();
+        AtomicReference<Boolean> completed = new AtomicReference<>(false);
+
+        // Действие: пишем строки с групповым сбросом каждые 2 элемента
+        RxFileSink.write(RxObservable.just("alpha", "бета", "gamma"), file,
+                        RxCodec.utf8(), RxRecordFormat.lines(), RxFileSink.ForcePolicy.everyItems(2))
+                .subscribe(written::set, Throwable::printStackTrace, () -> completed.set(true));
+
+        // Проверка: файл читается обратно, число байт совпадает с размером файла
+        assertTrue(completed.get());
+        assertEquals("alpha\nбета\ngamma\n", Files.readString(file));
+        assertEquals(Files.size(file), written.get());
+    }
+
+    @Test
+    void fileSink_shouldRoundTripManyLengthPrefixedRecordsAcrossBatches() throws IOException {
+        // Подготовка: данных больше, чем помещается в один пакет буферов
+        Path file = dir.resolve("events.bin");
+        int count = 100_000;
+        RxObservable<Long> source = RxObservable.create(o -> {
+            for (long i = 0; i < count; i++) {
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+        List<Long> readBack = new ArrayList<>();
+
+        // Действие
+        RxFileSink.write(source, file, RxCodec.int64(), RxRecordFormat.lengthPrefixed(),
+                        RxFileSink.ForcePolicy.everyBatch())
+                .subscribe(bytes -> assertEquals(count * 12L, bytes));
+        RxFileSource.records(file, RxRecordFormat.lengthPrefixed(), RxCodec.int64()::decode)
+                .subscribe(readBack::add);
+
+        // Проверка
+        assertEquals(count, readBack.size());
+        assertEquals(0L, readBack.get(0));
+        assertEquals(count - 1L, readBack.get(count - 1));
+    }
+
+    @Test
+    void fileSink_shouldReportCodecFailureAsError() throws IOException {
+        // Подготовка: кодек занижает размер записи
+        Path file = dir.resolve("broken.bin");
+        RxCodec<Long> lying = new RxCodec<>() {
+            @Override public int encodedSize(Long item)            { return 0; }
+            @Override public void encode(Long item, ByteBuffer out) { out.putLong(item); }
+            @Override public Long decode(ByteBuffer in)            { return in.getLong(in.position()); }
+        };
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        // Действие: запись занимает 12 байт вместо заявленных 4, и конец буфера пакета переполняется
+        RxFileSink.write(RxObservable.create(o -> {
+                            for (long i = 0; i < 100_000; i++) {
+                                o.onNext(i);
+                            }
+                            o.onComplete();
+                        }), file, lying, RxRecordFormat.lengthPrefixed(), RxFileSink.ForcePolicy.onComplete())
+                .subscribe(x -> fail("Should not emit byte count"), error::set, () -> fail("Should not complete"));
+
+        // Проверка: исключение кодека пришло в onError, а не вылетело из onNext
+        assertInstanceOf(BufferOverflowException.class, error.get());
+        Files.delete(file);
+    }
+
+    @Test
+    void fileSink_shouldFlushReceivedItemsAndPropagateSourceError() throws IOException {
+        // Подготовка: источник падает после двух элементов
+        Path file = dir.resolve("partial.txt");
+        RuntimeException failure = new RuntimeException("upstream failed");
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        // Действие
+        RxFileSink.append(RxObservable.create(o -> {
+                            o.onNext("one");
+                            o.onNext("two");
+                            o.onError(failure);
+                        }), file, RxCodec.utf8(), RxRecordFormat.lines(),
+                        RxFileSink.ForcePolicy.interval(1, TimeUnit.SECONDS))
+                .subscribe(x -> fail("Should not emit byte count"), error::set, () -> fail("Should not complete"));
+
+        // Проверка: полученные элементы сохранены, ошибка доставлена
+        assertSame(failure, error.get());
+        assertEquals("one\ntwo\n", Files.readString(file));
+    }
+
+    @Test
+    void fileSink_shouldCancelSourceOnDispose() throws Exception {
+        // Подготовка: бесконечный источник в отдельном потоке
+        Path file = dir.resolve("endless.txt");
+        AtomicLong emitted = new AtomicLong();
+        CountDownLatch sourceStopped = new CountDownLatch(1);
+        RxObservable<String> endless = RxObservable.<String>create((o, d) -> {
+            while (!d.isDisposed()) {
+                emitted.incrementAndGet();
+                o.onNext("line");
+            }
+            sourceStopped.countDown();
+        }).subscribeOn(new RxIOScheduler());
+
+        // Действие: отменяем запись, когда источник разогнался
+        RxDisposable subscription = RxFileSink.write(endless, file, RxCodec.utf8(), RxRecordFormat.lines(),
+                        RxFileSink.ForcePolicy.onComplete())
+                .subscribe(x -> fail("Should not emit byte count"));
+        assertTrue(awaitCondition(() -> emitted.get() > 10_000, 10, TimeUnit.SECONDS), "Источник не запустился");
+        subscription.dispose();
+
+        // Проверка: отмена дошла до источника
+        assertTrue(sourceStopped.await(10, TimeUnit.SECONDS), "Источник продолжает эмитить");
+    }
+}
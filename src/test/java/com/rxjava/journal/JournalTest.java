@@ -0,0 +1,178 @@
+package com.rxjava.journal;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.core.RxObserver;
+import com.rxjava.io.RxCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void journal_shouldReplayFromOffsetAndSwitchToLiveTail() throws IOException {
+        try (RxJournal<String> journal = RxJournal.open(dir, RxCodec.utf8())) {
+            // Подготовка: пропускаем поток через журнал
+            List<String> passedThrough = new ArrayList<>();
+            journal.record(RxObservable.just("a", "b", "c", "d")).subscribe(passedThrough::add);
+            List<String> replayed = new ArrayList<>();
+
+            // Действие: проигрываем с третьей записи и дописываем новую
+            RxDisposable disposable = journal.replay(2).subscribe(e -> replayed.add(e.getOffset() + ":" + e.getValue()));
+            journal.append("e");
+            disposable.dispose();
+            journal.append("f");
+
+            // Проверка: сохранённые записи, затем живой хвост до отмены подписки
+            assertEquals(List.of("a", "b", "c", "d"), passedThrough);
+            assertEquals(List.of("2:c", "3:d", "4:e"), replayed);
+        }
+    }
+
+    @Test
+    void journal_shouldCancelRecordedSourceOnDispose() throws IOException {
+        try (RxJournal<Long> journal = RxJournal.open(dir, RxCodec.int64())) {
+            // Подготовка: источник проверяет отмену, подписчик отменяет после третьего элемента
+            AtomicLong emitted = new AtomicLong();
+            RxObservable<Long> source = RxObservable.create((o, d) -> {
+                for (long i = 0; i < 1000 && !d.isDisposed(); i++) {
+                    emitted.incrementAndGet();
+                    o.onNext(i);
+                }
+                o.onComplete();
+            });
+            RxDisposable subscription = new RxDisposable();
+
+            // Действие
+            journal.record(source).subscribe(new RxObserver<Long>() {
+                @Override
+                public void onNext(Long item) {
+                    if (item == 2) {
+                        subscription.dispose();
+                    }
+                }
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+                @Override
+                public void onComplete() {
+                    fail("Отменённая подписка не должна завершаться");
+                }
+            }, subscription);
+
+            // Проверка: источник остановлен, в журнал попали только переданные элементы
+            assertEquals(3, emitted.get());
+            assertEquals(3, journal.append(-1L));
+        }
+    }
+
+    @Test
+    void journal_shouldRecoverPositionAfterRestart() throws IOException {
+        // Подготовка: пишем 1000 записей и закрываем журнал
+        try (RxJournal<Long> journal = RxJournal.open(dir, RxCodec.int64())) {
+            for (long i = 0; i < 1000; i++) {
+                journal.append(i * 10);
+            }
+        }
+
+        // Действие: открываем заново и продолжаем запись
+        try (RxJournal<Long> journal = RxJournal.open(dir, RxCodec.int64())) {
+            long offset = journal.append(-1L);
+            List<Long> tail = new ArrayList<>();
+            RxDisposable d = journal.replay(998).subscribe(e -> tail.add(e.getValue()));
+            d.dispose();
+
+            // Проверка: смещения продолжаются, данные читаются через индекс
+            assertEquals(1000, offset);
+            assertEquals(List.of(9980L, 9990L, -1L), tail);
+        }
+    }
+
+    @Test
+    void journal_shouldRollSegmentsAndApplyRetention() throws IOException {
+        // Подготовка: маленькие сегменты, храним не больше двух
+        try (RxJournal<Long> journal = RxJournal.open(dir, RxCodec.int64(), 200,
+                RxJournal.Retention.segments(2))) {
+            // Действие: 20 байт на запись, по 10 записей в сегменте
+            for (long i = 0; i < 100; i++) {
+                journal.append(i);
+            }
+            List<Long> replayed = new ArrayList<>();
+            journal.replay(0).subscribe(e -> replayed.add(e.getValue())).dispose();
+
+            // Проверка: старые сегменты удалены, чтение начинается с самой старой записи
+            assertEquals(2, journal.segmentCount());
+            assertEquals(80, journal.firstOffset());
+            assertEquals(20, replayed.size());
+            assertEquals(80L, replayed.get(0));
+        }
+    }
+
+    @Test
+    void journal_shouldSeekByTimestamp() throws IOException {
+        // Подготовка: управляемые часы, по 10 мс на запись
+        AtomicLong clock = new AtomicLong(1_000);
+        RxJournal<Long> journal = RxJournal.open(dir, RxCodec.int64(), 4096,
+                RxJournal.Retention.keepAll(), clock::get);
+        for (long i = 0; i < 500; i++) {
+            journal.append(i);
+            clock.addAndGet(10);
+        }
+        List<Long> replayed = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+
+        // Действие: проигрываем с момента 1 000 + 10 * 321 и закрываем журнал
+        journal.replayFromTimestamp(4_210).subscribe(e -> replayed.add(e.getValue()),
+                Throwable::printStackTrace, () -> completed.set(true));
+        journal.close();
+
+        // Проверка: поиск попал в нужную запись соседнего сегмента, закрытие завершает хвост
+        assertEquals(321, journal.offsetForTimestamp(4_210));
+        assertEquals(179, replayed.size());
+        assertEquals(321L, replayed.get(0));
+        assertTrue(completed.get());
+    }
+
+    @Test
+    void journal_shouldIsolateFailingTailSubscriber() throws IOException {
+        try (RxJournal<String> journal = RxJournal.open(dir, RxCodec.utf8())) {
+            // Подготовка: один подписчик хвоста падает на второй живой записи, другой исправен
+            journal.append("a");
+            List<String> failing = new ArrayList<>();
+            List<String> healthy = new ArrayList<>();
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            journal.replay(0).subscribe(e -> {
+                if (e.getValue().equals("c")) {
+                    throw new IllegalStateException("подписчик упал");
+                }
+                failing.add(e.getValue());
+            }, error::set, () -> { });
+            journal.replay(0).subscribe(e -> healthy.add(e.getValue()));
+
+            // Действие: запись не должна падать вслед за подписчиком
+            long b = journal.append("b");
+            long c = journal.append("c");
+            long d = journal.append("d");
+
+            // Проверка: упавший подписчик получил onError и отключён, остальные продолжают
+            assertEquals(List.of(1L, 2L, 3L), List.of(b, c, d));
+            assertEquals(List.of("a", "b"), failing);
+            assertInstanceOf(IllegalStateException.class, error.get());
+            assertEquals(List.of("a", "b", "c", "d"), healthy);
+        }
+    }
+}
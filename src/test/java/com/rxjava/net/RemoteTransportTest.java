@@ -0,0 +1,191 @@
+package com.rxjava.net;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObservable;
+import com.rxjava.io.RxCodec;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxSingleScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.rxjava.TestSupport.awaitCondition;
+import static com.rxjava.TestSupport.awaitQuietly;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteTransportTest {
+
+    private static RxObservable<Long> range(long count, AtomicLong emitted) {
+        return RxObservable.create(o -> {
+            for (long i = 0; i < count; i++) {
+                emitted.incrementAndGet();
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+    }
+
+    @Test
+    void remote_shouldTransferStreamOverTcpInOrder() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            // Подготовка: производитель и потребитель на localhost
+            int count = 100_000;
+            AtomicLong sent = new AtomicLong(-1);
+            List<Long> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch done = new CountDownLatch(2);
+
+            // Действие
+            RxRemoteSink.serve(range(count, new AtomicLong()), RxCodec.int64(), server, new RxIOScheduler())
+                    .subscribe(sent::set, Throwable::printStackTrace, done::countDown);
+            RxRemoteSource.connect(server.getLocalAddress(), RxCodec.int64(), 64, new RxIOScheduler())
+                    .subscribe(received::add, Throwable::printStackTrace, done::countDown);
+
+            // Проверка: все элементы в исходном порядке
+            assertTrue(done.await(10, TimeUnit.SECONDS), "Таймаут передачи");
+            assertEquals(count, sent.get());
+            assertEquals(count, received.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, received.get(i));
+            }
+        }
+    }
+
+    @Test
+    void remote_shouldServeOnSingleThreadScheduler() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            // Подготовка: источник длиннее окна кредита и очереди, подписка на него — в единственном потоке
+            int count = 10_000;
+            AtomicLong sent = new AtomicLong(-1);
+            AtomicLong received = new AtomicLong();
+            CountDownLatch done = new CountDownLatch(2);
+
+            // Действие
+            RxRemoteSink.serve(range(count, new AtomicLong()), RxCodec.int64(), server, new RxSingleScheduler())
+                    .subscribe(sent::set, Throwable::printStackTrace, done::countDown);
+            RxRemoteSource.connect(server.getLocalAddress(), RxCodec.int64(), 16, new RxIOScheduler())
+                    .subscribe(item -> received.incrementAndGet(), Throwable::printStackTrace, done::countDown);
+
+            // Проверка: приём, запись и кредиты не ждут освобождения потока подписки
+            assertTrue(done.await(10, TimeUnit.SECONDS), "Передача зависла на однопоточном планировщике");
+            assertEquals(count, sent.get());
+            assertEquals(count, received.get());
+        }
+    }
+
+    @Test
+    void remote_shouldLimitInFlightItemsByCredit() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            // Подготовка: потребитель застревает на первом элементе
+            int count = 50_000;
+            int prefetch = 16;
+            AtomicLong emitted = new AtomicLong();
+            AtomicReference<Thread> producer = new AtomicReference<>();
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(1);
+            AtomicLong received = new AtomicLong();
+
+            // Действие
+            RxObservable<Long> source = RxObservable.create(o -> {
+                producer.set(Thread.currentThread());
+                range(count, emitted).subscribe(o);
+            });
+            RxRemoteSink.serve(source, RxCodec.int64(), server, new RxIOScheduler()).subscribe(n -> { });
+            RxRemoteSource.connect(server.getLocalAddress(), RxCodec.int64(), prefetch, new RxIOScheduler())
+                    .subscribe(item -> {
+                        awaitQuietly(release);
+                        received.incrementAndGet();
+                    }, Throwable::printStackTrace, done::countDown);
+            // источник заполнил окно кредита и очередь и заблокирован в offer
+            assertTrue(awaitCondition(() -> emitted.get() >= prefetch + RxRemoteSink.QUEUE_SIZE
+                            && isWaiting(producer.get()), 10, TimeUnit.SECONDS),
+                    "Источник не остановился: " + emitted.get());
+            long emittedWhileBlocked = emitted.get();
+            release.countDown();
+
+            // Проверка: источник остановлен кредитом и очередью (плюс элемент, ждущий кредита,
+            // и элемент, заблокированный в onNext), затем поток дошёл полностью
+            assertTrue(emittedWhileBlocked <= prefetch + RxRemoteSink.QUEUE_SIZE + 2,
+                    "Отправлено без кредита: " + emittedWhileBlocked);
+            assertTrue(done.await(10, TimeUnit.SECONDS), "Таймаут передачи");
+            assertEquals(count, received.get());
+        }
+    }
+
+    @Test
+    void remote_shouldPropagateCancellationToProducer(@TempDir Path dir) throws Exception {
+        // Подготовка: бесконечный источник, проверяющий отмену, за Unix domain socket
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(dir.resolve("stream.sock"));
+        AtomicLong emitted = new AtomicLong();
+        CountDownLatch sourceStopped = new CountDownLatch(1);
+        RxObservable<Long> infinite = RxObservable.create((o, d) -> {
+            try {
+                for (long i = 0; !d.isDisposed(); i++) {
+                    emitted.incrementAndGet();
+                    o.onNext(i);
+                    if (emitted.get() > 10_000_000) {
+                        o.onError(new IllegalStateException("Отмена не дошла до источника"));
+                        return;
+                    }
+                }
+            } finally {
+                sourceStopped.countDown();
+            }
+        });
+        AtomicLong sent = new AtomicLong(-1);
+        CountDownLatch sinkDone = new CountDownLatch(1);
+        RxRemoteSink.serve(infinite, RxCodec.int64(), address)
+                .subscribe(sent::set, Throwable::printStackTrace, sinkDone::countDown);
+        waitForSocket(address.getPath());
+
+        // Действие: потребитель отменяет подписку после 1000 элементов
+        CountDownLatch enough = new CountDownLatch(1);
+        AtomicLong received = new AtomicLong();
+        RxDisposable subscription = RxRemoteSource.connect(address, RxCodec.int64())
+                .subscribe(item -> {
+                    if (received.incrementAndGet() == 1000) {
+                        enough.countDown();
+                    }
+                });
+        assertTrue(enough.await(10, TimeUnit.SECONDS), "Таймаут получения");
+        subscription.dispose();
+
+        // Проверка: производитель завершился, источник остановлен
+        assertTrue(sinkDone.await(10, TimeUnit.SECONDS), "Производитель не узнал об отмене");
+        assertTrue(sent.get() >= 1000);
+        assertTrue(sourceStopped.await(10, TimeUnit.SECONDS), "Источник продолжает эмитить");
+        assertTrue(emitted.get() <= 10_000_000, "Отмена не дошла до источника");
+    }
+
+    private static boolean isWaiting(Thread thread) {
+        if (thread == null) {
+            return false;
+        }
+        Thread.State state = thread.getState();
+        return state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING;
+    }
+
+    private static void waitForSocket(Path path) throws InterruptedException, IOException {
+        for (int i = 0; i < 500 && !path.toFile().exists(); i++) {
+            Thread.sleep(10);
+        }
+        if (!path.toFile().exists()) {
+            throw new IOException("Сокет не создан: " + path);
+        }
+    }
+}
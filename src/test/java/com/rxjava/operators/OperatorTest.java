@@ -1,12 +1,41 @@
 package com.rxjava.operators;
 
+import com.rxjava.core.RxDisposable;
 import com.rxjava.core.RxObservable;
+import com.rxjava.io.RxCodec;
+import com.rxjava.journal.RxJournal;
+import com.rxjava.schedulers.RxComputationScheduler;
+import com.rxjava.schedulers.RxIOScheduler;
+import com.rxjava.schedulers.RxSingleScheduler;
+import com.rxjava.schedulers.RxTestScheduler;
+import com.rxjava.util.IndexedTable;
+import com.rxjava.util.ResourcePool;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
+import static com.rxjava.TestSupport.awaitCondition;
+import static com.rxjava.TestSupport.awaitQuietly;
 import static org.junit.jupiter.api.Assertions.*;
 
 class OperatorTest {
@@ -142,4 +171,920 @@ class OperatorTest {
         // Проверка: результат должен быть пустым
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void mergeSortedOperator_shouldEmitInGlobalOrder() {
+        // Подготовка: три заранее отсортированных потока
+        RxObservable<Integer> shard1 = RxObservable.just(1, 4, 7, 10);
+        RxObservable<Integer> shard2 = RxObservable.just(2, 5, 8);
+        RxObservable<Integer> shard3 = RxObservable.just(3, 6, 9, 11, 12);
+        List<Integer> result = new ArrayList<>();
+
+        // Действие: упорядоченное слияние с маленьким буфером предвыборки
+        MergeSortedOperator.apply(Comparator.<Integer>naturalOrder(), 2,
+                        new RxIOScheduler(), shard1, shard2, shard3)
+                .subscribe(result::add);
+
+        // Проверка: элементы идут в глобальном порядке
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12), result);
+    }
+
+    @Test
+    void mergeSortedOperator_shouldNotDeadlockOnSingleThreadScheduler() {
+        // Подготовка: три источника по 10 элементов при буфере на 2 и одном потоке планировщика
+        List<RxObservable<Integer>> shards = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int shard = 0; shard < 3; shard++) {
+            List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                items.add(i * 3 + shard);
+            }
+            expected.addAll(items);
+            shards.add(RxObservable.create(o -> {
+                items.forEach(o::onNext);
+                o.onComplete();
+            }));
+        }
+        Collections.sort(expected);
+        List<Integer> result = new ArrayList<>();
+
+        // Действие: первый источник не должен занять единственный поток, пока остальные не подписаны
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                MergeSortedOperator.apply(Comparator.<Integer>naturalOrder(), 2, new RxSingleScheduler(),
+                                shards.get(0), shards.get(1), shards.get(2))
+                        .subscribe(result::add));
+
+        // Проверка
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void mergeSortedOperator_shouldPropagateError() {
+        // Подготовка: один из источников падает с ошибкой
+        RuntimeException failure = new RuntimeException("shard down");
+        RxObservable<Integer> healthy = RxObservable.just(1, 2, 3);
+        RxObservable<Integer> broken = RxObservable.create(o -> {
+            o.onNext(1);
+            o.onError(failure);
+        });
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        // Действие
+        MergeSortedOperator.apply(Comparator.<Integer>naturalOrder(), healthy, broken)
+                .subscribe(x -> { }, error::set, () -> fail("Should not complete"));
+
+        // Проверка: ошибка источника доходит до подписчика
+        assertSame(failure, error.get());
+    }
+
+    @Test
+    void groupByOperator_shouldSplitStreamByKey() {
+        // Подготовка: поток чисел, группируем по чётности
+        RxObservable<Integer> source = RxObservable.just(1, 2, 3, 4, 5, 6);
+        Map<Boolean, List<Integer>> groups = new TreeMap<>();
+
+        // Действие: подписываемся на каждую группу сразу при её появлении
+        GroupByOperator.apply(source, x -> x % 2 == 0)
+                .subscribe(group -> {
+                    List<Integer> items = new ArrayList<>();
+                    groups.put(group.getKey(), items);
+                    group.subscribe(items::add);
+                });
+
+        // Проверка: элементы разложены по ключам с сохранением порядка
+        assertEquals(List.of(1, 3, 5), groups.get(false));
+        assertEquals(List.of(2, 4, 6), groups.get(true));
+    }
+
+    @Test
+    void groupByOperator_shouldEvictLeastRecentGroupWhenCapped() {
+        // Подготовка: три ключа при лимите в две живые группы
+        RxObservable<String> source = RxObservable.just("a1", "b1", "a2", "c1", "b2");
+        List<String> opened = new ArrayList<>();
+        List<String> completed = new ArrayList<>();
+
+        // Действие
+        GroupByOperator.apply(source, s -> s.substring(0, 1), 2, 0, TimeUnit.MILLISECONDS)
+                .subscribe(group -> {
+                    opened.add(group.getKey());
+                    group.subscribe(x -> { }, Throwable::printStackTrace,
+                            () -> completed.add(group.getKey()));
+                });
+
+        // Проверка: при появлении "c" вытеснена простаивающая "b", затем открыта заново
+        assertEquals(List.of("a", "b", "c", "b"), opened);
+        assertEquals(List.of("b", "a", "c", "b"), completed);
+    }
+
+    @Test
+    void groupByOperator_shouldCompleteIdleGroupsAfterTtl() {
+        // Подготовка: ручные часы, ttl 10 мс
+        AtomicLong clock = new AtomicLong();
+        List<String> input = List.of("a1", "b1", "a2", "a3", "b2");
+        long[] at = {0, 0, 5_000_000, 12_000_000, 13_000_000};
+        RxObservable<String> source = RxObservable.create(o -> {
+            for (int i = 0; i < input.size(); i++) {
+                clock.set(at[i]);
+                o.onNext(input.get(i));
+            }
+            o.onComplete();
+        });
+        List<String> opened = new ArrayList<>();
+        List<String> events = new ArrayList<>();
+
+        // Действие
+        GroupByOperator.apply(source, s -> s.substring(0, 1), 16, 10, TimeUnit.MILLISECONDS,
+                        null, 0, clock::get)
+                .subscribe(group -> {
+                    opened.add(group.getKey());
+                    group.subscribe(events::add, Throwable::printStackTrace,
+                            () -> events.add("end " + group.getKey()));
+                });
+
+        // Проверка: "b" простояла 12 мс и завершилась, "a" обновлялась и дожила до конца потока
+        assertEquals(List.of("a", "b", "b"), opened);
+        assertEquals(List.of("a1", "b1", "a2", "end b", "a3", "b2", "end a", "end b"), events);
+    }
+
+    @Test
+    void groupByOperator_shouldFailOnNullKey() {
+        // Подготовка: ключ не определён для "x"
+        RxObservable<String> source = RxObservable.just("a1", "x", "a2");
+        List<String> items = new ArrayList<>();
+        List<Throwable> groupErrors = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        List<Throwable> reduceErrors = new ArrayList<>();
+
+        // Действие
+        GroupByOperator.apply(source, s -> s.startsWith("x") ? null : s.substring(0, 1))
+                .subscribe(group -> group.subscribe(items::add, groupErrors::add, () -> { }),
+                        errors::add, () -> { });
+        GroupByOperator.reduce(source, s -> s.startsWith("x") ? null : s.substring(0, 1), (a, b) -> a + b)
+                .subscribe(e -> { }, reduceErrors::add, () -> { });
+
+        // Проверка: поток и открытые группы завершены ошибкой, остаток источника не обработан
+        assertEquals(List.of("a1"), items);
+        assertEquals(1, errors.size());
+        assertInstanceOf(NullPointerException.class, errors.get(0));
+        assertEquals(errors, groupErrors);
+        assertEquals(1, reduceErrors.size());
+        assertInstanceOf(NullPointerException.class, reduceErrors.get(0));
+    }
+
+    @Test
+    void groupByReduce_shouldAggregatePerKey() {
+        // Подготовка: события пользователей
+        RxObservable<String> source = RxObservable.just("u1", "u2", "u1", "u3", "u1", "u2");
+        Map<String, Integer> counts = new TreeMap<>();
+
+        // Действие: считаем события по пользователю без вложенных Observable
+        GroupByOperator.reduce(
+                        MapOperator.apply(source, id -> Map.entry(id, 1)),
+                        Map.Entry::getKey,
+                        (a, b) -> Map.entry(a.getKey(), a.getValue() + b.getValue())
+                )
+                .subscribe(e -> counts.put(e.getKey(), e.getValue().getValue()));
+
+        // Проверка
+        assertEquals(Map.of("u1", 3, "u2", 2, "u3", 1), counts);
+    }
+
+    @Test
+    void groupByOperator_shouldDeliverGroupsOnWorkers() throws InterruptedException {
+        // Подготовка: группы распределяются по полосам вычислительного планировщика
+        RxObservable<Integer> source = RxObservable.just(1, 2, 3, 4, 5, 6, 7, 8);
+        Map<Integer, List<Integer>> groups = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(4);
+
+        // Действие
+        GroupByOperator.apply(source, x -> x % 4, 16, 0, TimeUnit.MILLISECONDS,
+                        new RxComputationScheduler(), RxComputationScheduler.parallelism())
+                .subscribe(group -> {
+                    List<Integer> items = new ArrayList<>();
+                    groups.put(group.getKey(), items);
+                    group.subscribe(items::add, Throwable::printStackTrace, done::countDown);
+                });
+
+        // Проверка: порядок внутри каждой группы сохранён
+        assertTrue(done.await(1, TimeUnit.SECONDS), "Таймаут ожидания групп");
+        assertEquals(List.of(1, 5), groups.get(1));
+        assertEquals(List.of(4, 8), groups.get(0));
+    }
+
+    @Test
+    void distinctOperator_shouldDropRepeatedItems() {
+        // Подготовка: поток с повторами
+        RxObservable<String> source = RxObservable.just("a", "b", "a", "c", "b");
+        List<String> result = new ArrayList<>();
+        DistinctOperator.Stats stats = new DistinctOperator.Stats();
+
+        // Действие
+        DistinctOperator.apply(source, stats).subscribe(result::add);
+
+        // Проверка: остались первые вхождения, счётчики заполнены
+        assertEquals(List.of("a", "b", "c"), result);
+        assertEquals(3, stats.getAccepted());
+        assertEquals(2, stats.getDropped());
+        assertTrue(stats.getMemoryFootprintBytes() > 0);
+    }
+
+    @Test
+    void distinctOperator_withLongKeys_shouldUsePrimitiveSet() {
+        // Подготовка: идентификаторы событий, включая 0 и отрицательные
+        RxObservable<Long> source = RxObservable.just(0L, 5L, -1L, 5L, 0L, 7L, -1L);
+        List<Long> result = new ArrayList<>();
+
+        // Действие
+        DistinctOperator.apply(source, Long::longValue).subscribe(result::add);
+
+        // Проверка
+        assertEquals(List.of(0L, 5L, -1L, 7L), result);
+    }
+
+    @Test
+    void distinctUntilChanged_shouldDropOnlyConsecutiveRepeats() {
+        // Подготовка
+        RxObservable<Integer> source = RxObservable.just(1, 1, 2, 2, 2, 1, 3, 3);
+        List<Integer> result = new ArrayList<>();
+
+        // Действие
+        DistinctOperator.untilChanged(source).subscribe(result::add);
+
+        // Проверка
+        assertEquals(List.of(1, 2, 1, 3), result);
+    }
+
+    @Test
+    void approximateDistinct_shouldStayWithinFalsePositiveRate() {
+        // Подготовка: 100 000 различных ключей, каждый повторён дважды
+        int keys = 100_000;
+        RxObservable<Long> source = RxObservable.create(o -> {
+            for (long i = 0; i < keys; i++) {
+                o.onNext(i);
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+        DistinctOperator.Stats stats = new DistinctOperator.Stats();
+
+        // Действие: фильтр с долей ложных срабатываний 1%
+        DistinctOperator.approximate(source, Long::longValue, keys, 0.01, stats).subscribe(x -> { });
+
+        // Проверка: все повторы отброшены, потеряно не больше ~1% новых ключей
+        assertTrue(stats.getAccepted() <= keys);
+        assertTrue(stats.getAccepted() >= keys * 0.98, "Принято: " + stats.getAccepted());
+        assertTrue(stats.getMemoryFootprintBytes() < keys * 2L, "Фильтр должен занимать ~1.2 байта на ключ");
+    }
+
+    @Test
+    void spillBufferOperator_shouldSpillBurstToDiskAndPreserveOrder(@TempDir Path spillDir)
+            throws InterruptedException {
+        // Подготовка: всплеск из 50 000 элементов при 100 элементах в памяти
+        int count = 50_000;
+        RxObservable<Long> burst = RxObservable.create(o -> {
+            for (long i = 0; i < count; i++) {
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+        SpillBufferOperator.Stats stats = new SpillBufferOperator.Stats();
+        List<Long> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        CountDownLatch producerFinished = new CountDownLatch(1);
+
+        // Действие: потребитель стартует только после окончания всплеска
+        SpillBufferOperator.apply(burst, RxCodec.int64(), 100, new RxSingleScheduler(), spillDir, stats)
+                .subscribe(item -> {
+                    awaitQuietly(producerFinished);
+                    received.add(item);
+                }, Throwable::printStackTrace, done::countDown);
+        long spilledDuringBurst = stats.getDiskItems();
+        producerFinished.countDown();
+
+        // Проверка: излишек ушёл на диск, всё доставлено по порядку, диск освобождён
+        assertTrue(done.await(10, TimeUnit.SECONDS), "Таймаут доставки");
+        assertTrue(spilledDuringBurst >= count - 101, "На диске: " + spilledDuringBurst);
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, received.get(i));
+        }
+        assertEquals(stats.getSpilledItems() * 12, stats.getSpilledBytes());
+        assertEquals(0, stats.getDiskItems());
+        assertEquals(0, spillDir.toFile().list().length);
+    }
+
+    @Test
+    void spillBufferOperator_shouldCancelSourceAndDeleteSegmentsOnDispose(@TempDir Path spillDir)
+            throws InterruptedException {
+        // Подготовка: бесконечный источник и потребитель, не успевающий за ним
+        AtomicLong emitted = new AtomicLong();
+        CountDownLatch sourceStopped = new CountDownLatch(1);
+        RxObservable<Long> endless = RxObservable.<Long>create((o, d) -> {
+            for (long i = 0; !d.isDisposed(); i++) {
+                emitted.incrementAndGet();
+                o.onNext(i);
+            }
+            sourceStopped.countDown();
+        }).subscribeOn(new RxIOScheduler());
+        SpillBufferOperator.Stats stats = new SpillBufferOperator.Stats();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Действие: отменяем, пока излишек лежит на диске
+        RxDisposable subscription = SpillBufferOperator.apply(endless, RxCodec.int64(), 100,
+                        new RxSingleScheduler(), spillDir, stats)
+                .subscribe(item -> awaitQuietly(release));
+        assertTrue(awaitCondition(() -> stats.getDiskItems() > 10_000, 10, TimeUnit.SECONDS),
+                "Излишек не ушёл на диск");
+        subscription.dispose();
+        release.countDown();
+
+        // Проверка: источник остановлен, временные файлы удалены
+        assertTrue(sourceStopped.await(10, TimeUnit.SECONDS), "Источник продолжает эмитить");
+        assertEquals(0, stats.getDiskItems());
+        assertEquals(0, spillDir.toFile().list().length);
+    }
+
+    @Test
+    void joinOperator_shouldEnrichStreamFromChangelogTable() {
+        // Подготовка: справочник с обновлением и удалением
+        RxObservable<Map.Entry<String, String>> changelog = RxObservable.just(
+                Map.entry("u1", "Анна"),
+                Map.entry("u2", "Борис"),
+                Map.entry("u1", "Анна К."),
+                new AbstractMap.SimpleEntry<>("u2", null));
+        RxObservable<String> events = RxObservable.just("u1", "u2", "u3");
+        List<String> inner = new ArrayList<>();
+        List<String> left = new ArrayList<>();
+
+        // Действие
+        JoinOperator.streamTable(events, e -> e, changelog, (e, name) -> e + "=" + name)
+                .subscribe(inner::add);
+        JoinOperator.streamTable(events, e -> e, changelog, new IndexedTable<>(),
+                        (e, name) -> e + "=" + name, true)
+                .subscribe(left::add);
+
+        // Проверка: последнее значение ключа, удалённые и неизвестные ключи не соединяются
+        assertEquals(List.of("u1=Анна К."), inner);
+        assertEquals(List.of("u1=Анна К.", "u2=null", "u3=null"), left);
+    }
+
+    @Test
+    void indexedTable_shouldEvictOldestAndKeepValuesOffHeap() {
+        // Подготовка: таблица на 1000 записей со значениями вне кучи
+        IndexedTable<Integer, String> table = new IndexedTable<>(1000, 0, TimeUnit.MILLISECONDS, RxCodec.utf8());
+        List<Map.Entry<Integer, String>> changes = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int key = 0; key < 1500; key++) {
+                changes.add(Map.entry(key, "значение-" + key + "-" + round));
+            }
+        }
+
+        // Действие: перезаписываем значения, вынуждая вытеснение и уплотнение арены
+        RxObservable<Map.Entry<Integer, String>> changelog = RxObservable.create(o -> {
+            changes.forEach(o::onNext);
+            o.onComplete();
+        });
+        JoinOperator.materialize(changelog, table).subscribe(c -> { });
+
+        // Проверка: осталась 1000 последних ключей с последними значениями
+        assertEquals(1000, table.size());
+        assertNull(table.get(0));
+        assertEquals("значение-1499-19", table.get(1499));
+        assertEquals("значение-500-19", table.get(500));
+        assertEquals(20 * 1500 - 1000, table.getEvictions());
+        assertTrue(table.offHeapBytes() < 1 << 20, "Арена не уплотняется: " + table.offHeapBytes());
+    }
+
+    @Test
+    void windowedJoin_shouldPairItemsWithinWindowOnly() {
+        // Подготовка: заказы и оплаты с временем события в миллисекундах
+        RxObservable<long[]> orders = RxObservable.just(new long[]{1, 1_000}, new long[]{2, 2_000},
+                new long[]{3, 50_000});
+        RxObservable<long[]> payments = RxObservable.just(new long[]{1, 4_000}, new long[]{2, 30_000},
+                new long[]{3, 52_000}, new long[]{3, 54_000});
+        List<String> joined = new ArrayList<>();
+
+        // Действие: окно 5 секунд
+        JoinOperator.windowed(orders, payments, o -> o[0], p -> p[0], o -> o[1], p -> p[1],
+                        5, TimeUnit.SECONDS, 100, (o, p) -> o[0] + ":" + o[1] + "/" + p[1])
+                .subscribe(joined::add);
+
+        // Проверка: оплата заказа 2 вне окна, заказ 3 соединился с обеими оплатами
+        assertEquals(List.of("1:1000/4000", "3:50000/52000", "3:50000/54000"), joined);
+    }
+
+    @Test
+    void windowedJoin_shouldNotPairItemsOlderThanHorizon() {
+        // Подготовка: поздний левый элемент 1 стоит в очереди за более свежим элементом 2
+        RxObservable<long[]> orders = RxObservable.just(new long[]{2, 20_000}, new long[]{1, 1_000});
+        RxObservable<long[]> payments = RxObservable.just(new long[]{3, 20_000}, new long[]{1, 4_000},
+                new long[]{2, 21_000});
+        List<String> joined = new ArrayList<>();
+
+        // Действие: окно 5 секунд, после первой оплаты горизонт равен 15 000
+        JoinOperator.windowed(orders, payments, o -> o[0], p -> p[0], o -> o[1], p -> p[1],
+                        5, TimeUnit.SECONDS, 100, (o, p) -> o[0] + ":" + o[1] + "/" + p[1])
+                .subscribe(joined::add);
+
+        // Проверка: заказ 1 старше горизонта и не соединяется даже с опоздавшей оплатой
+        assertEquals(List.of("2:20000/21000"), joined);
+    }
+
+    @Test
+    void windowedJoin_shouldFailOnNullKeyAndCancelBothSides() throws InterruptedException {
+        // Подготовка: бесконечные асинхронные стороны; ключ заказа с нулевым номером не определён,
+        // заказы ждут подписки оплат, чтобы отменять пришлось обе работающие стороны
+        CountDownLatch paymentsStarted = new CountDownLatch(1);
+        CountDownLatch sidesStopped = new CountDownLatch(2);
+        RxObservable<long[]> orders = RxObservable.<long[]>create((o, d) -> {
+            awaitQuietly(paymentsStarted);
+            for (long i = 1; !d.isDisposed(); i++) {
+                o.onNext(new long[]{i == 5 ? 0 : i, i});
+            }
+            sidesStopped.countDown();
+        }).subscribeOn(new RxIOScheduler());
+        RxObservable<long[]> payments = RxObservable.<long[]>create((o, d) -> {
+            paymentsStarted.countDown();
+            for (long i = 1; !d.isDisposed(); i++) {
+                o.onNext(new long[]{-i, i});
+            }
+            sidesStopped.countDown();
+        }).subscribeOn(new RxIOScheduler());
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        // Действие
+        JoinOperator.windowed(orders, payments, o -> o[0] == 0 ? null : o[0], p -> p[0], o -> o[1], p -> p[1],
+                        5, TimeUnit.SECONDS, 100, (o, p) -> o[0] + "/" + p[0])
+                .subscribe(pair -> { }, t -> {
+                    error.set(t);
+                    done.countDown();
+                }, done::countDown);
+
+        // Проверка: поток завершён ошибкой, обе стороны отменены
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Ошибка не доставлена");
+        assertInstanceOf(NullPointerException.class, error.get());
+        assertTrue(sidesStopped.await(5, TimeUnit.SECONDS), "Стороны продолжают эмитить после ошибки");
+    }
+
+    @Test
+    void mapAsyncOperator_shouldKeepOrderAndLimitConcurrency() throws InterruptedException {
+        // Подготовка: блокирующий вызов со случайной задержкой
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> ordered = new ArrayList<>();
+        List<Integer> unordered = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        Function<Integer, Integer> lookup = x -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(1, 10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return x * 10;
+        };
+        RxObservable<Integer> source = RxObservable.create(o -> {
+            for (int i = 0; i < 200; i++) {
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+
+        // Действие
+        MapAsyncOperator.apply(source, lookup, 8, true).subscribe(ordered::add, Throwable::printStackTrace,
+                done::countDown);
+        MapAsyncOperator.apply(source, lookup, 8, false).subscribe(unordered::add, Throwable::printStackTrace,
+                done::countDown);
+
+        // Проверка: порядок входа, все элементы, не больше 8 вызовов на оператор
+        assertTrue(done.await(10, TimeUnit.SECONDS), "Таймаут mapAsync");
+        assertEquals(200, ordered.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i * 10, ordered.get(i));
+        }
+        assertEquals(200, new HashSet<>(unordered).size());
+        assertTrue(maxInFlight.get() > 1 && maxInFlight.get() <= 16, "Одновременных вызовов: " + maxInFlight.get());
+    }
+
+    @Test
+    void mapAsyncOperator_shouldDeliverErrorAfterPrecedingResults() throws InterruptedException {
+        // Подготовка: бесконечный источник, сообщающий о своей остановке
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        CountDownLatch sourceStopped = new CountDownLatch(1);
+        RxObservable<Integer> endless = RxObservable.<Integer>create((o, d) -> {
+            for (int i = 1; !d.isDisposed(); i++) {
+                o.onNext(i);
+            }
+            sourceStopped.countDown();
+        }).subscribeOn(new RxIOScheduler());
+
+        // Действие: функция падает на пятом элементе
+        MapAsyncOperator.apply(endless, x -> {
+            if (x == 5) {
+                throw new IllegalStateException("сбой на " + x);
+            }
+            return x;
+        }, 4, true).subscribe(received::add, t -> {
+            error.set(t);
+            done.countDown();
+        }, done::countDown);
+
+        // Проверка: ошибка после предыдущих результатов, источник отменён
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3, 4), received);
+        assertEquals("сбой на 5", error.get().getMessage());
+        assertTrue(sourceStopped.await(5, TimeUnit.SECONDS), "Источник продолжает эмитить после ошибки");
+    }
+
+    @Test
+    void adaptiveFlatMap_shouldTrackBackendCapacity() throws InterruptedException {
+        // Подготовка: у каждого конвейера свой бэкенд, он отвечает за 5 мс до 8 параллельных запросов,
+        // дальше — пропорционально медленнее; порог AIMD с запасом выше задержек планировщика
+        AtomicInteger maxLoad = new AtomicInteger();
+        Function<Integer, RxObservable<? extends Integer>> aimdCall = backend(new AtomicInteger(), maxLoad);
+        Function<Integer, RxObservable<? extends Integer>> gradientCall = backend(new AtomicInteger(), maxLoad);
+        AdaptiveLimiter aimd = AdaptiveLimiter.aimd(2, 1, 256, 25, TimeUnit.MILLISECONDS);
+        AdaptiveLimiter gradient = AdaptiveLimiter.gradient(2, 1, 256);
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(2);
+        RxObservable<Integer> requests = RxObservable.create(o -> {
+            for (int i = 0; i < 1000; i++) {
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+
+        // Действие
+        FlatMapOperator.apply(requests, aimdCall, aimd)
+                .subscribe(x -> received.incrementAndGet(), Throwable::printStackTrace, done::countDown);
+        FlatMapOperator.apply(requests, gradientCall, gradient)
+                .subscribe(x -> received.incrementAndGet(), Throwable::printStackTrace, done::countDown);
+
+        // Проверка: лимиты выросли от начальных, но не ушли к верхней границе
+        assertTrue(done.await(30, TimeUnit.SECONDS), "Таймаут адаптивного flatMap");
+        assertEquals(2000, received.get());
+        for (AdaptiveLimiter limiter : List.of(aimd, gradient)) {
+            assertTrue(limiter.getLimit() > 2 && limiter.getLimit() < 128, "Лимит: " + limiter.getLimit());
+            assertEquals(1000, limiter.getSamples());
+            assertEquals(0, limiter.getInFlight());
+            assertTrue(limiter.getMinRttNanos() > 0 && limiter.getSmoothedRttNanos() >= limiter.getMinRttNanos());
+        }
+        assertTrue(maxLoad.get() < 256, "Нагрузка на бэкенд: " + maxLoad.get());
+    }
+
+    private static Function<Integer, RxObservable<? extends Integer>> backend(
+            AtomicInteger load, AtomicInteger maxLoad) {
+        return x -> RxObservable.<Integer>create(o -> {
+            int current = load.incrementAndGet();
+            maxLoad.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(5L * Math.max(1, current / 8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            load.decrementAndGet();
+            o.onNext(x);
+            o.onComplete();
+        }).subscribeOn(new RxIOScheduler());
+    }
+
+    @Test
+    void adaptiveMerge_shouldSubscribeEverySourceThroughLimiter() {
+        // Подготовка
+        AdaptiveLimiter limiter = AdaptiveLimiter.gradient(1, 1, 4);
+        List<String> result = new ArrayList<>();
+
+        // Действие
+        MergeOperator.apply(limiter, RxObservable.just("A", "B"), RxObservable.just("1"), RxObservable.just("x", "y"))
+                .subscribe(result::add);
+
+        // Проверка: все источники прошли через ограничитель и вернули слоты
+        assertEquals(List.of("A", "B", "1", "x", "y"), result);
+        assertEquals(3, limiter.getSamples());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void adaptiveFlatMap_shouldReturnSlotsOnCancel() throws InterruptedException {
+        // Подготовка: бесконечный источник и вложенные Observable, которые не завершаются
+        AdaptiveLimiter limiter = AdaptiveLimiter.aimd(4, 1, 16, 5, TimeUnit.MILLISECONDS);
+        CountDownLatch started = new CountDownLatch(4);
+        RxObservable<Integer> requests = RxObservable.<Integer>create((o, d) -> {
+            for (int i = 0; !d.isDisposed(); i++) {
+                o.onNext(i);
+            }
+        }).subscribeOn(new RxIOScheduler());
+
+        // Действие: отменяем подписку, когда все слоты заняты
+        RxDisposable subscription = FlatMapOperator.apply(requests,
+                        x -> RxObservable.<Integer>create(o -> o.onNext(x)), limiter)
+                .subscribe(x -> started.countDown());
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Таймаут адаптивного flatMap");
+        int inFlightBeforeCancel = limiter.getInFlight();
+        subscription.dispose();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getInFlight() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        // Проверка: отмена вернула все слоты без замеров
+        assertEquals(4, inFlightBeforeCancel);
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getSamples());
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void rateLimitOperator_shouldSmoothBurstAndDropInDropModes() {
+        // Подготовка: всплеск из 100 элементов, время виртуальное
+        RxObservable<Integer> burst = RxObservable.create(o -> {
+            for (int i = 0; i < 100; i++) {
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+        List<Integer> delayed = new ArrayList<>();
+        List<Integer> dropped = new ArrayList<>();
+        List<Integer> dropOldest = new ArrayList<>();
+        AtomicInteger done = new AtomicInteger();
+        RxTestScheduler scheduler = new RxTestScheduler();
+
+        // Действие
+        RateLimitOperator.apply(burst, 200, 10, scheduler)
+                .subscribe(delayed::add, Throwable::printStackTrace, done::incrementAndGet);
+        RateLimitOperator.apply(burst, 1, 10, RateLimitOperator.Mode.DROP, 1, scheduler)
+                .subscribe(dropped::add, Throwable::printStackTrace, done::incrementAndGet);
+        RateLimitOperator.apply(burst, 20, 5, RateLimitOperator.Mode.DROP_OLDEST, 3, scheduler)
+                .subscribe(dropOldest::add, Throwable::printStackTrace, done::incrementAndGet);
+        int passedImmediately = delayed.size();
+        scheduler.advanceTimeBy(51, TimeUnit.MILLISECONDS);
+        int passedAfter51Millis = delayed.size();
+        scheduler.advanceTimeBy(398, TimeUnit.MILLISECONDS);
+        int passedAfter449Millis = delayed.size();
+        scheduler.advanceTimeBy(2, TimeUnit.MILLISECONDS);
+
+        // Проверка: DELAY пропускает burst сразу, остальное — по одному каждые 5 мс
+        assertEquals(10, passedImmediately);
+        assertEquals(20, passedAfter51Millis);
+        assertEquals(99, passedAfter449Millis);
+        assertEquals(3, done.get());
+        assertEquals(0, scheduler.getQueuedTasks());
+        assertEquals(100, delayed.size());
+        assertEquals(99, delayed.get(99));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), dropped);
+        assertEquals(List.of(0, 1, 2, 3, 4, 97, 98, 99), dropOldest);
+    }
+
+    @Test
+    void rateLimitShed_shouldRejectItemsOverLatencyBudget() {
+        // Подготовка: 10 элементов/с, корзина 5, бюджет ожидания 250 мс, время виртуальное
+        RxObservable<Integer> burst = RxObservable.create(o -> {
+            for (int i = 0; i < 20; i++) {
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+        AtomicInteger emitted = new AtomicInteger();
+        RxObservable<Integer> cancellable = RxObservable.create((o, d) -> {
+            for (int i = 0; i < 20 && !d.isDisposed(); i++) {
+                emitted.incrementAndGet();
+                o.onNext(i);
+            }
+            o.onComplete();
+        });
+        List<Integer> accepted = new ArrayList<>();
+        List<Integer> rejected = new ArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicInteger done = new AtomicInteger();
+        RxTestScheduler scheduler = new RxTestScheduler();
+
+        // Действие
+        RateLimitOperator.shed(burst, 10, 5, 250, TimeUnit.MILLISECONDS, scheduler,
+                        (item, e) -> rejected.add(item))
+                .subscribe(accepted::add, Throwable::printStackTrace, done::incrementAndGet);
+        RateLimitOperator.shed(cancellable, 10, 5, 250, TimeUnit.MILLISECONDS, scheduler)
+                .subscribe(x -> { }, t -> {
+                    error.set(t);
+                    done.incrementAndGet();
+                }, done::incrementAndGet);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        // Проверка: 5 сразу, 2 в пределах бюджета, остальные отклонены;
+        // без обработчика первый отклонённый элемент завершает поток и отменяет источник
+        assertEquals(2, done.get());
+        assertEquals(8, emitted.get());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), accepted);
+        assertEquals(13, rejected.size());
+        assertInstanceOf(RateLimitExceededException.class, error.get());
+        assertTrue(((RateLimitExceededException) error.get()).getExpectedWaitNanos()
+                > TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    void windowAggregate_shouldMatchBruteForceOverSlidingWindows() throws InterruptedException {
+        // Подготовка: 5000 событий {время, значение} с неравномерными интервалами и одним длинным разрывом
+        List<long[]> events = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long time = 1_000;
+        for (int i = 0; i < 5000; i++) {
+            time += i == 2500 ? 60_000 : random.nextInt(0, 40);
+            events.add(new long[]{time, random.nextLong(0, 10_000)});
+        }
+        RxObservable<long[]> source = RxObservable.create(o -> {
+            events.forEach(o::onNext);
+            o.onComplete();
+        });
+        List<WindowAggregateOperator.Result<Long>> sums = Collections.synchronizedList(new ArrayList<>());
+        List<WindowAggregateOperator.Result<Long>> maxima = Collections.synchronizedList(new ArrayList<>());
+        List<WindowAggregateOperator.Result<Long>> p95 = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+
+        // Действие: окно 5 с, шаг 1 с
+        WindowAggregateOperator.sum(source, e -> e[1], e -> e[0], 5, 1, TimeUnit.SECONDS)
+                .subscribe(sums::add, Throwable::printStackTrace, done::countDown);
+        WindowAggregateOperator.max(source, e -> e[1], e -> e[0], 5, 1, TimeUnit.SECONDS)
+                .subscribe(maxima::add, Throwable::printStackTrace, done::countDown);
+        WindowAggregateOperator.percentile(source, e -> e[1], e -> e[0], 5, 1, TimeUnit.SECONDS, 95, 100_000)
+                .subscribe(p95::add, Throwable::printStackTrace, done::countDown);
+
+        // Проверка: каждое окно совпадает с пересчётом по всем событиям окна
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Таймаут окон");
+        assertFalse(sums.isEmpty());
+        assertEquals(sums.size(), maxima.size());
+        assertEquals(sums.size(), p95.size());
+        assertEquals(time / 1000 * 1000 + 1000, sums.get(sums.size() - 1).getEnd());
+        for (int w = 0; w < sums.size(); w++) {
+            WindowAggregateOperator.Result<Long> window = sums.get(w);
+            assertEquals(5000, window.getEnd() - window.getStart());
+            List<Long> values = new ArrayList<>();
+            for (long[] e : events) {
+                if (e[0] >= window.getStart() && e[0] < window.getEnd()) {
+                    values.add(e[1]);
+                }
+            }
+            Collections.sort(values);
+            assertEquals(values.size(), window.getCount(), "Окно " + window);
+            assertEquals(values.stream().mapToLong(Long::longValue).sum(), window.getValue(), "Окно " + window);
+            if (values.isEmpty()) {
+                assertNull(maxima.get(w).getValue());
+                assertNull(p95.get(w).getValue());
+                continue;
+            }
+            assertEquals(values.get(values.size() - 1), maxima.get(w).getValue(), "Окно " + window);
+            long exact = values.get((int) Math.ceil(0.95 * values.size()) - 1);
+            long approximate = p95.get(w).getValue();
+            assertTrue(Math.abs(approximate - exact) <= Math.max(1, exact / 50),
+                    "p95 " + approximate + " вместо " + exact + " в окне " + window);
+        }
+    }
+
+    @Test
+    void windowAggregate_shouldKeepPaneOrderInTwoStackAndSupportTumbling() throws InterruptedException {
+        // Подготовка: по букве на секунду, a..j
+        RxObservable<String> letters = RxObservable.create(o -> {
+            for (char c = 'a'; c <= 'j'; c++) {
+                o.onNext(String.valueOf(c));
+            }
+            o.onComplete();
+        });
+        List<String> sliding = new ArrayList<>();
+        List<Long> tumbling = new ArrayList<>();
+
+        // Действие: некоммутативная конкатенация в окне 3 с и счётчик в тумблинг-окне 4 с
+        WindowAggregateOperator.aggregate(letters, s -> (s.charAt(0) - 'a') * 1000L, 3, 1, TimeUnit.SECONDS,
+                "", (a, s) -> a + s, String::concat).subscribe(r -> sliding.add(r.getValue()));
+        WindowAggregateOperator.sum(letters, s -> 1, s -> (s.charAt(0) - 'a') * 1000L, 4, 4, TimeUnit.SECONDS)
+                .subscribe(r -> tumbling.add(r.getValue()));
+
+        // Проверка
+        assertEquals(List.of("a", "ab", "abc", "bcd", "cde", "def", "efg", "fgh", "ghi", "hij"), sliding);
+        assertEquals(List.of(4L, 4L, 2L), tumbling);
+    }
+
+    @Test
+    void using_shouldReuseLeasedResourceAndReleaseItOnCancelThroughChain() throws InterruptedException {
+        // Подготовка: пул «соединений» на 2 ресурса
+        AtomicInteger opened = new AtomicInteger();
+        ResourcePool<AtomicBoolean> pool = new ResourcePool<>(() -> {
+            opened.incrementAndGet();
+            return new AtomicBoolean(true);
+        }, connection -> connection.set(false), AtomicBoolean::get, 2, 0, TimeUnit.SECONDS);
+        CountDownLatch sourceStopped = new CountDownLatch(1);
+        RxObservable<Integer> endless = UsingOperator.apply(pool, 1, TimeUnit.SECONDS,
+                connection -> RxObservable.<Integer>create((o, d) -> {
+                    for (int i = 0; !d.isDisposed(); i++) {
+                        o.onNext(i);
+                    }
+                    sourceStopped.countDown();
+                }));
+        CountDownLatch some = new CountDownLatch(100);
+
+        // Действие: 10 подписок подряд, затем отмена бесконечной подписки через map, filter и смену потоков
+        List<Integer> sums = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ReduceOperator.apply(UsingOperator.apply(pool, 1, TimeUnit.SECONDS,
+                    connection -> RxObservable.just(1, 2, 3)), Integer::sum).subscribe(sums::add);
+        }
+        RxObservable<Integer> chain = FilterOperator.apply(MapOperator.apply(endless, x -> x * 2), x -> x % 4 == 0)
+                .subscribeOn(new RxIOScheduler())
+                .observeOn(new RxIOScheduler());
+        RxDisposable subscription = chain.subscribe(x -> some.countDown());
+        assertTrue(some.await(5, TimeUnit.SECONDS), "Таймаут бесконечного источника");
+        int leasedBeforeCancel = pool.getLeased();
+        subscription.dispose();
+
+        // Проверка: соединение открыто один раз и переиспользовано, отмена вернула его и остановила источник
+        assertTrue(sourceStopped.await(5, TimeUnit.SECONDS), "Источник продолжает эмитить после отмены");
+        assertEquals(Collections.nCopies(10, 6), sums);
+        assertEquals(1, leasedBeforeCancel);
+        assertEquals(0, pool.getLeased());
+        assertEquals(1, pool.getIdle());
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void using_shouldReleaseLeaseThroughSpillBufferAndJournal(@TempDir Path dir) throws Exception {
+        // Подготовка: аренда ресурса выше spillBuffer и record, источник бесконечный
+        ResourcePool<AtomicBoolean> pool = new ResourcePool<>(() -> new AtomicBoolean(true),
+                connection -> connection.set(false), AtomicBoolean::get, 1, 0, TimeUnit.SECONDS);
+        CountDownLatch sourceStopped = new CountDownLatch(1);
+        RxObservable<Long> leased = UsingOperator.apply(pool, 1, TimeUnit.SECONDS,
+                connection -> RxObservable.<Long>create((o, d) -> {
+                    for (long i = 0; !d.isDisposed(); i++) {
+                        o.onNext(i);
+                    }
+                    sourceStopped.countDown();
+                })).subscribeOn(new RxIOScheduler());
+        CountDownLatch some = new CountDownLatch(100);
+
+        try (RxJournal<Long> journal = RxJournal.open(dir.resolve("journal"), RxCodec.int64())) {
+            // Действие
+            RxObservable<Long> chain = journal.record(SpillBufferOperator.apply(leased, RxCodec.int64(), 100,
+                    new RxSingleScheduler(), dir, new SpillBufferOperator.Stats()));
+            RxDisposable subscription = chain.subscribe(x -> some.countDown());
+            assertTrue(some.await(5, TimeUnit.SECONDS), "Таймаут бесконечного источника");
+            int leasedBeforeCancel = pool.getLeased();
+            subscription.dispose();
+
+            // Проверка: отмена прошла через оба оператора, остановила источник и вернула ресурс в пул
+            assertTrue(sourceStopped.await(5, TimeUnit.SECONDS), "Источник продолжает эмитить после отмены");
+            assertTrue(awaitCondition(() -> pool.getLeased() == 0, 5, TimeUnit.SECONDS), "Ресурс не возвращён");
+            assertEquals(1, leasedBeforeCancel);
+            assertEquals(1, pool.getIdle());
+        }
+        pool.close();
+    }
+
+    @Test
+    void resourcePool_shouldWaitValidateAndEvictIdle() throws Exception {
+        // Подготовка: пул на один ресурс с простоем 50 мс
+        AtomicInteger created = new AtomicInteger();
+        ResourcePool<AtomicBoolean> pool = new ResourcePool<>(() -> {
+            created.incrementAndGet();
+            return new AtomicBoolean(true);
+        }, connection -> connection.set(false), AtomicBoolean::get, 1, 50, TimeUnit.MILLISECONDS);
+
+        // Действие и проверка: второй арендатор ждёт возврата и получает тот же ресурс
+        ResourcePool.Lease<AtomicBoolean> first = pool.acquire(1, TimeUnit.SECONDS);
+        assertThrows(TimeoutException.class, () -> pool.acquire(20, TimeUnit.MILLISECONDS));
+        AtomicReference<AtomicBoolean> second = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try (ResourcePool.Lease<AtomicBoolean> lease = pool.acquire(5, TimeUnit.SECONDS)) {
+                second.set(lease.get());
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+        waiter.start();
+        while (pool.getWaiting() == 0) {
+            Thread.sleep(1);
+        }
+        first.release();
+        waiter.join(5000);
+        assertSame(first.get(), second.get());
+        assertEquals(1, created.get());
+
+        // ресурс, не прошедший проверку, заменяется новым; invalidate уничтожает ресурс сразу
+        second.get().set(false);
+        ResourcePool.Lease<AtomicBoolean> replaced = pool.acquire(1, TimeUnit.SECONDS);
+        assertNotSame(first.get(), replaced.get());
+        replaced.invalidate();
+        assertFalse(replaced.get().get());
+        assertEquals(0, pool.getSize());
+
+        // простаивающий ресурс вытесняется
+        pool.acquire(1, TimeUnit.SECONDS).release();
+        assertEquals(1, pool.getIdle());
+        Thread.sleep(100);
+        assertEquals(1, pool.evictIdle());
+        assertEquals(0, pool.getSize());
+        assertEquals(3, created.get());
+        assertEquals(3, pool.getDestroyed());
+        assertEquals(1, pool.getEvicted());
+        pool.close();
+    }
 }
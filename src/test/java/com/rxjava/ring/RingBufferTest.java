@@ -0,0 +1,125 @@
+package com.rxjava.ring;
+
+import com.rxjava.core.RxDisposable;
+import com.rxjava.core.RxObserver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    static final class Event {
+        int producer;
+        long value;
+    }
+
+    private static void fill(Event event, long[] producerAndValue) {
+        event.producer = (int) producerAndValue[0];
+        event.value = producerAndValue[1];
+    }
+
+    @Test
+    void multipleProducers_shouldDeliverAllEventsInProducerOrderToEveryConsumer() throws InterruptedException {
+        // Подготовка: 4 издателя по 100 000 событий, 2 подписчика, 1024 слота
+        int producers = 4;
+        int perProducer = 100_000;
+        RxRingBuffer<Event> ring = new RxRingBuffer<>(Event::new, 1024, RxWaitStrategy.YIELD);
+        long[][] lastSeen = new long[2][producers];
+        long[] totals = new long[2];
+        Set<Event> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        AtomicReference<String> disorder = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(2);
+        for (int c = 0; c < 2; c++) {
+            int consumer = c;
+            Arrays.fill(lastSeen[consumer], -1);
+            ring.observe().subscribe(event -> {
+                if (event.value <= lastSeen[consumer][event.producer]) {
+                    disorder.compareAndSet(null, "Подписчик " + consumer + ": " + event.value);
+                }
+                lastSeen[consumer][event.producer] = event.value;
+                totals[consumer] += event.value;
+                if (consumer == 0) {
+                    distinct.add(event);
+                }
+            }, Throwable::printStackTrace, done::countDown);
+        }
+
+        // Действие
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                long[] argument = new long[2];
+                for (int i = 0; i < perProducer; i++) {
+                    argument[0] = producer;
+                    argument[1] = i;
+                    ring.publishEvent(RingBufferTest::fill, argument);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ring.complete();
+
+        // Проверка: всё доставлено по порядку каждого издателя, событий не больше числа слотов
+        assertTrue(done.await(10, TimeUnit.SECONDS), "Таймаут подписчиков");
+        assertNull(disorder.get());
+        long expected = (long) producers * perProducer * (perProducer - 1) / 2;
+        assertEquals(expected, totals[0]);
+        assertEquals(expected, totals[1]);
+        assertEquals(1024, distinct.size());
+    }
+
+    @Test
+    void waitStrategies_shouldDeliverErrorAfterEventsAndReleaseSlotsOnDispose() throws InterruptedException {
+        for (RxWaitStrategy strategy : RxWaitStrategy.values()) {
+            // Подготовка: обычный подписчик и подписчик, который отписывается после 10 событий
+            RxRingBuffer<Event> ring = new RxRingBuffer<>(Event::new, 16, strategy);
+            AtomicLong received = new AtomicLong();
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            CountDownLatch done = new CountDownLatch(1);
+            ring.observe().subscribe(event -> received.incrementAndGet(), t -> {
+                error.set(t);
+                done.countDown();
+            }, done::countDown);
+            RxDisposable cancelled = new RxDisposable();
+            AtomicLong beforeDispose = new AtomicLong();
+            ring.observe().subscribe(new RxObserver<>() {
+                @Override public void onNext(Event event) {
+                    if (beforeDispose.incrementAndGet() == 10) {
+                        cancelled.dispose();
+                    }
+                }
+                @Override public void onError(Throwable t) { }
+                @Override public void onComplete() { }
+            }, cancelled);
+
+            // Действие: событий в 100 раз больше слотов — издатель не должен зависнуть на отписавшемся
+            for (long i = 0; i < 1600; i++) {
+                ring.publishEvent((event, value) -> event.value = value, i);
+            }
+            ring.error(new IllegalStateException("сбой"));
+
+            // Проверка
+            assertTrue(done.await(5, TimeUnit.SECONDS), "Таймаут " + strategy);
+            assertEquals(1600, received.get(), strategy.name());
+            assertEquals("сбой", error.get().getMessage());
+            assertTrue(beforeDispose.get() < 1600, strategy.name());
+            assertThrows(IllegalStateException.class, ring::next);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.rxjava.schedulers;
 import com.rxjava.core.RxObservable;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -100,6 +102,25 @@ class SchedulerTest {
                 "Задачи должны выполняться в разных потоках пула");
     }
 
+    @Test
+    void virtualThreadScheduler_shouldRunTasksOnVirtualThreads() throws InterruptedException {
+        // Подготовка
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Thread> executionThread = new AtomicReference<>();
+
+        // Действие
+        RxObservable.just("тест")
+                .subscribeOn(new RxVirtualThreadScheduler())
+                .subscribe(item -> {
+                    executionThread.set(Thread.currentThread());
+                    latch.countDown();
+                });
+
+        // Проверка
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Таймаут ожидания выполнения");
+        assertTrue(executionThread.get().isVirtual(), "Должен выполняться в виртуальном потоке");
+    }
+
     @Test
     void observeOn_shouldSwitchThreadForEvents() throws InterruptedException {
         // Подготовка
@@ -128,4 +149,39 @@ class SchedulerTest {
         assertNotEquals(emitThreadName.get(), receiveThreadName.get(),
                 "Эмиссия и обработка должны быть в разных потоках");
     }
+
+    @Test
+    void testScheduler_shouldRunTasksInVirtualTimeOnCallingThread() {
+        // Подготовка
+        RxTestScheduler scheduler = new RxTestScheduler();
+        List<String> events = new ArrayList<>();
+        Thread testThread = Thread.currentThread();
+
+        // Действие: поток через subscribeOn/observeOn и задачи с задержками, одна из которых ставит следующую
+        RxObservable.just(1, 2)
+                .subscribeOn(scheduler)
+                .observeOn(scheduler)
+                .subscribe(item -> events.add(item + "@" + scheduler.now(TimeUnit.MILLISECONDS)
+                        + (Thread.currentThread() == testThread ? "" : " чужой поток")));
+        scheduler.schedule(() -> events.add("b@" + scheduler.now(TimeUnit.MILLISECONDS)), 20, TimeUnit.MILLISECONDS);
+        scheduler.schedule(() -> {
+            events.add("a@" + scheduler.now(TimeUnit.MILLISECONDS));
+            scheduler.schedule(() -> events.add("c@" + scheduler.now(TimeUnit.MILLISECONDS)),
+                    10, TimeUnit.MILLISECONDS);
+        }, 10, TimeUnit.MILLISECONDS);
+        int beforeTrigger = events.size();
+        scheduler.triggerActions();
+        List<String> afterTrigger = new ArrayList<>(events);
+        scheduler.advanceTimeBy(15, TimeUnit.MILLISECONDS);
+        int after15Millis = events.size();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        // Проверка: ничего не выполняется без сдвига времени, задачи с равным сроком — в порядке постановки
+        assertEquals(0, beforeTrigger);
+        assertEquals(List.of("1@0", "2@0"), afterTrigger);
+        assertEquals(3, after15Millis);
+        assertEquals(List.of("1@0", "2@0", "a@10", "b@20", "c@20"), events);
+        assertEquals(1015, scheduler.now(TimeUnit.MILLISECONDS));
+        assertEquals(0, scheduler.getQueuedTasks());
+    }
 }